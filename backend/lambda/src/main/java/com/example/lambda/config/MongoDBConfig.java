@@ -33,6 +33,18 @@ public class MongoDBConfig {
         return mongoClient;
     }
 
+    /**
+     * 커넥션 풀 최대 크기 (MONGODB_URI 의 maxPoolSize, 기본 100)
+     */
+    public static int getMaxPoolSize() {
+        String mongoUri = System.getenv("MONGODB_URI");
+        if (mongoUri == null || mongoUri.isEmpty()) {
+            return 100;
+        }
+        Integer maxPoolSize = new ConnectionString(mongoUri).getMaxConnectionPoolSize();
+        return maxPoolSize != null ? maxPoolSize : 100;
+    }
+
     /**
      * MongoDB 데이터베이스
      */
@@ -0,0 +1,164 @@
+package com.example.lambda.coordinator;
+
+import org.bson.Document;
+
+import java.util.Date;
+
+/**
+ * 청크 분할 계획
+ *
+ * 컬럼 수, 평균 행 크기(시트 XML 크기 / 행 수)로 행당 처리 시간을 추정해
+ * 청크 하나가 목표 시간 안에 끝나도록 청크 크기를 정한다.
+ * 청크 크기는 체크포인트 간격의 배수이므로 모든 청크가 체크포인트에서 시작한다.
+ */
+class ChunkPlanner {
+
+    // 시트 XML 크기를 모를 때 행당 추정 바이트 (파일 크기 Fallback 과 동일 기준)
+    private static final double DEFAULT_ROW_BYTES = 200;
+
+    /**
+     * 계획 결과 (upload_sessions.chunk_plan 에 기록)
+     */
+    static final class Plan {
+        private final int chunkSize;
+        private final int totalChunks;
+        private final int totalRows;
+        private final int columnCount;
+        private final long sheetBytes;
+        private final double avgRowBytes;
+        private final double estimatedChunkSeconds;
+        private final double targetChunkSeconds;
+        private final String limitedBy;
+
+        private Plan(int chunkSize, int totalChunks, int totalRows, int columnCount, long sheetBytes,
+                     double avgRowBytes, double estimatedChunkSeconds, double targetChunkSeconds,
+                     String limitedBy) {
+            this.chunkSize = chunkSize;
+            this.totalChunks = totalChunks;
+            this.totalRows = totalRows;
+            this.columnCount = columnCount;
+            this.sheetBytes = sheetBytes;
+            this.avgRowBytes = avgRowBytes;
+            this.estimatedChunkSeconds = estimatedChunkSeconds;
+            this.targetChunkSeconds = targetChunkSeconds;
+            this.limitedBy = limitedBy;
+        }
+
+        int getChunkSize() {
+            return chunkSize;
+        }
+
+        int getTotalChunks() {
+            return totalChunks;
+        }
+
+        Document toDocument() {
+            return new Document()
+                    .append("chunk_size", chunkSize)
+                    .append("total_chunks", totalChunks)
+                    .append("total_rows", totalRows)
+                    .append("column_count", columnCount)
+                    .append("sheet_bytes", sheetBytes)
+                    .append("avg_row_bytes", avgRowBytes)
+                    .append("estimated_chunk_seconds", estimatedChunkSeconds)
+                    .append("target_chunk_seconds", targetChunkSeconds)
+                    .append("limited_by", limitedBy)
+                    .append("planned_at", new Date());
+        }
+
+        @Override
+        public String toString() {
+            return "chunkSize=" + chunkSize + ", chunks=" + totalChunks +
+                    ", columns=" + columnCount + ", avgRowBytes=" + Math.round(avgRowBytes) +
+                    ", estimated=" + String.format("%.1f", estimatedChunkSeconds) + "s" +
+                    ", limitedBy=" + limitedBy;
+        }
+    }
+
+    private final int checkpointInterval;
+    private final double targetChunkSeconds;
+    private final double bytesPerSecond;
+    private final double cellsPerSecond;
+    private final long maxChunkBytes;
+    private final int maxChunks;
+
+    ChunkPlanner(int checkpointInterval, double targetChunkSeconds, double bytesPerSecond,
+                 double cellsPerSecond, long maxChunkBytes, int maxChunks) {
+        this.checkpointInterval = checkpointInterval;
+        this.targetChunkSeconds = targetChunkSeconds;
+        this.bytesPerSecond = bytesPerSecond;
+        this.cellsPerSecond = cellsPerSecond;
+        this.maxChunkBytes = maxChunkBytes;
+        this.maxChunks = maxChunks;
+    }
+
+    /**
+     * 환경 변수 설정으로 생성
+     *
+     * CHUNK_TARGET_SECONDS (기본 20), CHUNK_BYTES_PER_SEC (Worker 처리량, 기본 4MB),
+     * CHUNK_CELLS_PER_SEC (기본 250000), CHUNK_MAX_MB (청크당 시트 XML 상한, 기본 64), MAX_CHUNKS (기본 100)
+     */
+    static ChunkPlanner fromEnv(int checkpointInterval) {
+        return new ChunkPlanner(checkpointInterval,
+                envDouble("CHUNK_TARGET_SECONDS", 20),
+                envDouble("CHUNK_BYTES_PER_SEC", 4 * 1024 * 1024),
+                envDouble("CHUNK_CELLS_PER_SEC", 250_000),
+                (long) envDouble("CHUNK_MAX_MB", 64) * 1024 * 1024,
+                (int) envDouble("MAX_CHUNKS", 100));
+    }
+
+    /**
+     * @param columnCount 컬럼 수 (모르면 0)
+     * @param sheetBytes  압축 해제된 시트 XML 크기 (모르면 0)
+     */
+    Plan plan(int totalRows, int columnCount, long sheetBytes) {
+        double avgRowBytes = sheetBytes > 0 && totalRows > 0
+                ? (double) sheetBytes / (totalRows + 1) // 헤더 행 포함
+                : DEFAULT_ROW_BYTES;
+        double secondsPerRow = Math.max(avgRowBytes / bytesPerSecond, columnCount / cellsPerSecond);
+
+        if (totalRows <= 0) {
+            return new Plan(checkpointInterval, 0, totalRows, columnCount, sheetBytes, avgRowBytes,
+                    0, targetChunkSeconds, "empty");
+        }
+
+        // 1. 목표 시간
+        long rows = (long) (targetChunkSeconds / secondsPerRow);
+        String limitedBy = "target_time";
+
+        // 2. 청크당 시트 XML 크기 상한 (넓은 행)
+        long maxRowsByBytes = (long) (maxChunkBytes / avgRowBytes);
+        if (rows > maxRowsByBytes) {
+            rows = maxRowsByBytes;
+            limitedBy = "chunk_bytes";
+        }
+
+        // 체크포인트 간격 배수로 내림 (최소 1 간격)
+        rows = Math.max(checkpointInterval, rows / checkpointInterval * checkpointInterval);
+
+        // 3. 업로드당 청크 수 상한 (다른 상한보다 우선)
+        long minRowsByCount = ceilToInterval((totalRows + maxChunks - 1) / maxChunks);
+        if (rows < minRowsByCount) {
+            rows = minRowsByCount;
+            limitedBy = "max_chunks";
+        }
+
+        if (rows >= totalRows) {
+            rows = ceilToInterval(totalRows);
+            limitedBy = "single_chunk";
+        }
+
+        int chunkSize = (int) rows;
+        int totalChunks = (int) Math.ceil((double) totalRows / chunkSize);
+        return new Plan(chunkSize, totalChunks, totalRows, columnCount, sheetBytes, avgRowBytes,
+                Math.min(chunkSize, totalRows) * secondsPerRow, targetChunkSeconds, limitedBy);
+    }
+
+    private long ceilToInterval(long rows) {
+        return Math.max(1, (rows + checkpointInterval - 1) / checkpointInterval) * checkpointInterval;
+    }
+
+    private static double envDouble(String name, double defaultValue) {
+        return System.getenv(name) != null ? Double.parseDouble(System.getenv(name)) : defaultValue;
+    }
+}
@@ -4,46 +4,88 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.S3Event;
 import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import com.example.lambda.config.MongoDBConfig;
+import com.example.lambda.config.RedisConfig;
+import com.example.lambda.excel.RowCheckpointIndex;
+import com.example.lambda.excel.SharedStringsSidecar;
+import com.example.lambda.excel.XlsxEntries;
+import com.example.lambda.excel.XlsxWorkbook;
 import com.example.lambda.model.ProcessingMessage;
+import com.example.lambda.s3.RangedDownloader;
+import com.example.lambda.s3.RemoteZip;
+import com.example.lambda.sqs.SqsBatchPublisher;
+import com.example.lambda.worker.IngestGeneration;
 import com.google.gson.Gson;
-import software.amazon.awssdk.core.ResponseInputStream;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import redis.clients.jedis.Jedis;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 /**
  * Excel Coordinator Lambda Handler
  *
- * S3 Event → 메타데이터 분석 (Dimension 태그 우선, 실패 시 파일 크기 추정) → SQS 메시지 발행
+ * S3 Event → 메타데이터 분석 (Dimension 태그 우선, 없으면 행 카운트) → SQS 메시지 발행
  */
 public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String> {
 
-    //private static final int CHUNK_SIZE = 100000; // 10만 행씩 분할
-    private static final int CHUNK_SIZE = 2000; // 10만 행씩 분할
+    // 행 체크포인트 간격 (청크 크기는 ChunkPlanner 가 이 간격의 배수로 결정)
+    private static final int CHECKPOINT_INTERVAL = 2000;
+    private static final ChunkPlanner CHUNK_PLANNER = ChunkPlanner.fromEnv(CHECKPOINT_INTERVAL);
+    // Dimension 분석 시 요청하는 시트 압축 데이터 크기 (앞부분 2KB 압축 해제용)
+    private static final long DIMENSION_PROBE_BYTES = 64 * 1024;
+    private static final int DIMENSION_HEADER_BYTES = 2048;
+    private static final Pattern DIMENSION_PATTERN =
+            Pattern.compile("<dimension\\s+ref=\"([A-Z]+)([0-9]+):([A-Z]+)([0-9]+)\"");
+    // 정확한 행 수 캐시 (키: S3 ETag, 백엔드도 같은 키로 조회)
+    private static final String ROW_COUNT_KEY_PREFIX = "excel:rowcount:";
+    private static final long ROW_COUNT_TTL_SECONDS = 7 * 24 * 3600;
     private static final String SQS_QUEUE_URL = System.getenv("SQS_QUEUE_URL");
+    // 행 체크포인트 인덱스 사용 여부 (기본 사용)
+    private static final boolean ROW_INDEX_ENABLED =
+            !"false".equalsIgnoreCase(System.getenv("ROW_INDEX_ENABLED"));
+    // 사이드카 객체 접두어 (업로드 키와 구분, 같은 버킷)
+    private static final String SIDECAR_PREFIX = "sidecars/";
     private static final String AWS_REGION = System.getenv("AWS_REGION") != null
             ? System.getenv("AWS_REGION")
             : "ap-northeast-2";
 
     private final S3Client s3Client;
+    private final RangedDownloader rangedDownloader;
     private final SqsClient sqsClient;
+    private final SqsBatchPublisher sqsPublisher;
     private final Gson gson;
 
     public ExcelCoordinatorHandler() {
         Region region = Region.of(AWS_REGION != null ? AWS_REGION : "ap-northeast-2");
         this.s3Client = S3Client.builder().region(region).build();
+        this.rangedDownloader = RangedDownloader.fromEnv(s3Client);
         this.sqsClient = SqsClient.builder().region(region).build();
+        this.sqsPublisher = SqsBatchPublisher.fromEnv(sqsClient, SQS_QUEUE_URL);
         this.gson = new Gson();
     }
 
@@ -56,9 +98,16 @@ public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String>
             S3EventNotification.S3EventNotificationRecord record = s3Event.getRecords().get(0);
             String bucket = record.getS3().getBucket().getName();
             String key = record.getS3().getObject().getKey();
+            String eTag = record.getS3().getObject().geteTag();
 
             context.getLogger().log("S3 파일: bucket=" + bucket + ", key=" + key);
 
+            // 사이드카 업로드 이벤트는 무시
+            if (key.startsWith(SIDECAR_PREFIX)) {
+                context.getLogger().log("사이드카 객체 - 처리 생략");
+                return "SKIPPED: sidecar";
+            }
+
             // 2. S3 키에서 정보 추출
             // 예: projects/{projectId}/sessions/{sessionId}/uploads/{uploadId}/{fileName}
             String[] parts = key.split("/");
@@ -74,18 +123,38 @@ public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String>
             context.getLogger().log("projectId=" + projectId + ", sessionId=" + sessionId +
                     ", uploadId=" + uploadId);
 
-            // 3. Excel 메타데이터 분석 (Dimension 방식 우선)
-            int totalRows = analyzeExcelMetadata(bucket, key, context);
+            // 같은 키를 새 버전으로 덮어쓰면 세대를 올려 Redis 집계를 새로 시작
+            int generation = beginIngest(uploadId, eTag, context);
+
+            // 3. Excel 메타데이터 분석 (행 체크포인트 인덱스 → Dimension 순)
+            WorkbookScan scan = ROW_INDEX_ENABLED
+                    ? scanWorkbook(bucket, key, uploadId, generation, context)
+                    : new WorkbookScan();
+            RowCheckpointIndex rowIndex = scan.rowIndex;
+            int totalRows;
+            if (rowIndex != null) {
+                totalRows = rowIndex.getDataRowCount();
+                cacheRowCount(eTag, totalRows, context);
+            } else {
+                totalRows = analyzeExcelMetadata(bucket, key, eTag, scan, context);
+            }
 
             context.getLogger().log("최종 분석된 행 개수: " + totalRows + " (헤더 제외)");
 
-            // 4. 청크 분할 및 SQS 메시지 발행
-            int totalChunks = (int) Math.ceil((double) totalRows / CHUNK_SIZE);
+            // 4. 청크 계획 (컬럼 수, 평균 행 크기, 목표 청크 시간 기준)
+            ChunkPlanner.Plan plan = CHUNK_PLANNER.plan(totalRows, scan.columnCount, scan.sheetBytes);
+            context.getLogger().log("청크 계획: " + plan);
+            recordChunkPlan(uploadId, plan, context);
+
+            // 5. 청크 분할 및 SQS 메시지 발행
+            int chunkSize = plan.getChunkSize();
+            int totalChunks = plan.getTotalChunks();
             context.getLogger().log("총 청크 개수: " + totalChunks);
 
+            List<ProcessingMessage> messages = new ArrayList<>(totalChunks);
             for (int i = 0; i < totalChunks; i++) {
-                int startRow = i * CHUNK_SIZE + 2; // 1-based, 헤더(1행) 제외
-                int endRow = Math.min((i + 1) * CHUNK_SIZE + 1, totalRows + 1);
+                int startRow = i * chunkSize + 2; // 1-based, 헤더(1행) 제외
+                int endRow = Math.min((i + 1) * chunkSize + 1, totalRows + 1);
 
                 ProcessingMessage message = ProcessingMessage.builder()
                         .projectId(projectId)
@@ -93,22 +162,31 @@ public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String>
                         .uploadId(uploadId)
                         .s3Bucket(bucket)
                         .s3Key(key)
+                        .eTag(eTag)
                         .fileName(fileName)
                         .startRow(startRow)
                         .endRow(endRow)
                         .totalRows(totalRows)
                         .chunkNumber(i + 1)
                         .totalChunks(totalChunks)
+                        .generation(generation)
                         .isFirstChunk(i == 0) // ⭐ 첫 번째 청크 표시
+                        .sheetEntry(scan.sheetEntry)
                         .build();
 
-                sendToSQS(message, context);
+                // ⭐ 체크포인트가 있으면 Worker 가 해당 위치부터 바로 파싱
+                if (rowIndex != null) {
+                    int checkpointRow = rowIndex.checkpointRowFor(startRow - 1);
+                    message.setOffsetRow(checkpointRow);
+                    message.setRowOffset(rowIndex.offsetOf(checkpointRow));
+                    message.setSstKey(scan.sstKey);
+                }
 
-                context.getLogger().log("청크 " + (i + 1) + "/" + totalChunks +
-                        " 발행: " + startRow + "~" + endRow +
-                        (message.isFirstChunk() ? " (첫 청크 - Redis 초기화)" : ""));
+                messages.add(message);
             }
 
+            sendToSQS(messages, context);
+
             context.getLogger().log("=== Excel Coordinator 완료 (즉시!) ===");
             return "SUCCESS: " + totalChunks + " chunks published";
 
@@ -120,62 +198,362 @@ public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String>
     }
 
     /**
-     * Excel 메타데이터 분석
-     * 1순위: XML Dimension 태그 분석 (정확, 빠름)
-     * 2순위: 파일 크기 기반 추정 (Fallback)
+     * 통합 문서 1회 스캔
+     *
+     * 첫 번째 시트, sharedStrings.xml 엔트리만 /tmp 에 받은 뒤 한 번만 읽으며
+     * - 시트 XML: CHECKPOINT_INTERVAL 행마다 &lt;row&gt; 오프셋 기록 (실제 행 수, Dimension, 시트 크기도 함께 얻음)
+     * - sharedStrings.xml: 공유 문자열 사이드카 추출 후 S3 업로드
+     *
+     * @return 스캔 결과 (실패한 항목은 null → 인덱스 없으면 Dimension 방식, 사이드카 없으면 Worker 가 직접 추출)
      */
-    private int analyzeExcelMetadata(String bucket, String key, Context context) {
-        context.getLogger().log("Excel 메타데이터 분석 시작 (Dimension 태그 방식)...");
+    private WorkbookScan scanWorkbook(String bucket, String key, String uploadId, int generation,
+                                      Context context) {
+        context.getLogger().log("통합 문서 스캔 시작 (체크포인트 간격: " + CHECKPOINT_INTERVAL + "행)...");
+        long startTime = System.currentTimeMillis();
+
+        WorkbookScan scan = new WorkbookScan();
+        Path workbookFile = null;
+        Path sstFile = null;
 
-        try (ResponseInputStream<GetObjectResponse> s3Stream = s3Client.getObject(
-                GetObjectRequest.builder().bucket(bucket).key(key).build());
-             ZipInputStream zipIn = new ZipInputStream(s3Stream)) {
+        try {
+            workbookFile = Files.createTempFile("excel-", ".xlsx");
+            long size = downloadEntries(bucket, key, workbookFile, scan, context);
+            context.getLogger().log("파일 다운로드 완료: " + size + " bytes, " +
+                    (System.currentTimeMillis() - startTime) + "ms");
+        } catch (Exception e) {
+            context.getLogger().log("ERROR: 파일 다운로드 실패 (" +
+                    e.getClass().getSimpleName() + "): " + e.getMessage());
+            deleteQuietly(workbookFile, context);
+            return scan;
+        }
 
-            ZipEntry entry;
-            while ((entry = zipIn.getNextEntry()) != null) {
-                if (entry.getName().endsWith("xl/worksheets/sheet1.xml")) {
+        try (ZipFile zipFile = new ZipFile(workbookFile.toFile())) {
+            if (scan.sheetEntry == null) {
+                // 전체 다운로드로 대체된 경우
+                scan.sheetEntry = XlsxWorkbook.read(zipFile).getFirstSheet();
+            }
+            context.getLogger().log("첫 번째 시트: " + scan.sheetEntry);
+
+            ZipEntry sheetEntry = XlsxEntries.find(zipFile, scan.sheetEntry);
+            if (sheetEntry != null) {
+                // 앞부분 Dimension 으로 컬럼 수 확인 후 처음부터 다시 인덱스 생성
+                try (BufferedInputStream sheetIn = new BufferedInputStream(
+                        zipFile.getInputStream(sheetEntry), DIMENSION_HEADER_BYTES)) {
+                    sheetIn.mark(DIMENSION_HEADER_BYTES);
+                    int[] dimension = readDimension(sheetIn);
+                    if (dimension != null) {
+                        scan.columnCount = dimension[1];
+                    }
+                    sheetIn.reset();
 
-                    context.getLogger().log("시트 발견: " + entry.getName());
+                    scan.rowIndex = RowCheckpointIndex.build(sheetIn, CHECKPOINT_INTERVAL);
+                }
+                scan.sheetBytes = Math.max(0, sheetEntry.getSize());
+                if (scan.rowIndex == null) {
+                    context.getLogger().log("WARNING: <row> 태그를 찾지 못함. Dimension 방식으로 진행.");
+                } else {
+                    context.getLogger().log("행 체크포인트 인덱스 생성 완료: rows=" +
+                            scan.rowIndex.getDataRowCount());
+                }
+            }
+
+            ZipEntry sstEntry = XlsxEntries.find(zipFile, XlsxEntries.SHARED_STRINGS);
+            if (sstEntry != null) {
+                sstFile = Files.createTempFile("sst-", ".bin");
+                try (InputStream in = zipFile.getInputStream(sstEntry);
+                     OutputStream out = Files.newOutputStream(sstFile)) {
+                    int count = SharedStringsSidecar.write(in, out);
+                    context.getLogger().log("공유 문자열 추출 완료: " + count + "개");
+                }
+            }
 
-                    // ⭐ [수정] readLine() 제거!
-                    // 무조건 앞부분 2KB(2048 바이트)만 읽어서 String으로 변환
-                    byte[] buffer = new byte[2048];
-                    int bytesRead = 0;
+            if (sstFile != null && scan.rowIndex != null) {
+                scan.sstKey = IngestGeneration.sidecarKey(SIDECAR_PREFIX, uploadId, generation);
+                s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(scan.sstKey).build(),
+                        RequestBody.fromFile(sstFile));
+                context.getLogger().log("공유 문자열 사이드카 업로드: " + scan.sstKey +
+                        " (" + Files.size(sstFile) + " bytes)");
+            }
 
-                    // 루프를 돌며 버퍼가 찰 때까지 읽음 (네트워크 패킷 분할 고려)
-                    int len;
-                    while (bytesRead < buffer.length && (len = zipIn.read(buffer, bytesRead, buffer.length - bytesRead)) != -1) {
-                        bytesRead += len;
-                    }
+        } catch (Exception e) {
+            context.getLogger().log("ERROR: 통합 문서 스캔 실패 (" +
+                    e.getClass().getSimpleName() + "): " + e.getMessage());
+            scan.sstKey = null;
+        } finally {
+            deleteQuietly(sstFile, context);
+            deleteQuietly(workbookFile, context);
+        }
 
-                    if (bytesRead > 0) {
-                        String xmlHeader = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
+        context.getLogger().log("통합 문서 스캔 완료: " + (System.currentTimeMillis() - startTime) + "ms");
+        return scan;
+    }
 
-                        // 정규식으로 태그 찾기
-                        Pattern pattern = Pattern.compile("<dimension\\s+ref=\"[A-Z]+[0-9]+:[A-Z]+([0-9]+)\"");
-                        Matcher matcher = pattern.matcher(xmlHeader);
+    /**
+     * ⭐ 스캔 대상 엔트리만 다운로드 (central directory 기준 range GET)
+     *
+     * 이미지, 피벗 캐시, 다른 시트는 받지 않는다. central directory 를 읽지 못하면(ZIP64 등) 전체 파일을 받고,
+     * 첫 번째 시트는 받은 파일에서 찾는다 (scan.sheetEntry 는 null 로 둠).
+     */
+    private long downloadEntries(String bucket, String key, Path target, WorkbookScan scan,
+                                 Context context) throws IOException {
+        try {
+            RemoteZip remoteZip = RemoteZip.open(s3Client, bucket, key);
+            scan.sheetEntry = XlsxWorkbook.read(remoteZip::open).getFirstSheet();
+
+            List<RemoteZip.Entry> entries = new ArrayList<>();
+            for (String name : List.of(scan.sheetEntry, XlsxEntries.SHARED_STRINGS)) {
+                RemoteZip.Entry entry = remoteZip.find(name);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
 
-                        if (matcher.find()) {
-                            String rowsStr = matcher.group(1);
-                            int rowCount = Integer.parseInt(rowsStr);
-                            context.getLogger().log("Dimension 태그 발견! 행 개수: " + rowCount);
+            long size = remoteZip.writeEntries(entries, target, rangedDownloader);
+            context.getLogger().log("필요 엔트리만 다운로드: " + entries.size() + "/" +
+                    remoteZip.getEntries().size() + "개 (원본 " + remoteZip.getObjectSize() + " bytes)");
+            return size;
 
-                            return rowCount > 0 ? rowCount - 1 : 0;
-                        }
+        } catch (IOException e) {
+            context.getLogger().log("WARNING: 부분 다운로드 실패, 전체 다운로드로 진행: " + e.getMessage());
+            scan.sheetEntry = null;
+            return rangedDownloader.download(bucket, key, target);
+        }
+    }
+
+    /**
+     * 임시 파일 삭제 (실패해도 경고만 기록)
+     */
+    private void deleteQuietly(Path file, Context context) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 임시 파일 삭제 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Excel 메타데이터 분석
+     * 1순위: XML Dimension 태그 분석 (정확, 빠름)
+     * 2순위: ETag 기준 캐시된 정확한 행 수
+     * 3순위: &lt;row&gt; 태그 카운트 (시트 전체를 압축 해제하지만 XML 파싱 없음)
+     * 4순위: 파일 크기 기반 추정 (Fallback)
+     */
+    private int analyzeExcelMetadata(String bucket, String key, String eTag, WorkbookScan scan,
+                                     Context context) {
+        context.getLogger().log("Excel 메타데이터 분석 시작 (Dimension 태그 방식)...");
+
+        RemoteZip remoteZip = null;
+        RemoteZip.Entry entry = null;
+        try {
+            // ⭐ central directory 로 시트 위치를 찾아 압축 데이터 앞부분만 요청
+            remoteZip = RemoteZip.open(s3Client, bucket, key);
+            if (scan.sheetEntry == null) {
+                scan.sheetEntry = XlsxWorkbook.read(remoteZip::open).getFirstSheet();
+            }
+            entry = remoteZip.find(scan.sheetEntry);
+
+            if (entry != null) {
+                scan.sheetBytes = entry.getSize();
+
+                try (InputStream zipIn = remoteZip.openEntry(entry, DIMENSION_PROBE_BYTES)) {
+
+                    context.getLogger().log("시트 발견: " + entry.getName());
+
+                    int[] dimension = readDimension(zipIn);
+                    if (dimension != null) {
+                        int rowCount = dimension[0];
+                        scan.columnCount = dimension[1];
+                        context.getLogger().log("Dimension 태그 발견! 행 개수: " + rowCount +
+                                ", 컬럼 개수: " + scan.columnCount);
+
+                        return rowCount > 0 ? rowCount - 1 : 0;
                     }
 
-                    context.getLogger().log("WARNING: 앞부분 2KB에서 Dimension 태그를 찾지 못함. Fallback 실행.");
-                    break; // 못 찾으면 Fallback
+                    context.getLogger().log("WARNING: 앞부분 2KB에서 Dimension 태그를 찾지 못함. 행 카운트 실행.");
                 }
             }
         } catch (Exception e) {
             context.getLogger().log("ERROR: Dimension 분석 실패 (" + e.getClass().getSimpleName() + "): " + e.getMessage());
         }
 
+        Integer cachedRows = getCachedRowCount(eTag, context);
+        if (cachedRows != null) {
+            context.getLogger().log("캐시된 행 개수 사용: " + cachedRows + " (ETag=" + eTag + ")");
+            return cachedRows;
+        }
+
+        if (entry != null) {
+            try {
+                int rowCount = countSheetRows(remoteZip, entry, context);
+                cacheRowCount(eTag, rowCount, context);
+                return rowCount;
+            } catch (Exception e) {
+                context.getLogger().log("ERROR: 행 카운트 실패 (" + e.getClass().getSimpleName() + "): " + e.getMessage());
+            }
+        }
+
         // 실패 시 안전장치
         return fallbackEstimate(bucket, key, context);
     }
 
+    /**
+     * ⭐ 시트 전체의 &lt;row&gt; 태그 카운트 (바이트 매칭만, XML 파싱 없음)
+     */
+    private int countSheetRows(RemoteZip remoteZip, RemoteZip.Entry entry, Context context) throws IOException {
+        long startTime = System.currentTimeMillis();
+        try (InputStream sheetXml = remoteZip.openEntry(entry, entry.getCompressedSize())) {
+            int rowCount = RowCheckpointIndex.countDataRows(sheetXml);
+            context.getLogger().log("행 카운트 완료: " + rowCount + "행, " +
+                    (System.currentTimeMillis() - startTime) + "ms");
+            return rowCount;
+        }
+    }
+
+    /**
+     * ETag 기준 캐시된 정확한 행 수 (없거나 Redis 오류면 null)
+     */
+    private Integer getCachedRowCount(String eTag, Context context) {
+        if (eTag == null) {
+            return null;
+        }
+        try (Jedis jedis = RedisConfig.getJedis()) {
+            String value = jedis.get(ROW_COUNT_KEY_PREFIX + eTag);
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 행 개수 캐시 조회 실패: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 정확한 행 수를 ETag 기준으로 캐시 (같은 파일 재업로드/재처리 시 카운트 생략)
+     */
+    private void cacheRowCount(String eTag, int rowCount, Context context) {
+        if (eTag == null) {
+            return;
+        }
+        try (Jedis jedis = RedisConfig.getJedis()) {
+            jedis.setex(ROW_COUNT_KEY_PREFIX + eTag, ROW_COUNT_TTL_SECONDS, String.valueOf(rowCount));
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 행 개수 캐시 저장 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 시트 XML 앞부분의 Dimension 태그 읽기
+     *
+     * @return {마지막 행 번호, 컬럼 수} (태그가 없으면 null)
+     */
+    private static int[] readDimension(InputStream sheetXml) throws IOException {
+        // ⭐ [수정] readLine() 제거!
+        // 무조건 앞부분 2KB(2048 바이트)만 읽어서 String으로 변환
+        byte[] buffer = new byte[DIMENSION_HEADER_BYTES];
+        int bytesRead = 0;
+
+        // 루프를 돌며 버퍼가 찰 때까지 읽음 (네트워크 패킷 분할 고려)
+        int len;
+        while (bytesRead < buffer.length && (len = sheetXml.read(buffer, bytesRead, buffer.length - bytesRead)) != -1) {
+            bytesRead += len;
+        }
+
+        if (bytesRead == 0) {
+            return null;
+        }
+
+        String xmlHeader = new String(buffer, 0, bytesRead, StandardCharsets.UTF_8);
+
+        // 정규식으로 태그 찾기
+        Matcher matcher = DIMENSION_PATTERN.matcher(xmlHeader);
+        if (!matcher.find()) {
+            return null;
+        }
+
+        int rowCount = Integer.parseInt(matcher.group(4));
+        int columnCount = columnIndex(matcher.group(3)) - columnIndex(matcher.group(1)) + 1;
+        return new int[]{rowCount, columnCount};
+    }
+
+    /**
+     * 열 문자 → 1-based 인덱스 (A=1, Z=26, AA=27)
+     */
+    private static int columnIndex(String letters) {
+        int index = 0;
+        for (int i = 0; i < letters.length(); i++) {
+            index = index * 26 + (letters.charAt(i) - 'A' + 1);
+        }
+        return index;
+    }
+
+    /**
+     * ⭐ 적재 세대 결정 (upload_sessions.ingest_etag / ingest_generation)
+     *
+     * ETag 가 바뀐 경우에만 세대를 1 올린다. 같은 ETag 의 이벤트가 다시 오면 기존 세대를 그대로 써서
+     * 청크 비트맵이 중복 청크를 걸러낸다. Redis TTL 이 지나도 세대가 되돌아가지 않도록 MongoDB 에 둔다.
+     *
+     * @return 적재 세대 (업로드 세션이 없으면 0)
+     */
+    private int beginIngest(String uploadId, String eTag, Context context) {
+        MongoCollection<Document> uploadSessions = MongoDBConfig.getDatabase().getCollection("upload_sessions");
+
+        Document started = uploadSessions.findOneAndUpdate(
+                Filters.and(Filters.eq("upload_id", uploadId), Filters.ne("ingest_etag", eTag)),
+                Updates.combine(Updates.set("ingest_etag", eTag), Updates.inc("ingest_generation", 1)),
+                new FindOneAndUpdateOptions()
+                        .projection(Projections.include("ingest_generation"))
+                        .returnDocument(ReturnDocument.AFTER));
+        if (started != null) {
+            int generation = started.getInteger("ingest_generation");
+            context.getLogger().log("새 적재 세대: generation=" + generation + " (ETag=" + eTag + ")");
+            if (generation > 1) {
+                deletePreviousRows(uploadId, generation, context);
+            }
+            return generation;
+        }
+
+        Document current = uploadSessions.find(Filters.eq("upload_id", uploadId))
+                .projection(Projections.include("ingest_generation"))
+                .first();
+        if (current == null) {
+            context.getLogger().log("WARNING: 업로드 세션 없음 - 세대 0 으로 처리: uploadId=" + uploadId);
+            return 0;
+        }
+        int generation = current.getInteger("ingest_generation", 0);
+        context.getLogger().log("같은 버전 이벤트 재수신 - 기존 세대 사용: generation=" + generation);
+        return generation;
+    }
+
+    /**
+     * 덮어쓰기 전 버전의 행 삭제 (새 버전 행과 섞여 조회되지 않도록)
+     *
+     * 이미 돌고 있던 이전 버전 청크가 이후에 넣는 행은 Worker 가 완료/무효 처리 시 지운다.
+     */
+    private void deletePreviousRows(String uploadId, int generation, Context context) {
+        try {
+            long deleted = IngestGeneration.deleteOtherGenerations(MongoDBConfig.getDatabase(), uploadId, generation);
+            context.getLogger().log("이전 버전 행 삭제: " + deleted + "건");
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 이전 버전 행 삭제 실패 (완료 시 Worker 가 다시 삭제): " + e.getMessage());
+        }
+    }
+
+    /**
+     * ⭐ 청크 계획 기록 (upload_sessions.chunk_plan)
+     *
+     * Worker 가 같은 문서에 실제 청크 처리 시간을 합산하므로 추정치와 비교해 설정값을 조정할 수 있다.
+     */
+    private void recordChunkPlan(String uploadId, ChunkPlanner.Plan plan, Context context) {
+        try {
+            MongoDBConfig.getDatabase().getCollection("upload_sessions").updateOne(
+                    Filters.eq("upload_id", uploadId),
+                    Updates.set("chunk_plan", plan.toDocument()));
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 청크 계획 기록 실패: " + e.getMessage());
+        }
+    }
+
     /**
      * Fallback: 파일 크기 기반 추정 (기존 로직)
      * Dimension 태그를 못 찾았을 때 실행됨
@@ -206,19 +584,40 @@ public class ExcelCoordinatorHandler implements RequestHandler<S3Event, String>
     }
 
     /**
-     * SQS 메시지 발행
+     * ⭐ SQS 메시지 일괄 발행 (10건 배치, 병렬)
+     *
+     * 재시도 후에도 발행하지 못한 청크가 있으면 예외를 던져 S3 이벤트가 재시도되게 한다.
      */
-    private void sendToSQS(ProcessingMessage message, Context context) {
-        String messageBody = gson.toJson(message);
+    private void sendToSQS(List<ProcessingMessage> messages, Context context) {
+        long startTime = System.currentTimeMillis();
 
-        SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-                .queueUrl(SQS_QUEUE_URL)
-                .messageBody(messageBody)
-                .build();
+        List<String> bodies = new ArrayList<>(messages.size());
+        for (ProcessingMessage message : messages) {
+            bodies.add(gson.toJson(message));
+        }
 
-        sqsClient.sendMessage(sendMessageRequest);
+        List<Integer> failed = sqsPublisher.publish(bodies);
+        if (!failed.isEmpty()) {
+            List<Integer> failedChunks = new ArrayList<>(failed.size());
+            for (Integer index : failed) {
+                failedChunks.add(messages.get(index).getChunkNumber());
+            }
+            throw new RuntimeException("SQS 메시지 발행 실패: " + failed.size() + "/" + messages.size() +
+                    "건, chunks=" + failedChunks);
+        }
 
-        context.getLogger().log("SQS 메시지 발행: uploadId=" + message.getUploadId() +
-                ", chunk=" + message.getChunkNumber());
+        context.getLogger().log("SQS 메시지 발행: " + messages.size() + "건, " +
+                (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * 통합 문서 스캔 결과
+     */
+    private static class WorkbookScan {
+        private RowCheckpointIndex rowIndex;
+        private int columnCount;  // Dimension 기준 (모르면 0)
+        private long sheetBytes;  // 압축 해제된 시트 XML 크기 (모르면 0)
+        private String sstKey;
+        private String sheetEntry; // 첫 번째 시트 엔트리 (모르면 null → Worker 가 찾음)
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.example.lambda.excel;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 날짜 서식 스타일 목록 (styles.xml)
+ *
+ * cellXfs 의 각 xf 가 날짜 서식인지 한 번만 판정해 두고, 셀마다 s 속성으로 비트만 확인한다.
+ * 통합 문서의 날짜 체계(1900/1904)도 함께 들고 있어 날짜 값 변환에 쓴다.
+ */
+public class DateStyles {
+
+    private static final DateStyles NONE = new DateStyles(new BitSet(), false);
+
+    private final BitSet dateXfs;
+    private final boolean date1904;
+
+    private DateStyles(BitSet dateXfs, boolean date1904) {
+        this.dateXfs = dateXfs;
+        this.date1904 = date1904;
+    }
+
+    /**
+     * styles.xml 파싱
+     */
+    public static DateStyles read(InputStream stylesXml) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        Map<Integer, String> customFormats = new HashMap<>();
+        BitSet dateXfs = new BitSet();
+
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(stylesXml, StandardCharsets.UTF_8.name());
+            boolean inCellXfs = false;
+            int xfIndex = 0;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = localName(xml);
+                    if ("numFmt".equals(name)) {
+                        String id = xml.getAttributeValue(null, "numFmtId");
+                        if (id != null) {
+                            customFormats.put(Integer.parseInt(id), xml.getAttributeValue(null, "formatCode"));
+                        }
+                    } else if ("cellXfs".equals(name)) {
+                        inCellXfs = true;
+                    } else if ("xf".equals(name) && inCellXfs) {
+                        String id = xml.getAttributeValue(null, "numFmtId");
+                        int numFmtId = id != null ? Integer.parseInt(id) : 0;
+                        String format = customFormats.containsKey(numFmtId)
+                                ? customFormats.get(numFmtId)
+                                : BuiltinFormats.getBuiltinFormat(numFmtId);
+                        if (DateUtil.isADateFormat(numFmtId, format)) {
+                            dateXfs.set(xfIndex);
+                        }
+                        xfIndex++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(localName(xml))) {
+                    inCellXfs = false;
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("styles.xml 파싱 실패: " + e.getMessage(), e);
+        }
+
+        return new DateStyles(dateXfs, false);
+    }
+
+    /**
+     * styles.xml 이 없는 통합 문서용
+     */
+    public static DateStyles none() {
+        return NONE;
+    }
+
+    /**
+     * 날짜 체계 지정 (workbook.xml workbookPr date1904)
+     */
+    public DateStyles withDate1904(boolean date1904) {
+        return date1904 == this.date1904 ? this : new DateStyles(dateXfs, date1904);
+    }
+
+    /**
+     * 1904 날짜 체계 여부 (Excel 일련번호 0 = 1904-01-01)
+     */
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * 셀 스타일(s 속성)이 날짜 서식인지
+     */
+    public boolean isDate(int styleIndex) {
+        return dateXfs.get(styleIndex);
+    }
+
+    private static String localName(XMLStreamReader xml) {
+        String name = xml.getLocalName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+}
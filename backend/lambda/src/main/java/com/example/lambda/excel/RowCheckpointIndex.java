@@ -0,0 +1,171 @@
+package com.example.lambda.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * 행 체크포인트 인덱스
+ *
+ * 압축 해제된 시트 XML 에서 N번째 데이터 행마다 &lt;row&gt; 태그의 바이트 오프셋을 기록한다.
+ * Worker 는 자기 청크 직전 체크포인트로 바로 이동하므로 청크당 파싱 비용이 행 위치와 무관해진다.
+ *
+ * 행 번호 규칙: 물리 행 0 = 헤더, 데이터 행은 1부터 (Worker 의 row_number 와 동일)
+ */
+public class RowCheckpointIndex {
+
+    private static final byte[] ROW_TAG = {'<', 'r', 'o', 'w'};
+
+    private final int interval;
+    private final long headerOffset;
+    private final long[] offsets;
+    private final int dataRowCount;
+
+    private RowCheckpointIndex(int interval, long headerOffset, long[] offsets, int dataRowCount) {
+        this.interval = interval;
+        this.headerOffset = headerOffset;
+        this.offsets = offsets;
+        this.dataRowCount = dataRowCount;
+    }
+
+    /**
+     * 시트 XML 스트림을 한 번 훑어 인덱스 생성 (XML 파싱 없이 바이트 매칭만 수행)
+     *
+     * @param sheetXml 압축 해제된 시트 XML 스트림
+     * @param interval 체크포인트 간격 (데이터 행 수)
+     * @return 인덱스 (&lt;row&gt; 태그가 하나도 없으면 null)
+     */
+    public static RowCheckpointIndex build(InputStream sheetXml, int interval) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+
+        CheckpointCollector collector = new CheckpointCollector(interval);
+        int physicalRows = scanRowTags(sheetXml, collector);
+
+        if (physicalRows == 0) {
+            return null;
+        }
+
+        return new RowCheckpointIndex(interval, collector.headerOffset,
+                Arrays.copyOf(collector.offsets, collector.count), physicalRows - 1);
+    }
+
+    /**
+     * 정확한 데이터 행 수 (헤더 제외, 오프셋 기록 없이 &lt;row&gt; 태그만 셈)
+     *
+     * Dimension 태그가 없을 때 파일 크기 추정 대신 사용한다.
+     */
+    public static int countDataRows(InputStream sheetXml) throws IOException {
+        int physicalRows = scanRowTags(sheetXml, (physicalRow, tagOffset) -> {
+        });
+        return Math.max(0, physicalRows - 1);
+    }
+
+    @FunctionalInterface
+    private interface RowTagListener {
+        void onRowTag(int physicalRow, long tagOffset);
+    }
+
+    /**
+     * 헤더 행과 interval 번째 데이터 행마다 태그 오프셋 기록
+     */
+    private static final class CheckpointCollector implements RowTagListener {
+        private final int interval;
+        private long headerOffset = -1;
+        private long[] offsets = new long[64];
+        private int count;
+
+        private CheckpointCollector(int interval) {
+            this.interval = interval;
+        }
+
+        @Override
+        public void onRowTag(int physicalRow, long tagOffset) {
+            if (physicalRow == 0) {
+                headerOffset = tagOffset;
+            } else if ((physicalRow - 1) % interval == 0) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[count++] = tagOffset;
+            }
+        }
+    }
+
+    /**
+     * &lt;row&gt; 태그 바이트 매칭
+     *
+     * @return 물리 행 수 (헤더 포함)
+     */
+    private static int scanRowTags(InputStream sheetXml, RowTagListener listener) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int physicalRows = 0;
+
+        long position = 0; // 다음에 읽을 바이트의 절대 위치
+        int matched = 0;   // "<row" 중 일치한 길이 (버퍼 경계를 넘어 유지)
+
+        int len;
+        while ((len = sheetXml.read(buffer)) != -1) {
+            for (int i = 0; i < len; i++) {
+                byte b = buffer[i];
+
+                if (matched == ROW_TAG.length) {
+                    // "<rowBreaks" 등 다른 태그와 구분
+                    if (isTagDelimiter(b)) {
+                        listener.onRowTag(physicalRows, position + i - ROW_TAG.length);
+                        physicalRows++;
+                    }
+                    matched = 0;
+                }
+
+                if (b == ROW_TAG[matched]) {
+                    matched++;
+                } else {
+                    matched = (b == '<') ? 1 : 0;
+                }
+            }
+            position += len;
+        }
+        return physicalRows;
+    }
+
+    private static boolean isTagDelimiter(byte b) {
+        return b == ' ' || b == '>' || b == '/' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    /**
+     * 데이터 행 수 (헤더 제외, 실제 &lt;row&gt; 개수 기준)
+     */
+    public int getDataRowCount() {
+        return dataRowCount;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public long getHeaderOffset() {
+        return headerOffset;
+    }
+
+    /**
+     * 주어진 데이터 행 이하에서 가장 가까운 체크포인트 행 번호
+     */
+    public int checkpointRowFor(int dataRow) {
+        if (dataRow < 1 || dataRow > dataRowCount) {
+            throw new IllegalArgumentException("dataRow out of range: " + dataRow);
+        }
+        return ((dataRow - 1) / interval) * interval + 1;
+    }
+
+    /**
+     * 체크포인트 행의 &lt;row&gt; 태그 오프셋
+     */
+    public long offsetOf(int checkpointRow) {
+        if ((checkpointRow - 1) % interval != 0) {
+            throw new IllegalArgumentException("not a checkpoint row: " + checkpointRow);
+        }
+        return offsets[(checkpointRow - 1) / interval];
+    }
+}
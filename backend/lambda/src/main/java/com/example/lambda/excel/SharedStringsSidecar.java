@@ -0,0 +1,174 @@
+package com.example.lambda.excel;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 공유 문자열(sharedStrings.xml) 사이드카
+ *
+ * Coordinator 가 한 번만 추출해 S3 에 올리고, Worker 는 파일을 메모리 매핑해 인덱스 조회 시점에만 디코딩한다.
+ * 문자열 수와 관계없이 Worker 힙에는 오프셋 테이블조차 올라가지 않는다.
+ *
+ * 파일 구조 (한 번의 스트리밍 쓰기로 생성 가능하도록 테이블을 뒤에 둔다)
+ * <pre>
+ * [UTF-8 문자열 데이터 ...]
+ * [long offset × (count + 1)]   // 각 문자열 시작 위치, 마지막 값 = 데이터 길이
+ * [int count][int MAGIC]
+ * </pre>
+ */
+public class SharedStringsSidecar {
+
+    private static final int MAGIC = 0x53535431; // "SST1"
+    private static final int FOOTER_SIZE = Integer.BYTES * 2;
+
+    private static final SharedStringsSidecar EMPTY = new SharedStringsSidecar(null, 0, 0);
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int tableOffset;
+
+    private SharedStringsSidecar(ByteBuffer buffer, int count, int tableOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.tableOffset = tableOffset;
+    }
+
+    /**
+     * sharedStrings.xml → 사이드카 변환
+     *
+     * @return 문자열 개수
+     */
+    public static int write(InputStream sharedStringsXml, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = 0;
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(sharedStringsXml, StandardCharsets.UTF_8.name());
+            StringBuilder text = new StringBuilder();
+            boolean inPhonetic = false;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = localName(xml);
+                    if ("si".equals(name)) {
+                        text.setLength(0);
+                    } else if ("rPh".equals(name)) {
+                        inPhonetic = true;
+                    } else if ("t".equals(name)) {
+                        String value = xml.getElementText();
+                        if (!inPhonetic) {
+                            text.append(value);
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = localName(xml);
+                    if ("rPh".equals(name)) {
+                        inPhonetic = false;
+                    } else if ("si".equals(name)) {
+                        if (count + 1 >= offsets.length) {
+                            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        }
+                        offsets[count++] = position;
+
+                        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                        data.write(bytes);
+                        position += bytes.length;
+                    }
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("sharedStrings.xml 파싱 실패: " + e.getMessage(), e);
+        }
+
+        offsets[count] = position;
+        for (int i = 0; i <= count; i++) {
+            data.writeLong(offsets[i]);
+        }
+        data.writeInt(count);
+        data.writeInt(MAGIC);
+        data.flush();
+
+        return count;
+    }
+
+    /**
+     * 사이드카 파일 메모리 매핑
+     */
+    public static SharedStringsSidecar open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FOOTER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("잘못된 사이드카 크기: " + size);
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int footer = (int) size - FOOTER_SIZE;
+            int count = mapped.getInt(footer);
+            if (mapped.getInt(footer + Integer.BYTES) != MAGIC) {
+                throw new IOException("사이드카 형식이 아닙니다: " + file);
+            }
+
+            int tableOffset = footer - (count + 1) * Long.BYTES;
+            if (tableOffset < 0) {
+                throw new IOException("손상된 사이드카: count=" + count);
+            }
+            return new SharedStringsSidecar(mapped, count, tableOffset);
+        }
+    }
+
+    /**
+     * 공유 문자열이 없는 통합 문서용
+     */
+    public static SharedStringsSidecar empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 인덱스의 문자열 (조회 시점에 디코딩)
+     */
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("shared string index " + index + " / " + count);
+        }
+
+        int start = (int) buffer.getLong(tableOffset + index * Long.BYTES);
+        int end = (int) buffer.getLong(tableOffset + (index + 1) * Long.BYTES);
+
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private static String localName(XMLStreamReader xml) {
+        String name = xml.getLocalName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.lambda.excel;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 시트 XML 행 리더 (StAX)
+ *
+ * 시트 XML 전체 또는 {@link RowCheckpointIndex} 오프셋부터 시작하는 조각을 행 단위로 읽는다.
+ * POI Row/Cell 객체 없이 셀 값을 재사용 행 버퍼에 바로 채우며, 날짜 판별은 {@link DateStyles} 비트 조회로 끝낸다.
+ * 값은 MongoDB 에 그대로 넣을 수 있는 타입으로 변환한다 (숫자 → Double, 날짜 → Date, 수식 → 캐시된 결과값).
+ */
+public class SheetRowReader implements AutoCloseable {
+
+    // 오프셋부터 읽을 때 앞에 붙이는 가상 루트 (</sheetData> 에서 읽기 종료)
+    private static final byte[] FRAGMENT_PREFIX = "<sheetData>".getBytes(StandardCharsets.UTF_8);
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    // 날짜 셀은 시간대 없는 Excel 일시를 UTC 기준 BSON Date 로 저장
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final InputStream source;
+    private final XMLStreamReader xml;
+    private final SharedStringsSidecar sharedStrings;
+    private final DateStyles dateStyles;
+
+    // 행 버퍼 (행마다 재사용)
+    private Object[] cells = new Object[16];
+    private int cellCount;
+    private final StringBuilder inlineText = new StringBuilder();
+
+    private int rowNumber;
+    private boolean finished;
+
+    private SheetRowReader(InputStream source, SharedStringsSidecar sharedStrings,
+                           DateStyles dateStyles) throws IOException {
+        this.source = source;
+        this.sharedStrings = sharedStrings;
+        this.dateStyles = dateStyles;
+        try {
+            this.xml = XML_INPUT_FACTORY.createXMLStreamReader(source, StandardCharsets.UTF_8.name());
+        } catch (XMLStreamException e) {
+            throw new IOException("시트 XML 열기 실패: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 시트 처음부터 읽기
+     */
+    public static SheetRowReader open(InputStream sheetXml, SharedStringsSidecar sharedStrings,
+                                      DateStyles dateStyles) throws IOException {
+        return new SheetRowReader(sheetXml, sharedStrings, dateStyles);
+    }
+
+    /**
+     * 체크포인트 오프셋으로 이동 후 읽기
+     *
+     * @param sheetXml 압축 해제된 시트 XML 스트림 (위치 0)
+     * @param offset   &lt;row&gt; 태그 시작 오프셋
+     */
+    public static SheetRowReader openAt(InputStream sheetXml, long offset, SharedStringsSidecar sharedStrings,
+                                        DateStyles dateStyles) throws IOException {
+        skipFully(sheetXml, offset);
+        InputStream fragment = new SequenceInputStream(new ByteArrayInputStream(FRAGMENT_PREFIX), sheetXml);
+        return new SheetRowReader(fragment, sharedStrings, dateStyles);
+    }
+
+    /**
+     * 압축 스트림 건너뛰기 (InflaterInputStream.skip 의 512바이트 버퍼 대신 큰 버퍼 사용)
+     */
+    private static void skipFully(InputStream in, long count) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new EOFException("체크포인트 오프셋이 시트 크기를 초과: " + count);
+            }
+            remaining -= read;
+        }
+    }
+
+    /**
+     * 다음 행으로 이동
+     *
+     * 셀 값은 행마다 새로 만들지 않고 내부 버퍼를 재사용한다. {@link #get(int)} 값은 다음 호출 전까지만 유효.
+     *
+     * @return 더 이상 행이 없으면 false
+     */
+    public boolean next() throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        try {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "row".equals(localName())) {
+                    readRow();
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(localName())) {
+                    break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("시트 XML 파싱 실패: " + e.getMessage(), e);
+        }
+
+        clearCells();
+        finished = true;
+        return false;
+    }
+
+    /**
+     * 현재 행의 셀 값 (String / Double / Date / Boolean, 빈 셀은 null)
+     */
+    public Object get(int column) {
+        return column < cellCount ? cells[column] : null;
+    }
+
+    /**
+     * 현재 행의 셀 개수 (마지막 값 있는 컬럼 + 1)
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * 마지막으로 읽은 행의 Excel 행 번호 (r 속성, 1-based)
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    private void readRow() throws XMLStreamException {
+        String r = xml.getAttributeValue(null, "r");
+        rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+
+        clearCells();
+        int nextColumn = 0;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(localName())) {
+                String ref = xml.getAttributeValue(null, "r");
+                int column = ref != null ? columnIndex(ref) : nextColumn;
+                Object value = readCell();
+
+                if (value != null) {
+                    if (column >= cells.length) {
+                        cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+                    }
+                    cells[column] = value;
+                    cellCount = column + 1;
+                }
+                nextColumn = column + 1;
+
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(localName())) {
+                break;
+            }
+        }
+    }
+
+    private void clearCells() {
+        Arrays.fill(cells, 0, cellCount, null);
+        cellCount = 0;
+    }
+
+    /**
+     * 셀 읽기 (현재 위치: &lt;c&gt; 시작 태그)
+     */
+    private Object readCell() throws XMLStreamException {
+        String type = xml.getAttributeValue(null, "t");
+        String style = xml.getAttributeValue(null, "s");
+
+        String value = null;
+        String formula = null;
+        boolean inlineString = false;
+        boolean inPhonetic = false;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (localName()) {
+                    case "v" -> value = xml.getElementText();
+                    case "f" -> formula = xml.getElementText();
+                    case "is" -> {
+                        inlineString = true;
+                        inlineText.setLength(0);
+                    }
+                    case "rPh" -> inPhonetic = true;
+                    case "t" -> {
+                        String text = xml.getElementText();
+                        if (inlineString && !inPhonetic) {
+                            inlineText.append(text);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = localName();
+                if ("rPh".equals(name)) {
+                    inPhonetic = false;
+                } else if ("c".equals(name)) {
+                    break;
+                }
+            }
+        }
+
+        if ("inlineStr".equals(type)) {
+            return inlineString ? inlineText.toString() : null;
+        }
+
+        // 수식 셀은 캐시된 결과값 사용 (결과값이 없으면 수식 문자열)
+        if (value == null) {
+            return formula;
+        }
+
+        if (type == null || "n".equals(type)) {
+            double number = Double.parseDouble(value);
+            if (style != null && dateStyles.isDate(Integer.parseInt(style))) {
+                Date date = DateUtil.getJavaDate(number, dateStyles.isDate1904(), UTC);
+                return date != null ? date : number;
+            }
+            return number;
+        }
+
+        return switch (type) {
+            case "s" -> sharedStrings.get(Integer.parseInt(value));
+            case "b" -> "1".equals(value);
+            default -> value; // str (수식 문자열 결과), e, d
+        };
+    }
+
+    private String localName() {
+        String name = xml.getLocalName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+
+    /**
+     * 셀 참조("AB12")의 컬럼 인덱스 (0-based)
+     */
+    static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            // 무시
+        }
+        source.close();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.lambda.excel;
+
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * xlsx 패키지 내부 엔트리 경로
+ */
+public final class XlsxEntries {
+
+    /**
+     * 첫 번째 시트를 찾지 못했을 때 쓰는 기본 시트 (실제 첫 시트는 {@link XlsxWorkbook} 으로 찾음)
+     */
+    public static final String SHEET1 = "xl/worksheets/sheet1.xml";
+
+    /**
+     * 통합 문서 (시트 탭 순서)
+     */
+    public static final String WORKBOOK = "xl/workbook.xml";
+
+    /**
+     * 통합 문서 관계 (시트 r:id → 엔트리 경로)
+     */
+    public static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+
+    /**
+     * 공유 문자열 테이블
+     */
+    public static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+
+    /**
+     * 스타일 (날짜 서식 판별용)
+     */
+    public static final String STYLES = "xl/styles.xml";
+
+    private XlsxEntries() {
+    }
+
+    /**
+     * 이름으로 엔트리 찾기 (경로 접두어가 붙은 패키지도 허용)
+     */
+    public static ZipEntry find(ZipFile zipFile, String name) {
+        ZipEntry entry = zipFile.getEntry(name);
+        if (entry != null) {
+            return entry;
+        }
+
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry candidate = entries.nextElement();
+            if (candidate.getName().endsWith(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.lambda.excel;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 통합 문서 정보 (workbook.xml + workbook.xml.rels)
+ *
+ * 첫 번째 시트는 workbook.xml 의 탭 순서상 첫 &lt;sheet&gt; 이다 (POI getSheetAt(0) 과 동일).
+ * 시트를 옮기거나 지운 통합 문서는 sheet1.xml 이 첫 시트가 아닐 수 있으므로 관계 파일로 실제 경로를 찾는다.
+ * workbookPr 의 date1904 (1904 날짜 체계) 여부도 함께 읽는다.
+ */
+public final class XlsxWorkbook {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private static final XlsxWorkbook DEFAULT = new XlsxWorkbook(XlsxEntries.SHEET1, false);
+
+    /**
+     * 엔트리 열기 (없으면 null)
+     */
+    @FunctionalInterface
+    public interface EntryOpener {
+        InputStream open(String name) throws IOException;
+    }
+
+    private final String firstSheet;
+    private final boolean date1904;
+
+    private XlsxWorkbook(String firstSheet, boolean date1904) {
+        this.firstSheet = firstSheet;
+        this.date1904 = date1904;
+    }
+
+    /**
+     * workbook.xml 에서 읽은 값 (첫 시트 r:id, date1904)
+     */
+    private static final class WorkbookXml {
+        private String firstSheetRelation;
+        private boolean date1904;
+    }
+
+    /**
+     * workbook.xml / workbook.xml.rels 읽기 (둘 중 하나라도 없거나 시트를 못 찾으면 sheet1.xml)
+     */
+    public static XlsxWorkbook read(EntryOpener opener) throws IOException {
+        WorkbookXml workbook;
+        try (InputStream workbookXml = opener.open(XlsxEntries.WORKBOOK)) {
+            if (workbookXml == null) {
+                return DEFAULT;
+            }
+            workbook = readWorkbook(workbookXml);
+        }
+        if (workbook.firstSheetRelation == null) {
+            return new XlsxWorkbook(XlsxEntries.SHEET1, workbook.date1904);
+        }
+
+        String target;
+        try (InputStream relsXml = opener.open(XlsxEntries.WORKBOOK_RELS)) {
+            target = relsXml != null ? readRelationTarget(relsXml, workbook.firstSheetRelation) : null;
+        }
+        return new XlsxWorkbook(target != null ? resolve(target) : XlsxEntries.SHEET1, workbook.date1904);
+    }
+
+    /**
+     * 로컬 zip 에서 읽기
+     */
+    public static XlsxWorkbook read(ZipFile zipFile) throws IOException {
+        return read(name -> {
+            ZipEntry entry = XlsxEntries.find(zipFile, name);
+            return entry != null ? zipFile.getInputStream(entry) : null;
+        });
+    }
+
+    /**
+     * 첫 번째 시트 엔트리 경로 (예: xl/worksheets/sheet3.xml)
+     */
+    public String getFirstSheet() {
+        return firstSheet;
+    }
+
+    /**
+     * 1904 날짜 체계 여부 (workbookPr date1904)
+     */
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * workbookPr date1904 와 첫 &lt;sheet&gt; 의 r:id (workbookPr 가 sheets 보다 앞에 있음)
+     */
+    private static WorkbookXml readWorkbook(InputStream workbookXml) throws IOException {
+        WorkbookXml workbook = new WorkbookXml();
+        XMLStreamReader xml = null;
+        try {
+            xml = XML_INPUT_FACTORY.createXMLStreamReader(workbookXml, StandardCharsets.UTF_8.name());
+            while (xml.hasNext()) {
+                if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = localName(xml.getLocalName());
+                if ("workbookPr".equals(name)) {
+                    String date1904 = xml.getAttributeValue(null, "date1904");
+                    workbook.date1904 = "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+                } else if ("sheet".equals(name)) {
+                    for (int i = 0; i < xml.getAttributeCount(); i++) {
+                        // r:id (네임스페이스 비인식 모드에서는 접두어가 이름에 포함됨)
+                        if ("id".equals(localName(xml.getAttributeLocalName(i)))) {
+                            workbook.firstSheetRelation = xml.getAttributeValue(i);
+                        }
+                    }
+                    return workbook;
+                }
+            }
+            return workbook;
+        } catch (XMLStreamException e) {
+            throw new IOException("workbook.xml 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(xml);
+        }
+    }
+
+    /**
+     * 관계 Id 의 Target
+     */
+    private static String readRelationTarget(InputStream relsXml, String relationId) throws IOException {
+        XMLStreamReader xml = null;
+        try {
+            xml = XML_INPUT_FACTORY.createXMLStreamReader(relsXml, StandardCharsets.UTF_8.name());
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT
+                        && "Relationship".equals(localName(xml.getLocalName()))
+                        && relationId.equals(xml.getAttributeValue(null, "Id"))) {
+                    return xml.getAttributeValue(null, "Target");
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("workbook.xml.rels 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(xml);
+        }
+    }
+
+    /**
+     * Target → 패키지 경로 ("/xl/..." 는 절대 경로, 나머지는 xl/ 기준 상대 경로)
+     */
+    static String resolve(String target) {
+        String path = target.startsWith("/") ? target.substring(1) : "xl/" + target;
+
+        Deque<String> parts = new ArrayDeque<>();
+        for (String part : path.split("/")) {
+            if (part.isEmpty() || ".".equals(part)) {
+                continue;
+            }
+            if ("..".equals(part)) {
+                parts.pollLast();
+            } else {
+                parts.addLast(part);
+            }
+        }
+        return String.join("/", parts);
+    }
+
+    private static String localName(String name) {
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+
+    private static void closeQuietly(XMLStreamReader xml) {
+        if (xml != null) {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                // 무시
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -71,8 +71,38 @@ public class ProcessingMessage {
      */
     private int totalChunks;
 
+    /**
+     * 적재 세대 (같은 S3 키를 새 버전으로 덮어쓸 때마다 1 증가, Redis 키/상태를 버전별로 구분)
+     */
+    private int generation;
+
     /**
      * ⭐ 첫 번째 청크 여부 (Redis 초기화용)
      */
     private boolean isFirstChunk;
+
+    /**
+     * 처리 대상 시트 엔트리 (workbook.xml 탭 순서상 첫 시트, null 이면 Worker 가 직접 찾음)
+     */
+    private String sheetEntry;
+
+    /**
+     * 행 체크포인트 오프셋 (압축 해제된 시트 XML 기준 바이트, null 이면 처음부터 스캔)
+     */
+    private Long rowOffset;
+
+    /**
+     * rowOffset 위치의 데이터 행 번호 (1-based, 헤더 제외)
+     */
+    private Integer offsetRow;
+
+    /**
+     * 공유 문자열 사이드카 S3 키 (같은 버킷, null 이면 Worker 가 직접 추출)
+     */
+    private String sstKey;
+
+    /**
+     * S3 객체 ETag (Worker 의 /tmp 통합 문서 캐시 키, null 이면 Worker 가 HEAD 로 조회)
+     */
+    private String eTag;
 }
@@ -0,0 +1,180 @@
+package com.example.lambda.s3;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * S3 병렬 Range 다운로드
+ *
+ * 객체를 partSize 단위 byte range 로 나눠 최대 concurrency 개를 동시에 받아
+ * 미리 크기를 잡아 둔 파일의 해당 위치에 바로 기록한다.
+ * 모든 part 는 HEAD 시점의 ETag 로 If-Match 요청하므로 도중에 객체가 바뀌면 실패한다.
+ */
+public class RangedDownloader {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final long partSize;
+    private final int concurrency;
+
+    public RangedDownloader(S3Client s3Client, long partSize, int concurrency) {
+        if (partSize <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("partSize/concurrency must be positive: "
+                    + partSize + "/" + concurrency);
+        }
+        this.s3Client = s3Client;
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * 환경 변수 설정으로 생성 (S3_DOWNLOAD_PART_SIZE_MB 기본 8, S3_DOWNLOAD_CONCURRENCY 기본 8)
+     */
+    public static RangedDownloader fromEnv(S3Client s3Client) {
+        long partSizeMb = System.getenv("S3_DOWNLOAD_PART_SIZE_MB") != null
+                ? Long.parseLong(System.getenv("S3_DOWNLOAD_PART_SIZE_MB"))
+                : 8;
+        int concurrency = System.getenv("S3_DOWNLOAD_CONCURRENCY") != null
+                ? Integer.parseInt(System.getenv("S3_DOWNLOAD_CONCURRENCY"))
+                : 8;
+        return new RangedDownloader(s3Client, partSizeMb * 1024 * 1024, concurrency);
+    }
+
+    /**
+     * 객체 전체를 target 파일로 다운로드 (기존 내용은 덮어씀)
+     *
+     * @return 다운로드한 바이트 수
+     */
+    public long download(String bucket, String key, Path target) throws IOException {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+        long size = head.contentLength();
+        String eTag = head.eTag();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            downloadRange(bucket, key, eTag, 0, size, channel, 0);
+        }
+        return size;
+    }
+
+    /**
+     * 객체의 [start, start + length) 구간을 channel 의 position 위치부터 기록
+     *
+     * @param eTag If-Match 로 사용할 ETag (null 이면 검사 안 함)
+     */
+    public void downloadRange(String bucket, String key, String eTag, long start, long length,
+                              FileChannel channel, long position) throws IOException {
+        if (length == 0) {
+            return;
+        }
+
+        int partCount = (int) ((length + partSize - 1) / partSize);
+        if (partCount == 1) {
+            downloadPart(bucket, key, eTag, start, start + length - 1, channel, position);
+            return;
+        }
+
+        // 파일 크기를 먼저 잡아 두고 part 별로 해당 위치에 기록
+        if (channel.size() < position + length) {
+            channel.write(ByteBuffer.allocate(1), position + length - 1);
+        }
+
+        AtomicInteger nextPart = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(concurrency, partCount); i++) {
+                workers.add(executor.submit(() -> {
+                    int part;
+                    while ((part = nextPart.getAndIncrement()) < partCount) {
+                        long offset = part * partSize;
+                        long end = Math.min(offset + partSize, length) - 1;
+                        try {
+                            downloadPart(bucket, key, eTag, start + offset, start + end, channel,
+                                    position + offset);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(workers, nextPart, partCount);
+        }
+    }
+
+    private void downloadPart(String bucket, String key, String eTag, long start, long end,
+                              FileChannel channel, long position) throws IOException {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=" + start + "-" + end)
+                .ifMatch(eTag)
+                .build();
+
+        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long written = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    written += channel.write(chunk, position + written);
+                }
+            }
+            if (written != end - start + 1) {
+                throw new IOException("range 응답 길이 불일치: bytes=" + start + "-" + end
+                        + ", received=" + written);
+            }
+        }
+    }
+
+    /**
+     * 전체 part 완료 대기 (하나라도 실패하면 남은 part 는 중단하고 예외 전파)
+     */
+    private static void awaitAll(List<Future<?>> workers, AtomicInteger nextPart, int partCount)
+            throws IOException {
+        try {
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    nextPart.set(partCount);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof UncheckedIOException unchecked) {
+                        throw unchecked.getCause();
+                    }
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new IOException("S3 range 다운로드 실패: " + cause.getMessage(), cause);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("S3 range 다운로드 대기 중 인터럽트");
+        }
+    }
+}
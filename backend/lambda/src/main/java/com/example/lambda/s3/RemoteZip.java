@@ -0,0 +1,387 @@
+package com.example.lambda.s3;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * S3 에 있는 zip(xlsx) 을 central directory 기준으로 부분 조회
+ *
+ * 객체 끝부분을 range GET 해서 central directory 를 읽고, 필요한 엔트리만 local header 오프셋으로 가져온다.
+ * 이미지, 피벗 캐시, 다른 시트 등 나머지 엔트리는 전송하지도 압축 해제하지도 않는다.
+ * ZIP64 는 지원하지 않으므로(ZipException) 호출 측에서 전체 다운로드로 대체한다.
+ */
+public class RemoteZip {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+
+    private static final int EOCD_SIZE = 22;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int DATA_DESCRIPTOR_FLAG = 0x0008;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    /**
+     * central directory 엔트리
+     */
+    public static final class Entry {
+        private final String name;
+        private final int flags;
+        private final int method;
+        private final int dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        private Entry(String name, int flags, int method, int dosTime, long crc,
+                      long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String key;
+    private final String eTag;
+    private final long objectSize;
+    private final List<Entry> entries;
+
+    private RemoteZip(S3Client s3Client, String bucket, String key, String eTag, long objectSize,
+                      List<Entry> entries) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.eTag = eTag;
+        this.objectSize = objectSize;
+        this.entries = entries;
+    }
+
+    /**
+     * central directory 읽기 (끝부분 range GET 1회, directory 가 더 길면 1회 추가)
+     */
+    public static RemoteZip open(S3Client s3Client, String bucket, String key) throws IOException {
+        HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build());
+        long objectSize = head.contentLength();
+        if (objectSize < EOCD_SIZE) {
+            throw new ZipException("zip 파일이 아님: " + objectSize + " bytes");
+        }
+
+        long tailStart = Math.max(0, objectSize - EOCD_SIZE - MAX_COMMENT_SIZE);
+        ByteBuffer tail = getRange(s3Client, bucket, key, head.eTag(), tailStart, objectSize - tailStart);
+
+        int eocd = findEndOfCentralDirectory(tail);
+        if (eocd < 0) {
+            throw new ZipException("End of central directory 없음");
+        }
+
+        int entryCount = Short.toUnsignedInt(tail.getShort(eocd + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        if (entryCount == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+            throw new ZipException("ZIP64 미지원");
+        }
+
+        ByteBuffer directory;
+        if (directoryOffset >= tailStart) {
+            directory = tail.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            directory.position((int) (directoryOffset - tailStart));
+            directory.limit((int) (directoryOffset - tailStart + directorySize));
+            directory = directory.slice().order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            directory = getRange(s3Client, bucket, key, head.eTag(), directoryOffset, directorySize);
+        }
+
+        return new RemoteZip(s3Client, bucket, key, head.eTag(), objectSize,
+                readCentralDirectory(directory, entryCount));
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public long getObjectSize() {
+        return objectSize;
+    }
+
+    /**
+     * 이름으로 엔트리 찾기 (XlsxEntries.find 와 같이 경로 접두어 허용)
+     */
+    public Entry find(String name) {
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) {
+                return entry;
+            }
+        }
+        for (Entry entry : entries) {
+            if (entry.name.endsWith(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 이름으로 찾은 엔트리 전체의 압축 해제 스트림 (없으면 null, workbook.xml 등 작은 엔트리용)
+     */
+    public InputStream open(String name) throws IOException {
+        Entry entry = find(name);
+        return entry != null ? openEntry(entry, entry.compressedSize) : null;
+    }
+
+    /**
+     * 엔트리 압축 해제 스트림 (압축 데이터 앞부분 maxCompressedBytes 만 요청)
+     *
+     * 앞부분만 읽을 때 사용하며, 잘린 범위를 끝까지 읽으면 EOFException 이 난다.
+     */
+    public InputStream openEntry(Entry entry, long maxCompressedBytes) throws IOException {
+        long dataStart = dataStart(entry);
+        long length = Math.min(entry.compressedSize, maxCompressedBytes);
+
+        ResponseInputStream<GetObjectResponse> response = s3Client.getObject(rangeRequest(
+                bucket, key, eTag, dataStart, length));
+        // 앞부분만 읽고 닫는 경우가 많으므로 남은 본문은 버리고 연결을 끊음
+        InputStream raw = new FilterInputStream(response) {
+            @Override
+            public void close() throws IOException {
+                response.abort();
+                super.close();
+            }
+        };
+
+        if (entry.method == STORED) {
+            return raw;
+        }
+        if (entry.method != DEFLATED) {
+            raw.close();
+            throw new ZipException("지원하지 않는 압축 방식: " + entry.method + " (" + entry.name + ")");
+        }
+
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(raw, inflater, 64 * 1024) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * 지정한 엔트리만 담은 zip 파일 생성 (압축 데이터는 그대로 복사, 병렬 range)
+     *
+     * 결과 파일은 java.util.zip.ZipFile 로 그대로 열 수 있다.
+     *
+     * @return 생성한 파일 크기
+     */
+    public long writeEntries(List<Entry> selected, Path target, RangedDownloader downloader) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long position = 0;
+            List<Long> localOffsets = new ArrayList<>(selected.size());
+
+            for (Entry entry : selected) {
+                byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+
+                ByteBuffer header = ByteBuffer.allocate(LOC_SIZE + name.length).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(LOC_SIGNATURE)
+                        .putShort((short) 20)
+                        .putShort((short) (entry.flags & ~DATA_DESCRIPTOR_FLAG))
+                        .putShort((short) entry.method)
+                        .putInt(entry.dosTime)
+                        .putInt((int) entry.crc)
+                        .putInt((int) entry.compressedSize)
+                        .putInt((int) entry.size)
+                        .putShort((short) name.length)
+                        .putShort((short) 0)
+                        .put(name)
+                        .flip();
+
+                localOffsets.add(position);
+                position += writeFully(channel, header, position);
+
+                downloader.downloadRange(bucket, key, eTag, dataStart(entry), entry.compressedSize,
+                        channel, position);
+                position += entry.compressedSize;
+            }
+
+            long directoryOffset = position;
+            for (int i = 0; i < selected.size(); i++) {
+                Entry entry = selected.get(i);
+                byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+
+                ByteBuffer header = ByteBuffer.allocate(CEN_SIZE + name.length).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(CEN_SIGNATURE)
+                        .putShort((short) 20)
+                        .putShort((short) 20)
+                        .putShort((short) (entry.flags & ~DATA_DESCRIPTOR_FLAG))
+                        .putShort((short) entry.method)
+                        .putInt(entry.dosTime)
+                        .putInt((int) entry.crc)
+                        .putInt((int) entry.compressedSize)
+                        .putInt((int) entry.size)
+                        .putShort((short) name.length)
+                        .putShort((short) 0)
+                        .putShort((short) 0)
+                        .putShort((short) 0)
+                        .putShort((short) 0)
+                        .putInt(0)
+                        .putInt(localOffsets.get(i).intValue())
+                        .put(name)
+                        .flip();
+
+                position += writeFully(channel, header, position);
+            }
+
+            ByteBuffer end = ByteBuffer.allocate(EOCD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            end.putInt(EOCD_SIGNATURE)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) selected.size())
+                    .putShort((short) selected.size())
+                    .putInt((int) (position - directoryOffset))
+                    .putInt((int) directoryOffset)
+                    .putShort((short) 0)
+                    .flip();
+            position += writeFully(channel, end, position);
+
+            return position;
+        }
+    }
+
+    /**
+     * local header 를 읽어 압축 데이터 시작 위치 계산 (local extra 길이는 central 과 다를 수 있음)
+     */
+    private long dataStart(Entry entry) throws IOException {
+        ByteBuffer header = getRange(s3Client, bucket, key, eTag, entry.localHeaderOffset, LOC_SIZE);
+        if (header.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("local header 손상: " + entry.name);
+        }
+        int nameLength = Short.toUnsignedInt(header.getShort(26));
+        int extraLength = Short.toUnsignedInt(header.getShort(28));
+        return entry.localHeaderOffset + LOC_SIZE + nameLength + extraLength;
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        for (int i = tail.limit() - EOCD_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE
+                    && i + EOCD_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) == tail.limit()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Entry> readCentralDirectory(ByteBuffer directory, int entryCount) throws ZipException {
+        List<Entry> entries = new ArrayList<>(entryCount);
+        int position = 0;
+
+        for (int i = 0; i < entryCount; i++) {
+            if (position + CEN_SIZE > directory.limit() || directory.getInt(position) != CEN_SIGNATURE) {
+                throw new ZipException("central directory 손상 (entry " + i + ")");
+            }
+
+            int flags = Short.toUnsignedInt(directory.getShort(position + 8));
+            int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            int dosTime = directory.getInt(position + 12);
+            long crc = Integer.toUnsignedLong(directory.getInt(position + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+            if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                throw new ZipException("ZIP64 미지원");
+            }
+
+            byte[] name = new byte[nameLength];
+            directory.get(position + CEN_SIZE, name);
+
+            entries.add(new Entry(new String(name, StandardCharsets.UTF_8), flags, method, dosTime, crc,
+                    compressedSize, size, localHeaderOffset));
+            position += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private static ByteBuffer getRange(S3Client s3Client, String bucket, String key, String eTag,
+                                       long start, long length) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(
+                rangeRequest(bucket, key, eTag, start, length))) {
+            byte[] bytes = in.readAllBytes();
+            if (bytes.length != length) {
+                throw new IOException("range 응답 길이 불일치: expected=" + length + ", received=" + bytes.length);
+            }
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static GetObjectRequest rangeRequest(String bucket, String key, String eTag, long start, long length) {
+        return GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=" + start + "-" + (start + length - 1))
+                .ifMatch(eTag)
+                .build();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.lambda.sqs;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQS 일괄 발행
+ *
+ * 메시지를 SendMessageBatch 단위(최대 10건, 256KB)로 묶어 최대 concurrency 개 배치를 동시에 보낸다.
+ * 배치 중 일부만 실패하면 실패한 항목만 지수 백오프로 재시도한다 (요청 자체가 잘못된 senderFault 는 재시도 안 함).
+ */
+public class SqsBatchPublisher {
+
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final long BASE_BACKOFF_MS = 100;
+
+    private final SqsClient sqsClient;
+    private final String queueUrl;
+    private final int concurrency;
+    private final int maxAttempts;
+
+    public SqsBatchPublisher(SqsClient sqsClient, String queueUrl, int concurrency, int maxAttempts) {
+        if (concurrency <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("concurrency/maxAttempts must be positive: "
+                    + concurrency + "/" + maxAttempts);
+        }
+        this.sqsClient = sqsClient;
+        this.queueUrl = queueUrl;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * 환경 변수 설정으로 생성 (SQS_PUBLISH_CONCURRENCY 기본 8, SQS_PUBLISH_MAX_ATTEMPTS 기본 5)
+     */
+    public static SqsBatchPublisher fromEnv(SqsClient sqsClient, String queueUrl) {
+        int concurrency = System.getenv("SQS_PUBLISH_CONCURRENCY") != null
+                ? Integer.parseInt(System.getenv("SQS_PUBLISH_CONCURRENCY"))
+                : 8;
+        int maxAttempts = System.getenv("SQS_PUBLISH_MAX_ATTEMPTS") != null
+                ? Integer.parseInt(System.getenv("SQS_PUBLISH_MAX_ATTEMPTS"))
+                : 5;
+        return new SqsBatchPublisher(sqsClient, queueUrl, concurrency, maxAttempts);
+    }
+
+    /**
+     * 메시지 일괄 발행
+     *
+     * @param bodies 메시지 본문 목록
+     * @return 재시도 후에도 발행하지 못한 메시지의 인덱스 (모두 성공하면 빈 목록)
+     */
+    public List<Integer> publish(List<String> bodies) {
+        List<List<Integer>> batches = partition(bodies);
+        List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger nextBatch = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(concurrency, batches.size()); i++) {
+                executor.execute(() -> {
+                    int batch;
+                    while ((batch = nextBatch.getAndIncrement()) < batches.size()) {
+                        failed.addAll(sendWithRetry(bodies, batches.get(batch)));
+                    }
+                });
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(failed);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * 배치 발행 + 실패 항목 재시도
+     *
+     * @return 최종 실패한 메시지 인덱스
+     */
+    private List<Integer> sendWithRetry(List<String> bodies, List<Integer> indexes) {
+        List<Integer> pending = indexes;
+        List<Integer> failed = new ArrayList<>();
+
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<Integer> retry = new ArrayList<>();
+
+            try {
+                List<SendMessageBatchRequestEntry> entries = new ArrayList<>(pending.size());
+                for (Integer index : pending) {
+                    entries.add(SendMessageBatchRequestEntry.builder()
+                            .id(String.valueOf(index))
+                            .messageBody(bodies.get(index))
+                            .build());
+                }
+
+                SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                        .queueUrl(queueUrl)
+                        .entries(entries)
+                        .build());
+
+                for (BatchResultErrorEntry error : response.failed()) {
+                    Integer index = Integer.valueOf(error.id());
+                    if (Boolean.TRUE.equals(error.senderFault())) {
+                        failed.add(index);
+                    } else {
+                        retry.add(index);
+                    }
+                }
+
+            } catch (RuntimeException e) {
+                // 요청 전체 실패 (스로틀링, 네트워크 등)
+                retry.addAll(pending);
+            }
+
+            if (retry.isEmpty() || attempt >= maxAttempts) {
+                failed.addAll(retry);
+                break;
+            }
+
+            try {
+                Thread.sleep(BASE_BACKOFF_MS << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(retry);
+                break;
+            }
+            pending = retry;
+        }
+
+        return failed;
+    }
+
+    /**
+     * SendMessageBatch 한도(10건, 256KB)에 맞춰 메시지 인덱스 분할
+     */
+    private static List<List<Integer>> partition(List<String> bodies) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentBytes = 0;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            int bytes = bodies.get(i).getBytes(StandardCharsets.UTF_8).length;
+            if (!current.isEmpty()
+                    && (current.size() == MAX_BATCH_ENTRIES || currentBytes + bytes > MAX_BATCH_BYTES)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(i);
+            currentBytes += bytes;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.lambda.sqs;
+
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * SQS 가시성 타임아웃 하트비트
+ *
+ * 메시지를 처리하는 동안 extension/2 초마다 ChangeMessageVisibility 로 가시성을 extension 초 연장한다.
+ * 처리 시작부터 ceiling 초가 지나면 더 연장하지 않으므로, 멈춘 처리기가 메시지를 영원히 붙잡지 않는다.
+ */
+public class VisibilityHeartbeat {
+
+    // SQS 가시성 타임아웃 상한 (12시간)
+    private static final int SQS_MAX_VISIBILITY_SECONDS = 43200;
+
+    /**
+     * 메시지 하나의 연장 작업 (처리가 끝나면 close)
+     */
+    public static final class Lease implements AutoCloseable {
+        private volatile ScheduledFuture<?> future;
+
+        @Override
+        public void close() {
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+
+    private final SqsClient sqsClient;
+    private final int extensionSeconds;
+    private final int ceilingSeconds;
+    private final ScheduledExecutorService scheduler;
+
+    public VisibilityHeartbeat(SqsClient sqsClient, int extensionSeconds, int ceilingSeconds) {
+        if (extensionSeconds < 2 || ceilingSeconds < extensionSeconds) {
+            throw new IllegalArgumentException("invalid extension/ceiling: "
+                    + extensionSeconds + "/" + ceilingSeconds);
+        }
+        this.sqsClient = sqsClient;
+        this.extensionSeconds = extensionSeconds;
+        this.ceilingSeconds = Math.min(ceilingSeconds, SQS_MAX_VISIBILITY_SECONDS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("sqs-heartbeat").factory());
+    }
+
+    /**
+     * 환경 변수 설정으로 생성
+     *
+     * SQS_VISIBILITY_EXTENSION_SECONDS (기본 120), SQS_VISIBILITY_MAX_SECONDS (기본 1800)
+     */
+    public static VisibilityHeartbeat fromEnv(SqsClient sqsClient) {
+        return new VisibilityHeartbeat(sqsClient,
+                System.getenv("SQS_VISIBILITY_EXTENSION_SECONDS") != null
+                        ? Integer.parseInt(System.getenv("SQS_VISIBILITY_EXTENSION_SECONDS"))
+                        : 120,
+                System.getenv("SQS_VISIBILITY_MAX_SECONDS") != null
+                        ? Integer.parseInt(System.getenv("SQS_VISIBILITY_MAX_SECONDS"))
+                        : 1800);
+    }
+
+    /**
+     * 하트비트 시작 (첫 연장은 extension/2 초 뒤)
+     *
+     * @param onFailure 연장 실패 시 메시지 (실패하면 해당 메시지의 하트비트는 멈춘다)
+     */
+    public Lease start(String queueUrl, String receiptHandle, Consumer<String> onFailure) {
+        Lease lease = new Lease();
+        long startedAt = System.nanoTime();
+        long periodSeconds = extensionSeconds / 2;
+
+        lease.future = scheduler.scheduleAtFixedRate(() -> {
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAt);
+            int visibility = (int) Math.min(extensionSeconds, ceilingSeconds - elapsedSeconds);
+            if (visibility <= 0) {
+                lease.close();
+                return;
+            }
+
+            try {
+                sqsClient.changeMessageVisibility(ChangeMessageVisibilityRequest.builder()
+                        .queueUrl(queueUrl)
+                        .receiptHandle(receiptHandle)
+                        .visibilityTimeout(visibility)
+                        .build());
+            } catch (RuntimeException e) {
+                onFailure.accept("가시성 연장 실패: " + e.getMessage());
+                lease.close();
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+
+        return lease;
+    }
+
+    /**
+     * 이벤트 소스 ARN → 큐 URL (arn:aws:sqs:{region}:{account}:{queue})
+     */
+    public static String queueUrl(String eventSourceArn) {
+        String[] parts = eventSourceArn.split(":");
+        if (parts.length != 6 || !"sqs".equals(parts[2])) {
+            throw new IllegalArgumentException("SQS ARN 아님: " + eventSourceArn);
+        }
+        return "https://sqs." + parts[3] + ".amazonaws.com/" + parts[4] + "/" + parts[5];
+    }
+}
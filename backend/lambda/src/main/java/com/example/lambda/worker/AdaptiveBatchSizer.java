@@ -0,0 +1,187 @@
+package com.example.lambda.worker;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 삽입 배치 크기 조정 (행 수 + 추정 BSON 바이트)
+ *
+ * 배치는 행 수 상한 또는 바이트 목표 중 먼저 닿는 쪽에서 넘긴다.
+ * 바이트 목표는 삽입 지연을 보고 조정한다: 목표 지연보다 빠르면 키우고 느리면 줄인다 (한 번에 ±30% 이내).
+ * 컨테이너 안의 모든 청크가 같은 목표를 공유하므로 웜 컨테이너는 DB 상태에 맞는 크기에서 시작한다.
+ * 바이트 상한은 함수 메모리를 동시에 살아 있을 수 있는 배치 수로 나눠 정한다 (maxBytesFor).
+ */
+class AdaptiveBatchSizer {
+
+    // 문서 공통 필드(_id, project_id, session_id, upload_id, row_number 등) 추정 크기 (bucket 형식은 버킷 문서당 1번)
+    static final int DOCUMENT_OVERHEAD_BYTES = 200;
+    // bucket 형식 rows 배열 안의 행 배열 하나 (배열 헤더/종료 + 요소 타입 + 인덱스 키)
+    private static final int BUCKET_ROW_OVERHEAD_BYTES = 12;
+
+    private static final long MB = 1024 * 1024;
+    // 배치가 힙에서 차지하는 크기 / 추정 BSON 크기 (Document·ArrayList·박싱 값·UTF-16 문자열)
+    static final int HEAP_BYTES_PER_BSON_BYTE = 4;
+    // 함수 메모리 중 삽입 배치에 쓸 비율 (나머지: JVM·파서·공유 문자열 조회·드라이버 버퍼)
+    static final double BATCH_MEMORY_FRACTION = 0.5;
+    // AWS_LAMBDA_FUNCTION_MEMORY_SIZE 가 없을 때 (로컬 실행)
+    private static final long DEFAULT_FUNCTION_MEMORY_MB = 1024;
+
+    private final int maxRows;
+    private final long minBytes;
+    private final long maxBytes;
+    private final long targetMillis;
+
+    private volatile long targetBytes;
+
+    AdaptiveBatchSizer(int maxRows, long initialBytes, long minBytes, long maxBytes, long targetMillis) {
+        this.maxRows = maxRows;
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.targetMillis = targetMillis;
+        this.targetBytes = Math.max(minBytes, Math.min(maxBytes, initialBytes));
+    }
+
+    /**
+     * 환경 변수 설정으로 생성
+     *
+     * BATCH_MAX_ROWS (기본 20000), BATCH_TARGET_MB (초기 목표, 기본 8), BATCH_MIN_MB (기본 1),
+     * BATCH_MAX_MB (기본: 함수 메모리로 계산), BATCH_TARGET_MILLIS (배치당 목표 지연, 기본 1000)
+     *
+     * @param liveBatches 컨테이너 안에서 동시에 살아 있을 수 있는 배치 수
+     *                    (동시 레코드 수 × (삽입 중 배치 + 채우는 중인 배치 1))
+     */
+    static AdaptiveBatchSizer fromEnv(int liveBatches) {
+        long minBytes = envLong("BATCH_MIN_MB", 1) * MB;
+        long maxBytes = System.getenv("BATCH_MAX_MB") != null
+                ? envLong("BATCH_MAX_MB", 0) * MB
+                : maxBytesFor(envLong("AWS_LAMBDA_FUNCTION_MEMORY_SIZE", DEFAULT_FUNCTION_MEMORY_MB), liveBatches);
+        return new AdaptiveBatchSizer(
+                (int) envLong("BATCH_MAX_ROWS", 20000),
+                envLong("BATCH_TARGET_MB", 8) * MB,
+                minBytes,
+                Math.max(minBytes, maxBytes),
+                envLong("BATCH_TARGET_MILLIS", 1000));
+    }
+
+    /**
+     * 함수 메모리로 정한 배치 바이트 상한
+     *
+     * 함수 메모리의 BATCH_MEMORY_FRACTION 을 살아 있는 배치들이 나눠 쓰고,
+     * 배치 하나의 힙 크기는 추정 BSON 의 HEAP_BYTES_PER_BSON_BYTE 배로 본다.
+     * 예: 1024MB, 동시 레코드 4 × 배치 3 → 512MB / 12 / 4 ≈ 10.7MB
+     */
+    static long maxBytesFor(long functionMemoryMb, int liveBatches) {
+        long batchMemory = (long) (functionMemoryMb * MB * BATCH_MEMORY_FRACTION);
+        return batchMemory / ((long) Math.max(1, liveBatches) * HEAP_BYTES_PER_BSON_BYTE);
+    }
+
+    /**
+     * 배치를 넘길 때인지
+     */
+    boolean isFull(int rows, long bytes) {
+        return rows >= maxRows || bytes >= targetBytes;
+    }
+
+    /**
+     * 삽입 지연 반영
+     */
+    void observe(long bytes, long millis) {
+        // 목표 바이트에 못 미친 배치(청크 마지막 배치 등)는 속도 판단에 쓰지 않음
+        long current = targetBytes;
+        if (bytes < current / 2) {
+            return;
+        }
+        double ratio = Math.sqrt((double) targetMillis / Math.max(1, millis));
+        double factor = Math.max(0.7, Math.min(1.3, ratio));
+        targetBytes = Math.max(minBytes, Math.min(maxBytes, (long) (current * factor)));
+    }
+
+    long getTargetBytes() {
+        return targetBytes;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * 키 이름 바이트 합 (map 형식에서 행마다 반복되는 부분, 헤더당 한 번 계산)
+     */
+    static long keyBytes(List<String> headers) {
+        long bytes = 0;
+        for (String header : headers) {
+            bytes += header.getBytes(StandardCharsets.UTF_8).length + 2; // 타입 바이트 + 종료 0
+        }
+        return bytes;
+    }
+
+    /**
+     * 행 하나의 추정 BSON 크기 (행 = 문서 하나, 키 이름 제외)
+     */
+    static long rowBytes(SheetValues values, int columnCount) {
+        return DOCUMENT_OVERHEAD_BYTES + valuesBytes(values, columnCount);
+    }
+
+    /**
+     * 버킷 안 행 하나의 추정 BSON 크기 (문서 공통 필드는 버킷마다 DOCUMENT_OVERHEAD_BYTES 로 따로 더함)
+     */
+    static long bucketRowBytes(SheetValues values, int columnCount) {
+        return BUCKET_ROW_OVERHEAD_BYTES + valuesBytes(values, columnCount);
+    }
+
+    private static long valuesBytes(SheetValues values, int columnCount) {
+        long bytes = 0;
+        for (int i = 0; i < columnCount; i++) {
+            bytes += valueBytes(values.get(i));
+        }
+        return bytes;
+    }
+
+    private static long valueBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            return 5 + utf8Length(text);
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Number || value instanceof Date || value instanceof LocalDateTime) {
+            return 8;
+        }
+        return 5 + utf8Length(value.toString());
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 행 값 접근 (SheetRowReader 등)
+     */
+    @FunctionalInterface
+    interface SheetValues {
+        Object get(int column);
+    }
+
+    private static long envLong(String name, long defaultValue) {
+        return System.getenv(name) != null ? Long.parseLong(System.getenv(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.lambda.worker;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * MongoDB 배치 삽입 파이프라인
+ *
+ * 파서가 다음 배치를 채우는 동안 이전 배치를 백그라운드 스레드에서 삽입한다.
+ * 대기 + 삽입 중인 배치는 최대 maxInFlight 개로 제한되어 메모리 사용량이 고정된다.
+ *
+ * 문서 _id 가 결정적이므로 재처리 시 이미 들어간 문서의 중복 키 오류는 성공으로 본다.
+ * 배치는 순서 없이 끝나므로, 앞선 배치가 모두 끝난 지점(커밋 워터마크)을 따로 추적한다.
+ * 유입 제어기가 있으면 배치마다 행 수만큼 토큰을 받은 뒤 삽입하고 삽입 지연을 보고한다.
+ * 삽입 지연은 배치 크기 조정기에도 보고해 다음 배치의 바이트 목표에 반영한다.
+ */
+class BatchInsertPipeline implements AutoCloseable {
+
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+    /**
+     * 배치 삽입 완료 콜백 (writer 스레드에서 호출, 행 수 기준)
+     */
+    @FunctionalInterface
+    interface InsertListener {
+        /**
+         * @param committedEndRow 이 행 번호 앞까지는 모든 배치가 커밋됨 (exclusive)
+         */
+        void onInserted(int batchRows, int totalInserted, int committedEndRow);
+    }
+
+    private final MongoCollection<Document> collection;
+    private final InsertListener listener;
+    private final WriteAdmissionLimiter limiter;
+    private final Consumer<String> onWarning;
+    private final AdaptiveBatchSizer sizer;
+    private final Semaphore inFlight;
+    private final ExecutorService writers;
+
+    private final AtomicInteger insertedCount = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    // 커밋 워터마크: 완료됐지만 앞 배치를 기다리는 배치의 끝 행 번호 (순번 기준)
+    private final Map<Integer, Integer> completedEndRows = new HashMap<>();
+    private int submittedSequence;
+    private int nextCommitSequence;
+    private int committedEndRow;
+
+    /**
+     * @param maxInFlight 동시에 미완료 상태로 둘 수 있는 배치 수 (= writer 스레드 수)
+     * @param startRow 첫 배치의 시작 행 번호 (커밋 워터마크 초기값)
+     * @param limiter  쓰기 유입 제어 (null 이면 제한 없음)
+     * @param onWarning 유입 제어 경고 (호출한 Lambda 의 로거로 전달)
+     * @param sizer    배치 크기 조정 (삽입 지연 보고 대상)
+     */
+    BatchInsertPipeline(MongoCollection<Document> collection, int maxInFlight, int startRow,
+                        WriteAdmissionLimiter limiter, Consumer<String> onWarning, AdaptiveBatchSizer sizer,
+                        InsertListener listener) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.collection = collection;
+        this.listener = listener;
+        this.limiter = limiter;
+        this.onWarning = onWarning;
+        this.sizer = sizer;
+        this.committedEndRow = startRow;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.writers = Executors.newFixedThreadPool(maxInFlight,
+                Thread.ofPlatform().daemon().name("mongo-writer-", 0).factory());
+    }
+
+    /**
+     * 배치 제출 (미완료 배치가 가득 차면 하나가 끝날 때까지 대기)
+     *
+     * 제출한 리스트는 파이프라인 소유가 되므로 호출자는 새 리스트로 다음 배치를 채워야 한다.
+     *
+     * @param rowCount 배치에 담긴 행 수 (버킷 형식은 문서 수와 다름)
+     * @param byteCount 배치의 추정 BSON 크기
+     * @param endRow   배치 마지막 행 다음 행 번호 (exclusive)
+     */
+    void submit(List<Document> batch, int rowCount, long byteCount, int endRow) throws IOException {
+        rethrowFailure();
+
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("배치 제출 중 인터럽트");
+        }
+
+        int sequence = submittedSequence++;
+        writers.execute(() -> {
+            try {
+                // 앞선 배치가 실패했으면 더 쓰지 않음
+                if (failure.get() == null) {
+                    if (limiter != null) {
+                        limiter.acquire(rowCount, onWarning);
+                    }
+                    long startTime = System.currentTimeMillis();
+                    insertIgnoringDuplicates(batch);
+                    long insertMillis = System.currentTimeMillis() - startTime;
+                    if (limiter != null) {
+                        limiter.observe(rowCount, insertMillis, onWarning);
+                    }
+                    sizer.observe(byteCount, insertMillis);
+                    listener.onInserted(rowCount, insertedCount.addAndGet(rowCount),
+                            advanceWatermark(sequence, endRow));
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * 순서 없는 삽입 (중복 키 오류만 난 경우 이미 커밋된 배치로 간주)
+     */
+    private void insertIgnoringDuplicates(List<Document> batch) {
+        try {
+            collection.insertMany(batch, UNORDERED);
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 배치 완료 기록 후 커밋 워터마크 반환 (앞 순번이 모두 끝난 지점까지만 전진)
+     */
+    private synchronized int advanceWatermark(int sequence, int endRow) {
+        completedEndRows.put(sequence, endRow);
+        Integer next;
+        while ((next = completedEndRows.remove(nextCommitSequence)) != null) {
+            committedEndRow = next;
+            nextCommitSequence++;
+        }
+        return committedEndRow;
+    }
+
+    /**
+     * 남은 배치 삽입 완료 대기
+     *
+     * @return 총 삽입 행 수
+     */
+    int finish() throws IOException {
+        writers.shutdown();
+        try {
+            while (!writers.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Lambda 타임아웃이 상한
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("배치 삽입 대기 중 인터럽트");
+        }
+
+        rethrowFailure();
+        return insertedCount.get();
+    }
+
+    private void rethrowFailure() throws IOException {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (t instanceof Error error) {
+            throw error;
+        }
+        throw new IOException("MongoDB 배치 삽입 실패: " + t.getMessage(), t);
+    }
+
+    /**
+     * 정상 종료 시에는 finish() 이후라 no-op, 파싱 오류로 빠져나온 경우 남은 작업 중단
+     */
+    @Override
+    public void close() {
+        writers.shutdownNow();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.lambda.worker;
+
+import com.example.lambda.config.RedisConfig;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 청크 완료 추적 (Redis 비트맵 + Lua)
+ *
+ * upload:chunks:{uploadId}:{generation} 비트맵에 chunkNumber 비트를 세우고, 처음 세워진 경우에만
+ * 완료 청크 수/커밋 행 수를 올린다. SQS 재전달로 같은 청크가 다시 와도 한 번만 집계되고,
+ * 마지막 청크가 커밋되는 순간 한 번만 COMPLETED 로 바꾸고 완료 이벤트를 발행한다.
+ * 같은 키를 덮어쓴 새 버전은 세대가 달라 새 비트맵으로 다시 집계한다 (IngestGeneration).
+ *
+ * 청크 처리 중에는 upload:chunk:commit:{uploadId}:{generation} 에 청크별 커밋 워터마크(이 행 앞까지 커밋됨)를 남겨,
+ * 중간에 실패해 재전달된 청크가 범위 처음이 아니라 워터마크부터 이어서 삽입하게 한다.
+ */
+class ChunkCompletionTracker {
+
+    // 백엔드 UploadCompletionListener 가 구독하는 채널
+    static final String EVENT_CHANNEL = "upload:events";
+
+    private static final int TTL_SECONDS = 86400; // upload:status 와 동일 (24시간)
+
+    /**
+     * KEYS[1] = upload:chunks:{uploadId}:{generation}, KEYS[2] = upload:status:{uploadId}
+     * ARGV = chunkNumber, totalChunks, chunkRows, ttl, channel, uploadId, generation
+     *
+     * @return -2 이전 세대 청크, -1 이미 집계된 청크, 0 진행 중, 1 이번 청크로 완료
+     */
+    private static final String COMPLETE_CHUNK_SCRIPT = IngestGeneration.CLAIM_FUNCTION +
+            "if not claim(KEYS[2], tonumber(ARGV[7])) then return -2 end\n" +
+            "if redis.call('SETBIT', KEYS[1], ARGV[1], 1) == 1 then return -1 end\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4])\n" +
+            "local rows = redis.call('HINCRBY', KEYS[2], 'committedRows', ARGV[3])\n" +
+            "local done = redis.call('HINCRBY', KEYS[2], 'completedChunks', 1)\n" +
+            "redis.call('HSET', KEYS[2], 'totalChunks', ARGV[2])\n" +
+            "redis.call('EXPIRE', KEYS[2], ARGV[4])\n" +
+            "if done < tonumber(ARGV[2]) then return 0 end\n" +
+            "redis.call('HSET', KEYS[2], 'status', 'COMPLETED', 'progress', '100',\n" +
+            "    'processedRows', rows, 'totalRows', rows)\n" +
+            "redis.call('PUBLISH', ARGV[5], cjson.encode({uploadId = ARGV[6], status = 'COMPLETED',\n" +
+            "    totalRows = rows, totalChunks = tonumber(ARGV[2]), generation = tonumber(ARGV[7])}))\n" +
+            "return 1";
+
+    /**
+     * KEYS[1] = upload:chunk:commit:{uploadId}:{generation}, ARGV = chunkNumber, committedEndRow, ttl
+     * (writer 스레드 순서가 바뀌어도 워터마크가 뒤로 가지 않도록 큰 값만 기록)
+     */
+    private static final String SAVE_WATERMARK_SCRIPT =
+            "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]))\n" +
+            "if current and current >= tonumber(ARGV[2]) then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3])\n" +
+            "return 1";
+
+    enum Result {
+        STALE, DUPLICATE, IN_PROGRESS, COMPLETED
+    }
+
+    private final Supplier<Jedis> jedisSupplier;
+
+    ChunkCompletionTracker() {
+        this(RedisConfig::getJedis);
+    }
+
+    ChunkCompletionTracker(Supplier<Jedis> jedisSupplier) {
+        this.jedisSupplier = jedisSupplier;
+    }
+
+    /**
+     * 청크 커밋 기록
+     *
+     * @param generation  적재 세대 (ProcessingMessage.generation)
+     * @param chunkNumber 청크 번호 (1-based)
+     * @param chunkRows   이 청크에서 삽입한 행 수
+     */
+    Result complete(String uploadId, int generation, int chunkNumber, int totalChunks, int chunkRows) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            Object result = jedis.eval(COMPLETE_CHUNK_SCRIPT,
+                    List.of(IngestGeneration.chunksKey(uploadId, generation), IngestGeneration.statusKey(uploadId)),
+                    List.of(String.valueOf(chunkNumber), String.valueOf(totalChunks),
+                            String.valueOf(chunkRows), String.valueOf(TTL_SECONDS),
+                            EVENT_CHANNEL, uploadId, String.valueOf(generation)));
+
+            long code = (Long) result;
+            return code == -2 ? Result.STALE
+                    : code == -1 ? Result.DUPLICATE
+                    : code == 0 ? Result.IN_PROGRESS
+                    : Result.COMPLETED;
+        }
+    }
+
+    /**
+     * 청크가 이미 집계됐는지 (비트맵 조회)
+     */
+    boolean isCompleted(String uploadId, int generation, int chunkNumber) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            return jedis.getbit(IngestGeneration.chunksKey(uploadId, generation), chunkNumber);
+        }
+    }
+
+    /**
+     * 더 새 세대가 이미 시작됐는지 (같은 키를 다시 올린 뒤 도착한 이전 버전 청크)
+     */
+    boolean isSuperseded(String uploadId, int generation) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            String current = jedis.hget(IngestGeneration.statusKey(uploadId), "generation");
+            return current != null && Integer.parseInt(current) > generation;
+        }
+    }
+
+    /**
+     * 청크 커밋 워터마크 조회
+     *
+     * @return 이 행 번호 앞까지 커밋됨 (exclusive), 기록이 없으면 null
+     */
+    Integer committedEndRow(String uploadId, int generation, int chunkNumber) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            String value = jedis.hget(IngestGeneration.commitKey(uploadId, generation), String.valueOf(chunkNumber));
+            return value != null ? Integer.valueOf(value) : null;
+        }
+    }
+
+    /**
+     * 청크 커밋 워터마크 기록
+     */
+    void saveCommittedEndRow(String uploadId, int generation, int chunkNumber, int committedEndRow) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            jedis.eval(SAVE_WATERMARK_SCRIPT,
+                    List.of(IngestGeneration.commitKey(uploadId, generation)),
+                    List.of(String.valueOf(chunkNumber), String.valueOf(committedEndRow),
+                            String.valueOf(TTL_SECONDS)));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.lambda.worker;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 컬럼 타입 집계 (청크 단위)
+ *
+ * 청크마다 컬럼별 값 타입 개수를 세어 raw_data_schema 에 $inc 로 합산하고,
+ * 합산된 개수로 컬럼 타입을 추론한다. (백엔드 ColumnType 과 동일 규칙)
+ */
+class ColumnTypeStats {
+
+    static final String NUMBER = "NUMBER";
+    static final String DATE = "DATE";
+    static final String STRING = "STRING";
+    static final String BOOLEAN = "BOOLEAN";
+    static final String MIXED = "MIXED";
+    static final String EMPTY = "EMPTY";
+
+    private static final String[] TYPES = {NUMBER, DATE, STRING, BOOLEAN};
+
+    // 한 타입이 이 비율 이상이면 해당 타입으로 판정 (합계/비고 행 등 소수 예외 허용)
+    private static final double DOMINANT_RATIO = 0.95;
+
+    private final long[][] counts;
+
+    ColumnTypeStats(int columnCount) {
+        this.counts = new long[columnCount][TYPES.length];
+    }
+
+    void observe(int column, Object value) {
+        if (value == null) {
+            return;
+        }
+        int type;
+        if (value instanceof Number) {
+            type = 0;
+        } else if (value instanceof Date) {
+            type = 1;
+        } else if (value instanceof Boolean) {
+            type = 3;
+        } else {
+            type = 2;
+        }
+        counts[column][type]++;
+    }
+
+    /**
+     * raw_data_schema 합산용 $inc (column_types.{컬럼 인덱스}.{타입})
+     *
+     * @return 집계된 값이 없으면 null
+     */
+    Document toIncrement() {
+        Document inc = new Document();
+        for (int column = 0; column < counts.length; column++) {
+            for (int type = 0; type < TYPES.length; type++) {
+                if (counts[column][type] > 0) {
+                    inc.append("column_types." + column + "." + TYPES[type], counts[column][type]);
+                }
+            }
+        }
+        return inc.isEmpty() ? null : new Document("$inc", inc);
+    }
+
+    /**
+     * 합산된 column_types 로 컬럼별 타입 추론
+     *
+     * @return UploadedFileInfo.column_types 형식 [{name, type}]
+     */
+    static List<Document> infer(List<String> headers, Document columnTypes) {
+        List<Document> result = new ArrayList<>(headers.size());
+
+        for (int column = 0; column < headers.size(); column++) {
+            Document typeCounts = columnTypes != null
+                    ? columnTypes.get(String.valueOf(column), Document.class)
+                    : null;
+            result.add(new Document("name", headers.get(column)).append("type", inferType(typeCounts)));
+        }
+        return result;
+    }
+
+    private static String inferType(Document typeCounts) {
+        if (typeCounts == null || typeCounts.isEmpty()) {
+            return EMPTY;
+        }
+
+        long total = 0;
+        long max = 0;
+        String dominant = EMPTY;
+        for (String type : TYPES) {
+            Number count = typeCounts.get(type, Number.class);
+            long value = count != null ? count.longValue() : 0;
+            total += value;
+            if (value > max) {
+                max = value;
+                dominant = type;
+            }
+        }
+
+        if (total == 0) {
+            return EMPTY;
+        }
+        return max >= total * DOMINANT_RATIO ? dominant : MIXED;
+    }
+}
@@ -2,105 +2,225 @@ package com.example.lambda.worker;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.example.lambda.config.MongoDBConfig;
-import com.example.lambda.config.RedisConfig;
+import com.example.lambda.excel.DateStyles;
+import com.example.lambda.excel.SharedStringsSidecar;
+import com.example.lambda.excel.SheetRowReader;
+import com.example.lambda.excel.XlsxEntries;
+import com.example.lambda.excel.XlsxWorkbook;
 import com.example.lambda.model.ProcessingMessage;
+import com.example.lambda.s3.RangedDownloader;
+import com.example.lambda.s3.RemoteZip;
+import com.example.lambda.sqs.VisibilityHeartbeat;
 import com.google.gson.Gson;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
-import com.monitorjbl.xlsx.StreamingReader;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.util.IOUtils;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
-import redis.clients.jedis.Jedis;
-import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.sqs.SqsClient;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * Excel Worker Lambda Handler
  *
  * SQS 메시지 수신 → Excel 파싱 → MongoDB 삽입
  */
-public class ExcelWorkerHandler implements RequestHandler<SQSEvent, String> {
-
-    private static final int BATCH_SIZE = 20000; // MongoDB 배치 삽입 크기
+public class ExcelWorkerHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    // 동시에 삽입 중일 수 있는 배치 수 (파싱 중인 배치 1개는 별도)
+    private static final int MAX_INFLIGHT_BATCHES = System.getenv("MAX_INFLIGHT_BATCHES") != null
+            ? Integer.parseInt(System.getenv("MAX_INFLIGHT_BATCHES"))
+            : 2;
+    // raw_data 저장 형식 (map: 컬럼명 → 값 / compact: 값 배열 + raw_data_schema / bucket: N행을 문서 하나에)
+    private static final String RAW_DATA_FORMAT = System.getenv("RAW_DATA_FORMAT") != null
+            ? System.getenv("RAW_DATA_FORMAT").toLowerCase()
+            : "map";
+    private static final boolean COMPACT_FORMAT = "compact".equals(RAW_DATA_FORMAT);
+    private static final boolean BUCKET_FORMAT = "bucket".equals(RAW_DATA_FORMAT);
+    // bucket 형식의 문서당 행 수
+    private static final int BUCKET_SIZE = System.getenv("RAW_DATA_BUCKET_SIZE") != null
+            ? Integer.parseInt(System.getenv("RAW_DATA_BUCKET_SIZE"))
+            : 256;
+    // bucket 형식의 문서당 추정 바이트 상한 (문서 최대 16MB, 넓은 행은 BUCKET_SIZE 전에 버킷을 닫음)
+    private static final long BUCKET_MAX_BYTES = (System.getenv("RAW_DATA_BUCKET_MAX_MB") != null
+            ? Long.parseLong(System.getenv("RAW_DATA_BUCKET_MAX_MB"))
+            : 8) * 1024 * 1024;
+    // 한 호출에서 동시에 처리할 레코드 수 (레코드당 Mongo 커넥션 최대 MAX_INFLIGHT_BATCHES 개)
+    private static final int RECORD_CONCURRENCY = Math.max(1, Math.min(
+            System.getenv("WORKER_RECORD_CONCURRENCY") != null
+                    ? Integer.parseInt(System.getenv("WORKER_RECORD_CONCURRENCY"))
+                    : 4,
+            MongoDBConfig.getMaxPoolSize() / MAX_INFLIGHT_BATCHES));
+    // MongoDB 배치 삽입 크기 (행 수 상한 + 추정 바이트 목표, 삽입 지연으로 조정)
+    // 바이트 상한은 레코드마다 삽입 중 MAX_INFLIGHT_BATCHES 개 + 채우는 중 1개가 동시에 살아 있는 것으로 계산
+    private static final AdaptiveBatchSizer BATCH_SIZER =
+            AdaptiveBatchSizer.fromEnv(RECORD_CONCURRENCY * (MAX_INFLIGHT_BATCHES + 1));
     private static final String AWS_REGION = System.getenv("AWS_REGION") != null
             ? System.getenv("AWS_REGION")
             : "ap-northeast-2";
 
-    // ⭐ Apache POI 메모리 제한 해제 (static 초기화)
-    static {
-        IOUtils.setByteArrayMaxOverride(Integer.MAX_VALUE);
-    }
+    // 컨테이너 단위 통합 문서 캐시 (/tmp, 웜 컨테이너에서 같은 업로드의 다음 청크가 재사용)
+    private static final long WORKBOOK_CACHE_MAX_BYTES = System.getenv("WORKBOOK_CACHE_MAX_BYTES") != null
+            ? Long.parseLong(System.getenv("WORKBOOK_CACHE_MAX_BYTES"))
+            : WorkbookCache.defaultMaxBytes(Path.of("/tmp"));
+    private static final WorkbookCache WORKBOOK_CACHE =
+            new WorkbookCache(Path.of("/tmp", "workbook-cache"), WORKBOOK_CACHE_MAX_BYTES);
+
+    private static final ChunkCompletionTracker CHUNK_TRACKER = new ChunkCompletionTracker();
+
+    // DocumentDB 쓰기 유입 제어 (모든 Worker 가 Redis 토큰 버킷 공유)
+    private static final WriteAdmissionLimiter WRITE_LIMITER = WriteAdmissionLimiter.fromEnv();
+
+    // 진행률 반영 간격 (컨테이너 안의 모든 청크/배치 합산)
+    private static final ProgressReporter PROGRESS_REPORTER = new ProgressReporter(
+            System.getenv("PROGRESS_FLUSH_MILLIS") != null
+                    ? Long.parseLong(System.getenv("PROGRESS_FLUSH_MILLIS"))
+                    : 1000);
 
     private final S3Client s3Client;
+    private final RangedDownloader rangedDownloader;
+    private final VisibilityHeartbeat visibilityHeartbeat;
     private final Gson gson;
     private final DateTimeFormatter dateTimeFormatter;
 
     public ExcelWorkerHandler() {
         Region region = Region.of(AWS_REGION != null ? AWS_REGION : "ap-northeast-2");
         this.s3Client = S3Client.builder().region(region).build();
+        this.rangedDownloader = RangedDownloader.fromEnv(s3Client);
+        this.visibilityHeartbeat = VisibilityHeartbeat.fromEnv(SqsClient.builder().region(region).build());
         this.gson = new Gson();
         this.dateTimeFormatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     }
 
+    /**
+     * SQS 배치 처리
+     *
+     * 한 호출의 레코드를 가상 스레드로 동시에 처리하고(동시 처리 수는 Mongo 커넥션 예산 이내),
+     * 실패한 레코드만 batchItemFailures 로 돌려준다. 성공한 레코드는 재전달되지 않는다.
+     * (Event Source Mapping 에 ReportBatchItemFailures 설정 필요)
+     */
     @Override
-    public String handleRequest(SQSEvent sqsEvent, Context context) {
-        context.getLogger().log("=== Excel Worker 시작 ===");
+    public SQSBatchResponse handleRequest(SQSEvent sqsEvent, Context context) {
+        List<SQSEvent.SQSMessage> records = sqsEvent.getRecords();
+        context.getLogger().log("=== Excel Worker 시작 === (" + records.size() + "건, 동시 " +
+                RECORD_CONCURRENCY + ", 배치 상한 " + BATCH_SIZER.getMaxBytes() / (1024 * 1024) + "MB)");
+
+        List<SQSBatchResponse.BatchItemFailure> failures = Collections.synchronizedList(new ArrayList<>());
+        Semaphore permits = new Semaphore(RECORD_CONCURRENCY);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SQSEvent.SQSMessage record : records) {
+                executor.execute(() -> {
+                    // ⭐ 대기/처리 중에는 가시성 타임아웃을 연장해 다른 Worker 가 같은 청크를 받지 않도록
+                    try (VisibilityHeartbeat.Lease lease = startHeartbeat(record, context)) {
+                        permits.acquireUninterruptibly();
+                        try {
+                            processRecord(record, context);
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (Exception e) {
+                        context.getLogger().log("ERROR: messageId=" + record.getMessageId() +
+                                " 처리 실패: " + e.getMessage());
+                        e.printStackTrace();
+                        failures.add(new SQSBatchResponse.BatchItemFailure(record.getMessageId()));
+                    }
+                });
+            }
+        }
 
-        try {
-            for (SQSEvent.SQSMessage message : sqsEvent.getRecords()) {
-                String messageBody = message.getBody();
-                ProcessingMessage processingMessage = gson.fromJson(messageBody, ProcessingMessage.class);
-
-                context.getLogger().log("처리 시작: uploadId=" + processingMessage.getUploadId() +
-                        ", chunk=" + processingMessage.getChunkNumber() +
-                        ", rows=" + processingMessage.getStartRow() + "~" +
-                        processingMessage.getEndRow() +
-                        (processingMessage.isFirstChunk() ? " (첫 청크 - Redis 초기화)" : ""));
-
-                // ⭐ 첫 번째 청크인 경우 Redis 초기화
-                if (processingMessage.isFirstChunk()) {
-                    initializeRedisStatus(
-                            processingMessage.getUploadId(),
-                            processingMessage.getTotalRows(),
-                            context
-                    );
-                }
+        context.getLogger().log("=== Excel Worker 완료 === (실패 " + failures.size() + "/" + records.size() + ")");
+        return new SQSBatchResponse(failures);
+    }
 
-                processChunk(processingMessage, context);
+    /**
+     * 가시성 하트비트 시작 (큐 URL 을 알 수 없으면 연장 없이 처리)
+     */
+    private VisibilityHeartbeat.Lease startHeartbeat(SQSEvent.SQSMessage record, Context context) {
+        try {
+            return visibilityHeartbeat.start(VisibilityHeartbeat.queueUrl(record.getEventSourceArn()),
+                    record.getReceiptHandle(),
+                    warning -> context.getLogger().log("WARNING: messageId=" + record.getMessageId() +
+                            " " + warning));
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 가시성 하트비트 시작 실패: " + e.getMessage());
+            return new VisibilityHeartbeat.Lease();
+        }
+    }
 
-                context.getLogger().log("처리 완료: chunk=" + processingMessage.getChunkNumber());
-            }
+    /**
+     * SQS 레코드 하나(청크 하나) 처리
+     */
+    private void processRecord(SQSEvent.SQSMessage record, Context context) throws IOException {
+        ProcessingMessage processingMessage = gson.fromJson(record.getBody(), ProcessingMessage.class);
+
+        context.getLogger().log("처리 시작: uploadId=" + processingMessage.getUploadId() +
+                ", chunk=" + processingMessage.getChunkNumber() +
+                ", rows=" + processingMessage.getStartRow() + "~" +
+                processingMessage.getEndRow() +
+                (processingMessage.isFirstChunk() ? " (첫 청크 - Redis 초기화)" : ""));
+
+        // 이미 집계된 청크는 다시 처리하지 않음 (완료 후에는 사이드카도 지워져 있음)
+        if (isChunkCommitted(processingMessage, context)) {
+            context.getLogger().log("이미 집계된 청크 (재전달) - 처리 생략: chunk=" +
+                    processingMessage.getChunkNumber());
+            return;
+        }
 
-            context.getLogger().log("=== Excel Worker 완료 ===");
-            return "SUCCESS";
+        // 같은 키가 새 버전으로 다시 올라온 뒤 도착한 이전 버전 청크는 처리하지 않음
+        if (isSuperseded(processingMessage, context)) {
+            context.getLogger().log("이전 버전 청크 - 처리 생략: generation=" +
+                    processingMessage.getGeneration() + ", chunk=" + processingMessage.getChunkNumber());
+            return;
+        }
 
-        } catch (Exception e) {
-            context.getLogger().log("ERROR: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        // ⭐ 첫 번째 청크인 경우 Redis 초기화
+        if (processingMessage.isFirstChunk()) {
+            initializeRedisStatus(processingMessage, context);
         }
+
+        long chunkStartTime = System.currentTimeMillis();
+        int chunkRows = processChunk(processingMessage, context);
+        long chunkMillis = System.currentTimeMillis() - chunkStartTime;
+        recordChunkTiming(processingMessage, chunkMillis, context);
+        flushProgress(processingMessage, context);
+        completeChunk(processingMessage, chunkRows, context);
+
+        context.getLogger().log("처리 완료: chunk=" + processingMessage.getChunkNumber() +
+                " (" + chunkMillis + "ms)");
     }
 
     /**
      * ⭐ Redis 상태 초기화 (첫 번째 Worker만 실행)
      */
-    private void initializeRedisStatus(String uploadId, int totalRows, Context context) {
+    private void initializeRedisStatus(ProcessingMessage message, Context context) {
         int maxRetries = 3;
         int retryDelayMs = 5000; // 5초
 
@@ -108,18 +228,16 @@ public class ExcelWorkerHandler implements RequestHandler<SQSEvent, String> {
             try {
                 context.getLogger().log("Redis 초기화 시도: " + attempt + "/" + maxRetries);
 
-                try (Jedis jedis = RedisConfig.getJedis()) {
-                    String key = "upload:status:" + uploadId;
-                    jedis.hset(key, "status", "PROCESSING");
-                    jedis.hset(key, "progress", "0");
-                    jedis.hset(key, "totalRows", String.valueOf(totalRows));
-                    jedis.hset(key, "processedRows", "0");
-                    jedis.expire(key, 86400); // 24시간 TTL
-
-                    context.getLogger().log("Redis 초기화 성공! (시도 " + attempt + ")");
-                    return; // 성공 시 즉시 반환
+                // 재전달된 첫 청크가 이미 끝난 업로드나 새 버전을 되돌리지 않도록 (Lua 1회)
+                if (!PROGRESS_REPORTER.initialize(message.getUploadId(), message.getGeneration(),
+                        message.getTotalRows())) {
+                    context.getLogger().log("이미 완료됐거나 새 버전이 있는 업로드 - Redis 초기화 생략");
+                    return;
                 }
 
+                context.getLogger().log("Redis 초기화 성공! (시도 " + attempt + ")");
+                return; // 성공 시 즉시 반환
+
             } catch (Exception e) {
                 context.getLogger().log("Redis 초기화 실패 (시도 " + attempt + "): " + e.getMessage());
 
@@ -141,236 +259,628 @@ public class ExcelWorkerHandler implements RequestHandler<SQSEvent, String> {
     /**
      * 청크 처리
      */
-    private void processChunk(ProcessingMessage message, Context context) throws IOException {
-        // ⭐ 1. /tmp에 임시 파일 다운로드
-        Path tempFile = Files.createTempFile("excel-", ".xlsx");
+    private int processChunk(ProcessingMessage message, Context context) throws IOException {
+        // ⭐ 1. 워밍된 컨테이너면 캐시된 파일 재사용, 아니면 /tmp 에 다운로드
+        String eTag = message.getETag() != null ? message.getETag() : headETag(message);
+        WorkbookCache.Entry workbook = WORKBOOK_CACHE.acquire(message.getS3Bucket(), message.getS3Key(), eTag,
+                target -> {
+                    context.getLogger().log("S3 다운로드: " + message.getS3Key());
+                    long startTime = System.currentTimeMillis();
+
+                    // S3 → 파일 다운로드 (필요한 엔트리만, 병렬 range)
+                    long size = downloadWorkbook(message, target, context);
+                    context.getLogger().log("파일 다운로드 완료: " + size + " bytes, " +
+                            (System.currentTimeMillis() - startTime) + "ms");
+                });
 
         try {
-            context.getLogger().log("S3 다운로드: " + message.getS3Key());
+            // ⭐ 2. 시트 XML 직접 파싱 (체크포인트가 있으면 해당 오프셋부터)
+            return processSheet(message, workbook, context);
 
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(message.getS3Bucket())
-                    .key(message.getS3Key())
-                    .build();
+        } finally {
+            // 3. 캐시 반납 (예산 초과 시 오래된 파일부터 삭제)
+            WORKBOOK_CACHE.release(workbook);
+        }
+    }
 
-            // S3 → 파일 다운로드
-            try (ResponseInputStream<GetObjectResponse> s3Object = s3Client.getObject(getObjectRequest)) {
-                Files.copy(s3Object, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                context.getLogger().log("파일 다운로드 완료: " + Files.size(tempFile) + " bytes");
+    /**
+     * ⭐ 통합 문서 다운로드 (workbook.xml/관계/첫 번째 시트/스타일/공유 문자열 엔트리만)
+     *
+     * central directory 를 먼저 읽고 필요한 엔트리만 담은 zip 을 만든다.
+     * 첫 번째 시트는 Coordinator 가 메시지에 담아 보내고, 없으면 workbook.xml 로 직접 찾는다.
+     * 공유 문자열 사이드카가 있으면 sharedStrings.xml 도 받지 않는다.
+     * central directory 를 읽지 못하면(ZIP64 등) 전체 파일을 받는다.
+     */
+    private long downloadWorkbook(ProcessingMessage message, Path target, Context context) throws IOException {
+        try {
+            RemoteZip remoteZip = RemoteZip.open(s3Client, message.getS3Bucket(), message.getS3Key());
+            String sheetEntry = message.getSheetEntry() != null
+                    ? message.getSheetEntry()
+                    : XlsxWorkbook.read(remoteZip::open).getFirstSheet();
+
+            List<RemoteZip.Entry> entries = new ArrayList<>();
+            for (String name : message.getSstKey() != null
+                    ? List.of(XlsxEntries.WORKBOOK, XlsxEntries.WORKBOOK_RELS, sheetEntry, XlsxEntries.STYLES)
+                    : List.of(XlsxEntries.WORKBOOK, XlsxEntries.WORKBOOK_RELS, sheetEntry, XlsxEntries.STYLES,
+                            XlsxEntries.SHARED_STRINGS)) {
+                RemoteZip.Entry entry = remoteZip.find(name);
+                if (entry != null) {
+                    entries.add(entry);
+                }
             }
 
-            // ⭐ 2. Streaming Reader로 Excel 열기 (메모리 20MB 고정!)
-            try (InputStream inputStream = new FileInputStream(tempFile.toFile());
-                 Workbook workbook = StreamingReader.builder()
-                         .rowCacheSize(100)    // 메모리에 100행만 유지
-                         .bufferSize(4096)     // 버퍼 4KB
-                         .open(inputStream)) {
+            long size = remoteZip.writeEntries(entries, target, rangedDownloader);
+            context.getLogger().log("필요 엔트리만 다운로드: " + entries.size() + "/" +
+                    remoteZip.getEntries().size() + "개 (원본 " + remoteZip.getObjectSize() + " bytes)");
+            return size;
 
-                Sheet sheet = workbook.getSheetAt(0);
+        } catch (IOException e) {
+            context.getLogger().log("WARNING: 부분 다운로드 실패, 전체 다운로드로 진행: " + e.getMessage());
+            return rangedDownloader.download(message.getS3Bucket(), message.getS3Key(), target);
+        }
+    }
 
-                // 3. 헤더 추출 (첫 번째 행)
-                Iterator<Row> rowIterator = sheet.iterator();
-                if (!rowIterator.hasNext()) {
-                    context.getLogger().log("WARNING: 빈 시트");
-                    return;
-                }
+    /**
+     * ETag 조회 (메시지에 없는 경우 - 이전 Coordinator 가 보낸 메시지)
+     */
+    private String headETag(ProcessingMessage message) {
+        return s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(message.getS3Bucket())
+                .key(message.getS3Key())
+                .build()).eTag().replace("\"", ""); // S3 이벤트의 ETag 는 따옴표 없음
+    }
 
-                Row headerRow = rowIterator.next();
-                List<String> headers = extractHeaders(headerRow);
-                context.getLogger().log("헤더: " + headers);
+    /**
+     * ⭐ 시트 XML 을 직접 읽어 청크 범위 처리
+     *
+     * 체크포인트가 있으면 Coordinator 가 기록한 오프셋으로 바로 이동하므로 앞쪽 행을 파싱하지 않는다.
+     * 없으면 시트 처음부터 읽으며 범위 전 행은 건너뛴다.
+     * 시트는 workbook.xml 탭 순서상 첫 번째 시트이다 (Coordinator 와 같은 규칙).
+     * 공유 문자열/날짜 스타일/통합 문서 정보/헤더는 캐시 항목에 한 번만 로드한다.
+     */
+    private int processSheet(ProcessingMessage message, WorkbookCache.Entry workbook,
+                              Context context) throws IOException {
+        ZipFile zipFile = workbook.getZipFile();
+        SharedStringsSidecar sharedStrings = workbook.sharedStrings(
+                () -> loadSharedStrings(message, zipFile, context));
+        XlsxWorkbook xlsx = workbook.workbook(() -> XlsxWorkbook.read(zipFile));
+        DateStyles dateStyles = workbook.dateStyles(
+                () -> loadDateStyles(zipFile).withDate1904(xlsx.isDate1904()));
+
+        ZipEntry sheetEntry = XlsxEntries.find(zipFile, xlsx.getFirstSheet());
+        if (sheetEntry == null) {
+            throw new IOException(xlsx.getFirstSheet() + " 엔트리 없음");
+        }
 
-                // 4. MongoDB 준비
-                MongoDatabase database = MongoDBConfig.getDatabase();
-                MongoCollection<Document> collection = database.getCollection("raw_data");
+        // 헤더 추출 (첫 번째 행)
+        List<String> headers = workbook.headers(() -> {
+            try (SheetRowReader reader = SheetRowReader.open(
+                    zipFile.getInputStream(sheetEntry), sharedStrings, dateStyles)) {
+                return reader.next() ? extractHeaders(reader) : List.of();
+            }
+        });
+        if (headers.isEmpty()) {
+            context.getLogger().log("WARNING: 빈 시트");
+            return 0;
+        }
+        context.getLogger().log("헤더: " + headers);
 
-                List<Document> batch = new ArrayList<>();
-                int processedCount = 0;
-                int currentRowIndex = 1; // 헤더 다음부터 (0-based에서 1부터 시작)
+        saveSchema(message, headers);
 
-                // ⭐ 5. 스트리밍 방식으로 행 읽기 (메모리 효율적!)
-                while (rowIterator.hasNext()) {
-                    Row row = rowIterator.next();
+        MongoCollection<Document> collection = MongoDBConfig.getDatabase()
+                .getCollection(BUCKET_FORMAT ? "raw_data_bucket" : "raw_data");
 
-                    // startRow ~ endRow 범위만 처리
-                    if (currentRowIndex < message.getStartRow() - 1) {
-                        currentRowIndex++;
-                        continue; // 범위 전: 건너뛰기
-                    }
+        if (message.getRowOffset() == null) {
+            // 체크포인트 없음: 헤더 행을 건너뛰고 처음부터 읽기
+            try (SheetRowReader reader = SheetRowReader.open(
+                    zipFile.getInputStream(sheetEntry), sharedStrings, dateStyles)) {
+                reader.next();
+                return insertRows(reader, 1, headers, collection, message, context);
+            }
+        }
 
-                    if (currentRowIndex >= message.getEndRow()) {
-                        break; // 범위 후: 종료
-                    }
+        context.getLogger().log("체크포인트 이동: offset=" + message.getRowOffset() +
+                ", row=" + message.getOffsetRow());
 
-                    // 행 데이터 추출
-                    Map<String, Object> rowData = extractRowDataStreaming(headers, row);
+        try (SheetRowReader reader = SheetRowReader.openAt(zipFile.getInputStream(sheetEntry),
+                message.getRowOffset(), sharedStrings, dateStyles)) {
+            return insertRows(reader, message.getOffsetRow(), headers, collection, message, context);
+        }
+    }
 
-                    // MongoDB Document 생성
-                    Document doc = new Document()
-                            .append("project_id", message.getProjectId())
-                            .append("session_id", message.getSessionId())
-                            .append("upload_id", message.getUploadId())
-                            .append("row_number", currentRowIndex)
-                            .append("data", rowData)
-                            .append("is_hidden", false)
-                            .append("created_at", LocalDateTime.now().format(dateTimeFormatter))
-                            .append("updated_at", LocalDateTime.now().format(dateTimeFormatter));
+    /**
+     * 리더의 다음 행부터 청크 범위(startRow ~ endRow)를 배치 삽입
+     *
+     * @param firstRowIndex 리더가 다음에 돌려줄 행의 row_number
+     */
+    private int insertRows(SheetRowReader reader, int firstRowIndex, List<String> headers,
+                            MongoCollection<Document> collection, ProcessingMessage message,
+                            Context context) throws IOException {
+        // ⭐ 재전달된 청크면 이전 시도가 커밋한 지점부터 이어서 삽입
+        int rangeStartRow = message.getStartRow() - 1;
+        int resumeRow = Math.max(rangeStartRow, loadCommittedEndRow(message, context));
+        if (resumeRow > rangeStartRow) {
+            context.getLogger().log("커밋 지점부터 재개: row=" + resumeRow +
+                    " (범위 " + rangeStartRow + "~" + message.getEndRow() + ")");
+        }
 
-                    batch.add(doc);
+        // ⭐ 파싱과 삽입을 겹쳐서 수행 (insertMany 동안에도 다음 배치를 채움)
+        try (BatchInsertPipeline pipeline = new BatchInsertPipeline(collection, MAX_INFLIGHT_BATCHES,
+                resumeRow, WRITE_LIMITER, warning -> context.getLogger().log("WARNING: " + warning), BATCH_SIZER,
+                (batchRows, totalInserted, committedEndRow) -> {
+                    updateProgress(message, batchRows, context);
+                    saveCommittedEndRow(message, committedEndRow, context);
+                    context.getLogger().log("중간 저장: " + totalInserted + "건");
+                })) {
+
+            List<Document> batch = new ArrayList<>();
+            int batchRows = 0;
+            long batchBytes = 0;
+            // 행마다 반복되는 키 이름 크기 (map: 컬럼명, compact/bucket: 배열 인덱스)
+            long rowKeyBytes = COMPACT_FORMAT || BUCKET_FORMAT
+                    ? headers.size() * 4L
+                    : AdaptiveBatchSizer.keyBytes(headers);
+            ColumnTypeStats typeStats = new ColumnTypeStats(headers.size());
+            int currentRowIndex = firstRowIndex;
+
+            // bucket 형식: 채우는 중인 버킷
+            List<List<Object>> bucketRows = null;
+            int bucketStartRow = 0;
+            long bucketBytes = 0;
+
+            while (reader.next()) {
+                // startRow ~ endRow 범위만 처리 (커밋된 행은 범위 전과 같이 취급)
+                if (currentRowIndex < resumeRow) {
+                    currentRowIndex++;
+                    continue; // 범위 전: 건너뛰기
+                }
 
-                    // 배치 삽입
-                    if (batch.size() >= BATCH_SIZE) {
-                        collection.insertMany(batch);
-                        processedCount += batch.size();
-                        batch.clear();
+                if (currentRowIndex >= message.getEndRow()) {
+                    break; // 범위 후: 종료
+                }
 
-                        // Redis 진행률 업데이트
-                        updateProgress(message.getUploadId(), processedCount, message.getTotalRows(), context);
+                for (int i = 0; i < headers.size(); i++) {
+                    typeStats.observe(i, reader.get(i));
+                }
 
-                        context.getLogger().log("중간 저장: " + processedCount + "건 (행: " + currentRowIndex + ")");
+                if (BUCKET_FORMAT) {
+                    if (bucketRows == null) {
+                        bucketRows = new ArrayList<>(BUCKET_SIZE);
+                        bucketStartRow = currentRowIndex;
+                        bucketBytes = AdaptiveBatchSizer.DOCUMENT_OVERHEAD_BYTES; // 문서 공통 필드는 버킷당 1번
+                        batchBytes += bucketBytes;
                     }
-
-                    currentRowIndex++;
+                    long rowBytes = rowKeyBytes + AdaptiveBatchSizer.bucketRowBytes(reader::get, headers.size());
+                    bucketRows.add(toRowValues(headers.size(), reader));
+                    bucketBytes += rowBytes;
+                    batchBytes += rowBytes;
+                    if (bucketRows.size() >= BUCKET_SIZE || bucketBytes >= BUCKET_MAX_BYTES) {
+                        batch.add(buildBucket(message, bucketStartRow, bucketRows));
+                        bucketRows = null;
+                    }
+                } else {
+                    batch.add(buildDocument(message, currentRowIndex, headers, reader));
+                    batchBytes += rowKeyBytes + AdaptiveBatchSizer.rowBytes(reader::get, headers.size());
                 }
+                batchRows++;
+
+                currentRowIndex++;
 
-                // 남은 데이터 삽입
-                if (!batch.isEmpty()) {
-                    collection.insertMany(batch);
-                    processedCount += batch.size();
-                    updateProgress(message.getUploadId(), processedCount, message.getTotalRows(), context);
+                // 버킷은 다 채운 뒤에만 배치를 넘김 (재개 지점이 항상 버킷 경계가 되도록)
+                if (BATCH_SIZER.isFull(batchRows, batchBytes) && bucketRows == null) {
+                    pipeline.submit(batch, batchRows, batchBytes, currentRowIndex);
+                    batch = new ArrayList<>();
+                    batchRows = 0;
+                    batchBytes = 0;
                 }
+            }
 
-                context.getLogger().log("MongoDB 삽입 완료: " + processedCount + "건");
+            if (bucketRows != null) {
+                batch.add(buildBucket(message, bucketStartRow, bucketRows));
+            }
+            if (!batch.isEmpty()) {
+                pipeline.submit(batch, batchRows, batchBytes, currentRowIndex);
             }
 
-        } finally {
-            // 6. 임시 파일 삭제
-            try {
-                Files.deleteIfExists(tempFile);
-                context.getLogger().log("임시 파일 삭제 완료");
-            } catch (IOException e) {
-                context.getLogger().log("WARNING: 임시 파일 삭제 실패: " + e.getMessage());
+            int processedCount = pipeline.finish();
+            context.getLogger().log("MongoDB 삽입 완료: " + processedCount + "건");
+
+            recordColumnTypes(message, headers, typeStats, context);
+
+            // 이전 시도가 커밋한 행까지 포함한 청크 전체 행 수
+            return Math.max(0, currentRowIndex - rangeStartRow);
+        }
+    }
+
+    /**
+     * ⭐ 공유 문자열 사이드카 로드 (메모리 매핑)
+     *
+     * Coordinator 가 올린 사이드카를 우선 사용하고, 없으면 xlsx 에서 직접 추출한다.
+     * 매핑 후 파일은 바로 삭제해도 매핑은 유지된다.
+     */
+    private SharedStringsSidecar loadSharedStrings(ProcessingMessage message, ZipFile zipFile,
+                                                   Context context) throws IOException {
+        Path sstFile = Files.createTempFile("sst-", ".bin");
+        try {
+            if (message.getSstKey() != null) {
+                long size = rangedDownloader.download(message.getS3Bucket(), message.getSstKey(), sstFile);
+                context.getLogger().log("공유 문자열 사이드카 다운로드: " + size + " bytes");
+
+            } else {
+                ZipEntry sstEntry = XlsxEntries.find(zipFile, XlsxEntries.SHARED_STRINGS);
+                if (sstEntry == null) {
+                    return SharedStringsSidecar.empty();
+                }
+                try (InputStream in = zipFile.getInputStream(sstEntry);
+                     OutputStream out = Files.newOutputStream(sstFile)) {
+                    int count = SharedStringsSidecar.write(in, out);
+                    context.getLogger().log("공유 문자열 직접 추출 (사이드카 없음): " + count + "개");
+                }
             }
+
+            return SharedStringsSidecar.open(sstFile);
+
+        } finally {
+            Files.deleteIfExists(sstFile);
         }
     }
 
     /**
-     * Streaming Reader용 행 데이터 추출
+     * styles.xml 에서 날짜 서식 스타일 로드
      */
-    private Map<String, Object> extractRowDataStreaming(List<String> headers, Row row) {
-        Map<String, Object> data = new LinkedHashMap<>();
+    private DateStyles loadDateStyles(ZipFile zipFile) throws IOException {
+        ZipEntry stylesEntry = XlsxEntries.find(zipFile, XlsxEntries.STYLES);
+        if (stylesEntry == null) {
+            return DateStyles.none();
+        }
+        try (InputStream in = zipFile.getInputStream(stylesEntry)) {
+            return DateStyles.read(in);
+        }
+    }
 
-        for (int i = 0; i < headers.size(); i++) {
-            Cell cell = row.getCell(i);
-            String header = headers.get(i);
-            Object value = getCellValue(cell);
-            data.put(header, value);
+    /**
+     * ⭐ 실제 청크 처리 시간 합산 (upload_sessions.chunk_plan, Coordinator 추정치와 비교용)
+     */
+    private void recordChunkTiming(ProcessingMessage message, long chunkMillis, Context context) {
+        try {
+            MongoDBConfig.getDatabase().getCollection("upload_sessions").updateOne(
+                    Filters.eq("upload_id", message.getUploadId()),
+                    Updates.combine(
+                            Updates.inc("chunk_plan.actual_chunks", 1),
+                            Updates.inc("chunk_plan.actual_total_millis", chunkMillis),
+                            Updates.max("chunk_plan.actual_max_chunk_millis", chunkMillis)));
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 청크 처리 시간 기록 실패: " + e.getMessage());
         }
+    }
 
-        return data;
+    /**
+     * ⭐ raw_data_schema 저장 (업로드당 1건, 세대마다 최초 1회만 기록)
+     *
+     * compact/bucket 형식 행의 컬럼명과 컬럼 타입 집계를 보관한다.
+     * 이전 세대 문서는 새 헤더로 덮어쓰고 컬럼 타입 집계를 비우며, 더 새 세대 문서는 건드리지 않는다.
+     */
+    private void saveSchema(ProcessingMessage message, List<String> headers) {
+        MongoCollection<Document> schemas = MongoDBConfig.getDatabase().getCollection("raw_data_schema");
+        int generation = message.getGeneration();
+
+        UpdateResult replaced = schemas.updateOne(
+                Filters.and(
+                        Filters.eq("_id", message.getUploadId()),
+                        Filters.or(Filters.lt("generation", generation), Filters.exists("generation", false))),
+                Updates.combine(
+                        Updates.set("project_id", message.getProjectId()),
+                        Updates.set("session_id", message.getSessionId()),
+                        Updates.set("upload_id", message.getUploadId()),
+                        Updates.set("headers", headers),
+                        Updates.set("generation", generation),
+                        Updates.set("created_at", new Date()),
+                        Updates.unset("column_types")));
+        if (replaced.getMatchedCount() > 0) {
+            return;
+        }
+
+        schemas.updateOne(
+                Filters.eq("_id", message.getUploadId()),
+                Updates.combine(
+                        Updates.setOnInsert("project_id", message.getProjectId()),
+                        Updates.setOnInsert("session_id", message.getSessionId()),
+                        Updates.setOnInsert("upload_id", message.getUploadId()),
+                        Updates.setOnInsert("headers", headers),
+                        Updates.setOnInsert("generation", generation),
+                        Updates.setOnInsert("created_at", new Date())),
+                new UpdateOptions().upsert(true));
     }
 
     /**
-     * Streaming Reader용 헤더 추출
+     * ⭐ 컬럼 타입 집계 합산 + UploadedFileInfo.column_types 갱신
+     *
+     * 청크마다 합산 결과로 다시 추론하므로 마지막 청크가 끝나면 전체 행 기준 타입이 남는다.
+     * 스키마 문서가 다른 세대로 바뀌었으면(이전 버전 청크) 합산하지 않는다.
+     * 실패해도 적재 결과에는 영향이 없으므로 경고만 기록한다.
      */
-    private List<String> extractHeaders(Row headerRow) {
-        List<String> headers = new ArrayList<>();
+    private void recordColumnTypes(ProcessingMessage message, List<String> headers,
+                                   ColumnTypeStats typeStats, Context context) {
+        try {
+            MongoDatabase database = MongoDBConfig.getDatabase();
+            Document increment = typeStats.toIncrement();
+            if (increment == null) {
+                return;
+            }
+
+            Document schema = database.getCollection("raw_data_schema").findOneAndUpdate(
+                    Filters.and(
+                            Filters.eq("_id", message.getUploadId()),
+                            Filters.eq("generation", message.getGeneration())),
+                    increment,
+                    new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            if (schema == null) {
+                context.getLogger().log("스키마 세대 불일치 - 컬럼 타입 기록 생략: generation=" +
+                        message.getGeneration());
+                return;
+            }
+
+            List<Document> columnTypes = ColumnTypeStats.infer(headers,
+                    schema.get("column_types", Document.class));
+
+            database.getCollection("file_sessions").updateOne(
+                    Filters.and(
+                            Filters.eq("session_id", message.getSessionId()),
+                            Filters.eq("uploaded_files.s3_key", message.getS3Key())),
+                    Updates.set("uploaded_files.$.column_types", columnTypes));
+
+            context.getLogger().log("컬럼 타입: " + columnTypes);
+
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 컬럼 타입 기록 실패: " + e.getMessage());
+        }
+    }
 
-        for (Cell cell : headerRow) {
-            String header = getCellValueAsString(cell);
-            headers.add(header != null ? header : "Column_" + cell.getColumnIndex());
+    /**
+     * raw_data Document 생성
+     */
+    private Document buildDocument(ProcessingMessage message, int rowNumber, List<String> headers,
+                                   SheetRowReader reader) {
+        Document document = new Document()
+                // ⭐ 같은 세대 재처리 시 중복 키로 걸러짐 ({uploadId}:{generation}:{rowNumber})
+                .append("_id", IngestGeneration.rowIdPrefix(message.getUploadId(), message.getGeneration()) + rowNumber)
+                .append("project_id", message.getProjectId())
+                .append("session_id", message.getSessionId())
+                .append("upload_id", message.getUploadId())
+                .append("row_number", rowNumber);
+
+        if (COMPACT_FORMAT) {
+            // 컬럼명/시간 문자열 없이 값 배열만
+            return document
+                    .append("values", toRowValues(headers.size(), reader))
+                    .append("is_hidden", false);
         }
 
-        return headers;
+        return document
+                .append("data", toRowData(headers, reader))
+                .append("is_hidden", false)
+                .append("created_at", LocalDateTime.now().format(dateTimeFormatter))
+                .append("updated_at", LocalDateTime.now().format(dateTimeFormatter));
     }
 
+    /**
+     * raw_data_bucket Document 생성 (start_row 부터 연속된 행의 값 배열)
+     *
+     * Worker 의 행 번호는 시트에 있는 데이터 행만 세므로 row_offset(앞선 행 수) = start_row - 1
+     */
+    private Document buildBucket(ProcessingMessage message, int startRow, List<List<Object>> rows) {
+        return new Document()
+                .append("_id", IngestGeneration.rowIdPrefix(message.getUploadId(), message.getGeneration()) + startRow)
+                .append("project_id", message.getProjectId())
+                .append("session_id", message.getSessionId())
+                .append("upload_id", message.getUploadId())
+                .append("start_row", startRow)
+                .append("row_offset", startRow - 1)
+                .append("row_count", rows.size())
+                .append("rows", rows);
+    }
 
     /**
-     * 행 데이터 추출
+     * 행 데이터 추출 (리더의 행 버퍼 → Document)
      */
-    private Map<String, Object> extractRowData(List<String> headers, Row row) {
-        Map<String, Object> data = new LinkedHashMap<>();
+    private Document toRowData(List<String> headers, SheetRowReader reader) {
+        Document data = new Document();
 
         for (int i = 0; i < headers.size(); i++) {
-            Cell cell = row.getCell(i);
-            String header = headers.get(i);
-            Object value = getCellValue(cell);
-            data.put(header, value);
+            data.append(headers.get(i), reader.get(i));
         }
 
         return data;
     }
 
     /**
-     * 셀 값 추출 (타입별 처리)
+     * 행 값 배열 추출 (compact 형식, 끝의 빈 셀은 생략)
      */
-    private Object getCellValue(Cell cell) {
-        if (cell == null) {
-            return null;
+    private List<Object> toRowValues(int columnCount, SheetRowReader reader) {
+        int size = Math.min(columnCount, reader.getCellCount());
+        List<Object> values = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            values.add(reader.get(i));
         }
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
+        return values;
+    }
 
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    //return cell.getLocalDateTimeCellValue().format(dateTimeFormatter);
+    /**
+     * 헤더 추출 (빈 셀은 Column_{index})
+     */
+    private List<String> extractHeaders(SheetRowReader reader) {
+        List<String> headers = new ArrayList<>();
 
-                    // [수정 후] 호환성 코드
-                    return cell.getDateCellValue().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault())
-                            .toLocalDateTime()
-                            .format(dateTimeFormatter);
-                } else {
-                    return cell.getNumericCellValue();
-                }
+        for (int i = 0; i < reader.getCellCount(); i++) {
+            Object value = reader.get(i);
+            headers.add(value != null ? value.toString() : "Column_" + i);
+        }
 
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
+        return headers;
+    }
 
-            case FORMULA:
-                return cell.getCellFormula();
+    /**
+     * ⭐ 청크 커밋 기록 (모든 청크가 커밋되면 한 번만 COMPLETED + 완료 이벤트)
+     */
+    private void completeChunk(ProcessingMessage message, int chunkRows, Context context) {
+        try {
+            ChunkCompletionTracker.Result result = CHUNK_TRACKER.complete(message.getUploadId(),
+                    message.getGeneration(), message.getChunkNumber(), message.getTotalChunks(), chunkRows);
+
+            switch (result) {
+                case STALE -> {
+                    context.getLogger().log("이전 버전 청크 - 집계 생략: generation=" +
+                            message.getGeneration() + ", chunk=" + message.getChunkNumber());
+                    deleteStaleRows(message, context);
+                }
+                case DUPLICATE -> context.getLogger().log("이미 집계된 청크 (재전달): chunk=" +
+                        message.getChunkNumber());
+                case COMPLETED -> {
+                    context.getLogger().log("파싱 완료! (마지막 청크: " +
+                            message.getChunkNumber() + "/" + message.getTotalChunks() + ")");
+                    deletePreviousGenerations(message, context);
+                    deleteSidecar(message, context);
+                }
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            // Redis 업데이트 실패 시 경고만 기록 (처리는 계속)
+            context.getLogger().log("WARNING: 청크 완료 기록 실패: " + e.getMessage());
+        }
+    }
 
-            case BLANK:
-                return null;
+    /**
+     * 청크가 이미 집계됐는지 (Redis 오류면 false → 처리 진행, 중복 행은 _id 로 걸러짐)
+     */
+    private boolean isChunkCommitted(ProcessingMessage message, Context context) {
+        try {
+            return CHUNK_TRACKER.isCompleted(message.getUploadId(), message.getGeneration(),
+                    message.getChunkNumber());
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 청크 완료 여부 조회 실패: " + e.getMessage());
+            return false;
+        }
+    }
 
-            default:
-                return cell.toString();
+    /**
+     * 더 새 세대가 시작됐는지 (Redis 오류면 false → 처리 진행, 집계는 Lua 에서 다시 확인)
+     */
+    private boolean isSuperseded(ProcessingMessage message, Context context) {
+        try {
+            return CHUNK_TRACKER.isSuperseded(message.getUploadId(), message.getGeneration());
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 적재 세대 조회 실패: " + e.getMessage());
+            return false;
         }
     }
 
     /**
-     * 셀 값을 문자열로 추출
+     * ⭐ 이전 버전 행 삭제 (새 세대가 모두 집계된 뒤, 새 세대 시작 후 늦게 끝난 이전 버전 청크의 행까지)
+     *
+     * 실패해도 다음 덮어쓰기/세션 정리 때 다시 지워지므로 경고만 기록한다.
      */
-    private String getCellValueAsString(Cell cell) {
-        Object value = getCellValue(cell);
-        return value != null ? value.toString() : null;
+    private void deletePreviousGenerations(ProcessingMessage message, Context context) {
+        try {
+            long deleted = IngestGeneration.deleteOtherGenerations(MongoDBConfig.getDatabase(),
+                    message.getUploadId(), message.getGeneration());
+            if (deleted > 0) {
+                context.getLogger().log("이전 버전 행 삭제: " + deleted + "건");
+            }
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 이전 버전 행 삭제 실패: " + e.getMessage());
+        }
     }
 
     /**
-     * Redis 진행률 업데이트
+     * 이전 버전 청크가 삽입한 행 삭제 (새 세대가 이미 시작돼 집계되지 않는 행)
      */
-    private void updateProgress(String uploadId, int processedRows, int totalRows, Context context) {
-        try (Jedis jedis = RedisConfig.getJedis()) {
-            String key = "upload:status:" + uploadId;
+    private void deleteStaleRows(ProcessingMessage message, Context context) {
+        try {
+            long deleted = IngestGeneration.deleteGeneration(MongoDBConfig.getDatabase(),
+                    message.getUploadId(), message.getGeneration());
+            context.getLogger().log("이전 버전 청크 행 삭제: " + deleted + "건");
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 이전 버전 청크 행 삭제 실패: " + e.getMessage());
+        }
+    }
 
-            // 원자적 증가
-            long currentProcessed = jedis.hincrBy(key, "processedRows", processedRows);
+    /**
+     * ⭐ 공유 문자열 사이드카 삭제 (모든 청크가 집계된 뒤에는 더 읽을 Worker 가 없음)
+     *
+     * 삭제에 실패한 사이드카는 남으므로 sidecars/ 접두어에는 S3 수명 주기 만료 규칙도 함께 둔다.
+     */
+    private void deleteSidecar(ProcessingMessage message, Context context) {
+        if (message.getSstKey() == null) {
+            return;
+        }
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(message.getS3Bucket())
+                    .key(message.getSstKey())
+                    .build());
+            context.getLogger().log("공유 문자열 사이드카 삭제: " + message.getSstKey());
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 공유 문자열 사이드카 삭제 실패: " + e.getMessage());
+        }
+    }
 
-            // 진행률 계산
-            int progress = (int) ((currentProcessed * 100.0) / totalRows);
-            jedis.hset(key, "progress", String.valueOf(progress));
+    /**
+     * 청크 커밋 워터마크 조회 (없거나 Redis 오류면 -1 → 범위 처음부터)
+     */
+    private int loadCommittedEndRow(ProcessingMessage message, Context context) {
+        try {
+            Integer committed = CHUNK_TRACKER.committedEndRow(message.getUploadId(), message.getGeneration(),
+                    message.getChunkNumber());
+            return committed != null ? committed : -1;
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 커밋 지점 조회 실패 (범위 처음부터 재처리): " + e.getMessage());
+            return -1;
+        }
+    }
 
-            context.getLogger().log("진행률 업데이트: " + progress + "% (" + currentProcessed + "/" + totalRows + ")");
+    /**
+     * 청크 커밋 워터마크 기록 (실패해도 재처리 시 중복 키로 걸러지므로 경고만)
+     */
+    private void saveCommittedEndRow(ProcessingMessage message, int committedEndRow, Context context) {
+        try {
+            CHUNK_TRACKER.saveCommittedEndRow(message.getUploadId(), message.getGeneration(),
+                    message.getChunkNumber(), committedEndRow);
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: 커밋 지점 기록 실패: " + e.getMessage());
+        }
+    }
 
-            // 완료 확인
-            if (currentProcessed >= totalRows) {
-                jedis.hset(key, "status", "COMPLETED");
-                context.getLogger().log("파싱 완료!");
-            }
+    /**
+     * Redis 진행률 업데이트 (업로드별로 모아서 PROGRESS_FLUSH_MILLIS 마다 한 번 반영)
+     */
+    private void updateProgress(ProcessingMessage message, int processedRows, Context context) {
+        try {
+            logProgress(PROGRESS_REPORTER.add(message.getUploadId(), message.getGeneration(), processedRows,
+                    message.getTotalRows()), message.getTotalRows(), context);
         } catch (Exception e) {
             // Redis 업데이트 실패 시 경고만 기록 (처리는 계속)
             context.getLogger().log("WARNING: Redis 진행률 업데이트 실패: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 모아 둔 진행률 즉시 반영 (청크 종료 시)
+     */
+    private void flushProgress(ProcessingMessage message, Context context) {
+        try {
+            logProgress(PROGRESS_REPORTER.flush(message.getUploadId(), message.getGeneration(),
+                    message.getTotalRows()), message.getTotalRows(), context);
+        } catch (Exception e) {
+            context.getLogger().log("WARNING: Redis 진행률 업데이트 실패: " + e.getMessage());
+        }
+    }
+
+    private void logProgress(long[] result, int totalRows, Context context) {
+        if (result != null) {
+            context.getLogger().log("진행률 업데이트: " + result[1] + "% (" + result[0] + "/" + totalRows + ")");
+        }
+    }
+}
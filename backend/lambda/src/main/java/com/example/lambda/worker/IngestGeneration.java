@@ -0,0 +1,119 @@
+package com.example.lambda.worker;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import org.bson.conversions.Bson;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 적재 세대 (같은 S3 키를 덮어쓸 때마다 Coordinator 가 1씩 올림)
+ *
+ * upload:status:{uploadId} 해시는 업로드 ID 로만 조회되므로 generation 필드로 버전을 구분한다.
+ * 더 새 세대의 청크가 오면 이전 세대의 집계 필드를 지우고 새로 시작하며,
+ * 이전 세대의 청크(재전달, 늦게 끝난 Worker)는 상태를 건드리지 못한다.
+ * 청크 비트맵/커밋 워터마크/행 _id/공유 문자열 사이드카는 키 자체에 세대를 붙인다.
+ */
+public final class IngestGeneration {
+
+    // Worker 가 적재하는 행 컬렉션 (RAW_DATA_FORMAT 이 바뀌었어도 이전 버전 행은 양쪽에서 정리)
+    private static final List<String> ROW_COLLECTIONS = List.of("raw_data", "raw_data_bucket");
+
+    /**
+     * 상태 해시 세대 확인 Lua 함수 (각 스크립트 앞에 붙여 사용)
+     *
+     * claim(statusKey, generation): 더 새 세대가 이미 있으면 false,
+     * 더 오래된 세대가 있으면 진행 필드를 초기화하고 세대를 기록한 뒤 true
+     */
+    static final String CLAIM_FUNCTION =
+            "local function claim(status, generation)\n" +
+            "    local current = tonumber(redis.call('HGET', status, 'generation') or '0')\n" +
+            "    if current > generation then return false end\n" +
+            "    if current < generation then\n" +
+            "        redis.call('HDEL', status, 'committedRows', 'completedChunks', 'totalChunks')\n" +
+            "        redis.call('HSET', status, 'generation', generation, 'status', 'PROCESSING',\n" +
+            "            'progress', '0', 'processedRows', '0')\n" +
+            "    end\n" +
+            "    return true\n" +
+            "end\n";
+
+    private IngestGeneration() {
+    }
+
+    /**
+     * 청크 비트맵 키 (upload:chunks:{uploadId}:{generation})
+     */
+    static String chunksKey(String uploadId, int generation) {
+        return "upload:chunks:" + uploadId + ":" + generation;
+    }
+
+    /**
+     * 청크 커밋 워터마크 키 (upload:chunk:commit:{uploadId}:{generation})
+     */
+    static String commitKey(String uploadId, int generation) {
+        return "upload:chunk:commit:" + uploadId + ":" + generation;
+    }
+
+    /**
+     * 업로드 상태 해시 키 (백엔드 UploadService 와 같은 키)
+     */
+    static String statusKey(String uploadId) {
+        return "upload:status:" + uploadId;
+    }
+
+    /**
+     * raw_data / raw_data_bucket 문서 _id 접두어 ({uploadId}:{generation}:)
+     *
+     * 뒤에 행 번호(버킷은 시작 행)를 붙이며, 같은 세대 안에서만 재처리 시 중복 키로 걸러진다.
+     */
+    static String rowIdPrefix(String uploadId, int generation) {
+        return uploadId + ":" + generation + ":";
+    }
+
+    /**
+     * 공유 문자열 사이드카 S3 키 (sidecars/{uploadId}/{generation}/sharedStrings.sst)
+     *
+     * 세대마다 따로 두어 새 버전 사이드카를 이전 버전 청크의 완료 처리가 지우지 않도록 한다.
+     */
+    public static String sidecarKey(String sidecarPrefix, String uploadId, int generation) {
+        return sidecarPrefix + uploadId + "/" + generation + "/sharedStrings.sst";
+    }
+
+    /**
+     * 다른 세대가 적재한 행 삭제 (새 세대 시작/완료 시)
+     *
+     * @return 삭제한 문서 수
+     */
+    public static long deleteOtherGenerations(MongoDatabase database, String uploadId, int generation) {
+        return deleteRows(database, Filters.and(
+                Filters.eq("upload_id", uploadId),
+                Filters.not(Filters.regex("_id", ownRows(uploadId, generation)))));
+    }
+
+    /**
+     * 이 세대가 적재한 행 삭제 (새 세대가 이미 시작된 뒤 끝난 이전 버전 청크)
+     *
+     * @return 삭제한 문서 수
+     */
+    static long deleteGeneration(MongoDatabase database, String uploadId, int generation) {
+        return deleteRows(database, Filters.and(
+                Filters.eq("upload_id", uploadId),
+                Filters.regex("_id", ownRows(uploadId, generation))));
+    }
+
+    /**
+     * _id 접두어 정규식 (\Q..\E 대신 문자별 이스케이프 → _id 인덱스 범위 검색 가능)
+     */
+    private static Pattern ownRows(String uploadId, int generation) {
+        return Pattern.compile("^" + rowIdPrefix(uploadId, generation).replaceAll("[^A-Za-z0-9_:-]", "\\\\$0"));
+    }
+
+    private static long deleteRows(MongoDatabase database, Bson filter) {
+        long deleted = 0;
+        for (String collection : ROW_COLLECTIONS) {
+            deleted += database.getCollection(collection).deleteMany(filter).getDeletedCount();
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.lambda.worker;
+
+import com.example.lambda.config.RedisConfig;
+import redis.clients.jedis.Jedis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Redis 진행률 기록 (upload:status:{uploadId})
+ *
+ * 초기화/증가는 각각 Lua 스크립트 한 번(왕복 1회)으로 처리한다.
+ * 배치마다 쓰지 않고 컨테이너 안에서 업로드별로 행 수를 모았다가 flushIntervalMillis 마다 한 번만 반영하므로,
+ * 청크 Worker 가 많아도 같은 해시 키에 몰리는 쓰기가 시간당 상한을 가진다.
+ * 두 스크립트 모두 세대를 먼저 확인하므로 이전 버전 청크는 새 버전의 진행률을 건드리지 못한다.
+ * 청크 종료 시 누적분을 모두 반영하면 업로드별 항목을 지워, 웜 컨테이너가 업로드를 계속 받아도 커지지 않는다.
+ */
+class ProgressReporter {
+
+    private static final int TTL_SECONDS = 86400; // 24시간
+
+    /**
+     * KEYS[1] = upload:status:{uploadId}, ARGV = totalRows, ttl, generation
+     * (이전 세대이거나 이미 완료된 업로드는 건드리지 않고, 먼저 끝난 청크의 진행률은 유지)
+     */
+    private static final String INIT_SCRIPT = IngestGeneration.CLAIM_FUNCTION +
+            "if not claim(KEYS[1], tonumber(ARGV[3])) then return -1 end\n" +
+            "if redis.call('HGET', KEYS[1], 'status') == 'COMPLETED' then return 0 end\n" +
+            "redis.call('HSET', KEYS[1], 'status', 'PROCESSING', 'totalRows', ARGV[1])\n" +
+            "redis.call('HSETNX', KEYS[1], 'processedRows', '0')\n" +
+            "redis.call('HSETNX', KEYS[1], 'progress', '0')\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+            "return 1";
+
+    /**
+     * KEYS[1] = upload:status:{uploadId}, ARGV = rows, totalRows, ttl, generation
+     * (완료 판정은 ChunkCompletionTracker 만 하므로 진행률은 99% 까지)
+     *
+     * @return {processedRows, progress}, 이전 세대이거나 이미 완료된 업로드면 nil
+     */
+    private static final String ADD_SCRIPT = IngestGeneration.CLAIM_FUNCTION +
+            "if not claim(KEYS[1], tonumber(ARGV[4])) then return false end\n" +
+            "if redis.call('HGET', KEYS[1], 'status') == 'COMPLETED' then return false end\n" +
+            "redis.call('HSETNX', KEYS[1], 'status', 'PROCESSING')\n" +
+            "redis.call('HSETNX', KEYS[1], 'totalRows', ARGV[2])\n" +
+            "local processed = redis.call('HINCRBY', KEYS[1], 'processedRows', ARGV[1])\n" +
+            "local total = math.max(1, tonumber(redis.call('HGET', KEYS[1], 'totalRows')))\n" +
+            "local progress = math.min(99, math.floor(processed * 100 / total))\n" +
+            "redis.call('HSET', KEYS[1], 'progress', progress)\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3])\n" +
+            "return {processed, progress}";
+
+    /**
+     * 업로드(세대)별 아직 반영하지 않은 행 수
+     */
+    private static final class Pending {
+        private long rows;
+        private long lastFlushMillis;
+        private boolean removed; // 맵에서 빠짐 (새 항목으로 다시 시작)
+    }
+
+    private final long flushIntervalMillis;
+    private final Supplier<Jedis> jedisSupplier;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    ProgressReporter(long flushIntervalMillis) {
+        this(flushIntervalMillis, RedisConfig::getJedis);
+    }
+
+    ProgressReporter(long flushIntervalMillis, Supplier<Jedis> jedisSupplier) {
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.jedisSupplier = jedisSupplier;
+    }
+
+    /**
+     * 진행률 초기화 (첫 청크)
+     *
+     * @return 이전 세대이거나 이미 완료된 업로드면 false
+     */
+    boolean initialize(String uploadId, int generation, int totalRows) {
+        try (Jedis jedis = jedisSupplier.get()) {
+            Object result = jedis.eval(INIT_SCRIPT, List.of(IngestGeneration.statusKey(uploadId)),
+                    List.of(String.valueOf(totalRows), String.valueOf(TTL_SECONDS), String.valueOf(generation)));
+            return (Long) result == 1L;
+        }
+    }
+
+    /**
+     * 삽입 행 수 누적 (마지막 반영 후 flushIntervalMillis 가 지났으면 반영)
+     *
+     * @return 반영했으면 {processedRows, progress}, 누적만 했으면 null
+     */
+    long[] add(String uploadId, int generation, int rows, int totalRows) {
+        return flush(uploadId, generation, rows, totalRows, false);
+    }
+
+    /**
+     * 누적분 즉시 반영 (청크 종료 시)
+     */
+    long[] flush(String uploadId, int generation, int totalRows) {
+        return flush(uploadId, generation, 0, totalRows, true);
+    }
+
+    private long[] flush(String uploadId, int generation, int rows, int totalRows, boolean force) {
+        String key = uploadId + ":" + generation;
+        Pending entry;
+        long flushRows;
+        while (true) {
+            entry = pending.computeIfAbsent(key, id -> new Pending());
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue; // 다른 청크가 방금 지운 항목
+                }
+                entry.rows += rows;
+                long now = System.currentTimeMillis();
+                if (entry.rows == 0) {
+                    if (force) {
+                        release(key, entry);
+                    }
+                    return null;
+                }
+                if (!force && now - entry.lastFlushMillis < flushIntervalMillis) {
+                    return null;
+                }
+                flushRows = entry.rows;
+                entry.rows = 0;
+                entry.lastFlushMillis = now;
+                break;
+            }
+        }
+
+        try (Jedis jedis = jedisSupplier.get()) {
+            Object result = jedis.eval(ADD_SCRIPT, List.of(IngestGeneration.statusKey(uploadId)),
+                    List.of(String.valueOf(flushRows), String.valueOf(totalRows), String.valueOf(TTL_SECONDS),
+                            String.valueOf(generation)));
+            if (force) {
+                synchronized (entry) {
+                    release(key, entry);
+                }
+            }
+            if (result == null) {
+                return null;
+            }
+            List<?> values = (List<?>) result;
+            return new long[]{(Long) values.get(0), (Long) values.get(1)};
+        } catch (RuntimeException e) {
+            // 반영 실패분은 다음 반영에 포함
+            synchronized (entry) {
+                entry.rows += flushRows;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 반영할 행이 남지 않은 항목 제거 (entry 잠금 안에서 호출)
+     */
+    private void release(String key, Pending entry) {
+        if (entry.rows == 0) {
+            entry.removed = true;
+            pending.remove(key, entry);
+        }
+    }
+
+    /**
+     * 아직 항목이 남아 있는 업로드(세대) 수
+     */
+    int pendingCount() {
+        return pending.size();
+    }
+}
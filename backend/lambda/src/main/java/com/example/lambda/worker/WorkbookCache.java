@@ -0,0 +1,227 @@
+package com.example.lambda.worker;
+
+import com.example.lambda.excel.DateStyles;
+import com.example.lambda.excel.SharedStringsSidecar;
+import com.example.lambda.excel.XlsxWorkbook;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.ZipFile;
+
+/**
+ * 컨테이너 단위 통합 문서 캐시 (/tmp)
+ *
+ * 같은 컨테이너가 같은 업로드의 청크를 연달아 받는 경우가 많아, 내려받은 xlsx 와 한 번 파싱한 메타데이터
+ * (공유 문자열, 날짜 스타일, 통합 문서 정보, 헤더)를 bucket/key/ETag 기준으로 보관한다.
+ * 전체 크기가 예산을 넘으면 사용 중이 아닌 항목부터 LRU 순으로 제거한다.
+ */
+class WorkbookCache {
+
+    @FunctionalInterface
+    interface Downloader {
+        void download(Path target) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    /**
+     * 캐시 항목 (acquire ~ release 사이에서만 사용)
+     */
+    static final class Entry {
+        private final String cacheKey;
+        private final String eTag;
+        private final Path file;
+        private final long size;
+        private final ZipFile zipFile;
+
+        private SharedStringsSidecar sharedStrings;
+        private DateStyles dateStyles;
+        private XlsxWorkbook workbook;
+        private List<String> headers;
+
+        private int refs;
+        private boolean evicted;
+
+        private Entry(String cacheKey, String eTag, Path file) throws IOException {
+            this.cacheKey = cacheKey;
+            this.eTag = eTag;
+            this.file = file;
+            this.size = Files.size(file);
+            this.zipFile = new ZipFile(file.toFile());
+        }
+
+        ZipFile getZipFile() {
+            return zipFile;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        synchronized SharedStringsSidecar sharedStrings(Loader<SharedStringsSidecar> loader) throws IOException {
+            if (sharedStrings == null) {
+                sharedStrings = loader.load();
+            }
+            return sharedStrings;
+        }
+
+        synchronized DateStyles dateStyles(Loader<DateStyles> loader) throws IOException {
+            if (dateStyles == null) {
+                dateStyles = loader.load();
+            }
+            return dateStyles;
+        }
+
+        synchronized XlsxWorkbook workbook(Loader<XlsxWorkbook> loader) throws IOException {
+            if (workbook == null) {
+                workbook = loader.load();
+            }
+            return workbook;
+        }
+
+        synchronized List<String> headers(Loader<List<String>> loader) throws IOException {
+            if (headers == null) {
+                headers = loader.load();
+            }
+            return headers;
+        }
+
+        private void close() {
+            try {
+                zipFile.close();
+            } catch (IOException e) {
+                // 무시
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // 무시
+            }
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // access-order LinkedHashMap = LRU 순서
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    WorkbookCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 캐시 항목 획득 (없거나 ETag 가 다르면 내려받음)
+     *
+     * @return 항목 (사용 후 반드시 release)
+     */
+    Entry acquire(String bucket, String key, String eTag, Downloader downloader) throws IOException {
+        String cacheKey = bucket + "/" + key;
+
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && Objects.equals(entry.eTag, eTag)) {
+                entry.refs++;
+                return entry;
+            }
+            if (entry != null) {
+                // 같은 키에 새 객체가 올라온 경우
+                remove(entry);
+            }
+        }
+
+        // 다운로드는 잠금 밖에서 (다른 키 처리는 막지 않음)
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "excel-", ".xlsx");
+        Entry created;
+        try {
+            downloader.download(file);
+            created = new Entry(cacheKey, eTag, file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        synchronized (this) {
+            Entry existing = entries.get(cacheKey);
+            if (existing != null && Objects.equals(existing.eTag, eTag)) {
+                // 동시에 같은 파일을 받은 경우 먼저 들어온 쪽 사용
+                created.close();
+                existing.refs++;
+                return existing;
+            }
+            if (existing != null) {
+                remove(existing);
+            }
+
+            created.refs = 1;
+            entries.put(cacheKey, created);
+            totalBytes += created.size;
+            evictIfNeeded();
+            return created;
+        }
+    }
+
+    /**
+     * 사용 종료
+     */
+    synchronized void release(Entry entry) {
+        entry.refs--;
+        if (entry.evicted && entry.refs == 0) {
+            entry.close();
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * 예산 초과분을 오래된 항목부터 제거 (사용 중인 항목은 건너뜀)
+     */
+    private void evictIfNeeded() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.refs > 0) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= entry.size;
+            entry.evicted = true;
+            entry.close();
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.cacheKey);
+        totalBytes -= entry.size;
+        entry.evicted = true;
+        if (entry.refs == 0) {
+            entry.close();
+        }
+    }
+
+    /**
+     * 기본 예산: /tmp 전체 용량의 절반
+     */
+    static long defaultMaxBytes(Path directory) {
+        try {
+            Path existing = directory;
+            while (existing != null && !Files.exists(existing)) {
+                existing = existing.getParent();
+            }
+            return Files.getFileStore(existing != null ? existing : directory).getTotalSpace() / 2;
+        } catch (IOException e) {
+            return 256L * 1024 * 1024;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.lambda.worker;
+
+import com.example.lambda.config.RedisConfig;
+import redis.clients.jedis.Jedis;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * DocumentDB 쓰기 유입 제어 (Redis 토큰 버킷, 모든 Worker 공유)
+ *
+ * 배치를 insertMany 하기 전에 행 수만큼 토큰을 받고, 삽입 후 1000행당 지연 시간을 보고한다.
+ * 지연이 목표를 넘으면 허용 속도를 곱으로 줄이고, 목표 안이면 더해서 늘린다 (AIMD).
+ * 조정은 클러스터 전체에서 adjustIntervalMillis 에 한 번만 일어나므로 Worker 수만큼 급감하지 않는다.
+ * Redis 를 쓸 수 없으면 잠시 제한 없이 통과시키고 onBypass 로 알린다 (호출한 Lambda 의 로거).
+ */
+class WriteAdmissionLimiter {
+
+    private static final long BYPASS_MILLIS = 30_000;
+
+    /**
+     * KEYS[1] = 버킷 해시, ARGV = rows, initialRate, burstSeconds
+     *
+     * @return 0 이면 획득, 아니면 다시 시도할 때까지 대기할 ms
+     */
+    private static final String ACQUIRE_SCRIPT =
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts', 'rate')\n" +
+            "local rate = tonumber(state[3]) or tonumber(ARGV[2])\n" +
+            "local capacity = rate * tonumber(ARGV[3])\n" +
+            "local tokens = tonumber(state[1]) or capacity\n" +
+            "local ts = tonumber(state[2]) or now\n" +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)\n" +
+            "local rows = tonumber(ARGV[1])\n" +
+            "local need = math.min(rows, capacity)\n" +
+            "local wait = 0\n" +
+            "if tokens < need then\n" +
+            "    wait = math.ceil((need - tokens) * 1000 / rate)\n" +
+            "else\n" +
+            "    tokens = tokens - rows\n" + // 버킷보다 큰 배치는 빚으로 (다음 요청이 대기)
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'tokens', tokens, 'ts', now, 'rate', rate)\n" +
+            "redis.call('EXPIRE', KEYS[1], 3600)\n" +
+            "return wait";
+
+    /**
+     * KEYS[1] = 버킷 해시, ARGV = msPer1k, targetMsPer1k, minRate, maxRate, increase, decreaseFactor,
+     * adjustIntervalMillis, initialRate
+     *
+     * @return 조정 후 허용 속도 (행/초)
+     */
+    private static final String ADJUST_SCRIPT =
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'rate', 'adjustedAt')\n" +
+            "local rate = tonumber(state[1]) or tonumber(ARGV[8])\n" +
+            "if now - (tonumber(state[2]) or 0) < tonumber(ARGV[7]) then return math.floor(rate) end\n" +
+            "if tonumber(ARGV[1]) > tonumber(ARGV[2]) then\n" +
+            "    rate = math.max(tonumber(ARGV[3]), rate * tonumber(ARGV[6]))\n" +
+            "else\n" +
+            "    rate = math.min(tonumber(ARGV[4]), rate + tonumber(ARGV[5]))\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'rate', rate, 'adjustedAt', now)\n" +
+            "redis.call('EXPIRE', KEYS[1], 3600)\n" +
+            "return math.floor(rate)";
+
+    private final String key;
+    private final double initialRate;
+    private final double minRate;
+    private final double maxRate;
+    private final double increase;
+    private final double decreaseFactor;
+    private final double burstSeconds;
+    private final double targetMillisPer1k;
+    private final long adjustIntervalMillis;
+    private final Supplier<Jedis> jedisSupplier;
+
+    private volatile long bypassUntil;
+
+    WriteAdmissionLimiter(String cluster, double initialRate, double minRate, double maxRate, double increase,
+                          double decreaseFactor, double burstSeconds, double targetMillisPer1k,
+                          long adjustIntervalMillis) {
+        this(cluster, initialRate, minRate, maxRate, increase, decreaseFactor, burstSeconds, targetMillisPer1k,
+                adjustIntervalMillis, RedisConfig::getJedis);
+    }
+
+    WriteAdmissionLimiter(String cluster, double initialRate, double minRate, double maxRate, double increase,
+                          double decreaseFactor, double burstSeconds, double targetMillisPer1k,
+                          long adjustIntervalMillis, Supplier<Jedis> jedisSupplier) {
+        this.key = "docdb:write-limit:" + cluster;
+        this.initialRate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increase = increase;
+        this.decreaseFactor = decreaseFactor;
+        this.burstSeconds = burstSeconds;
+        this.targetMillisPer1k = targetMillisPer1k;
+        this.adjustIntervalMillis = adjustIntervalMillis;
+        this.jedisSupplier = jedisSupplier;
+    }
+
+    /**
+     * 환경 변수 설정으로 생성 (WRITE_LIMIT_ENABLED=false 면 null)
+     *
+     * WRITE_LIMIT_CLUSTER (버킷 키, 기본 default), WRITE_LIMIT_ROWS_PER_SEC (초기 속도, 기본 50000),
+     * WRITE_LIMIT_MIN_ROWS_PER_SEC (기본 5000), WRITE_LIMIT_MAX_ROWS_PER_SEC (기본 200000),
+     * WRITE_LIMIT_INCREASE (조정당 증가, 기본 2000), WRITE_LIMIT_DECREASE_FACTOR (기본 0.7),
+     * WRITE_LIMIT_BURST_SECONDS (기본 2), WRITE_LIMIT_TARGET_MS_PER_1K (1000행당 목표 지연, 기본 100),
+     * WRITE_LIMIT_ADJUST_MILLIS (기본 1000)
+     */
+    static WriteAdmissionLimiter fromEnv() {
+        if ("false".equalsIgnoreCase(System.getenv("WRITE_LIMIT_ENABLED"))) {
+            return null;
+        }
+        return new WriteAdmissionLimiter(
+                System.getenv("WRITE_LIMIT_CLUSTER") != null ? System.getenv("WRITE_LIMIT_CLUSTER") : "default",
+                envDouble("WRITE_LIMIT_ROWS_PER_SEC", 50_000),
+                envDouble("WRITE_LIMIT_MIN_ROWS_PER_SEC", 5_000),
+                envDouble("WRITE_LIMIT_MAX_ROWS_PER_SEC", 200_000),
+                envDouble("WRITE_LIMIT_INCREASE", 2_000),
+                envDouble("WRITE_LIMIT_DECREASE_FACTOR", 0.7),
+                envDouble("WRITE_LIMIT_BURST_SECONDS", 2),
+                envDouble("WRITE_LIMIT_TARGET_MS_PER_1K", 100),
+                (long) envDouble("WRITE_LIMIT_ADJUST_MILLIS", 1000));
+    }
+
+    /**
+     * 행 수만큼 토큰 획득 (부족하면 대기)
+     *
+     * @param onBypass Redis 오류로 제한을 일시 중단할 때 경고 메시지
+     */
+    void acquire(int rows, Consumer<String> onBypass) throws InterruptedIOException {
+        while (System.currentTimeMillis() >= bypassUntil) {
+            long waitMillis;
+            try (Jedis jedis = jedisSupplier.get()) {
+                waitMillis = (Long) jedis.eval(ACQUIRE_SCRIPT, List.of(key),
+                        List.of(String.valueOf(rows), String.valueOf(initialRate), String.valueOf(burstSeconds)));
+            } catch (RuntimeException e) {
+                bypass(e, onBypass);
+                return;
+            }
+            if (waitMillis <= 0) {
+                return;
+            }
+
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("쓰기 토큰 대기 중 인터럽트");
+            }
+        }
+    }
+
+    /**
+     * 삽입 지연 보고 (허용 속도 조정)
+     */
+    void observe(int rows, long millis, Consumer<String> onBypass) {
+        if (rows <= 0 || System.currentTimeMillis() < bypassUntil) {
+            return;
+        }
+        double millisPer1k = millis * 1000.0 / rows;
+        try (Jedis jedis = jedisSupplier.get()) {
+            jedis.eval(ADJUST_SCRIPT, List.of(key),
+                    List.of(String.valueOf(millisPer1k), String.valueOf(targetMillisPer1k),
+                            String.valueOf(minRate), String.valueOf(maxRate), String.valueOf(increase),
+                            String.valueOf(decreaseFactor), String.valueOf(adjustIntervalMillis),
+                            String.valueOf(initialRate)));
+        } catch (RuntimeException e) {
+            bypass(e, onBypass);
+        }
+    }
+
+    private void bypass(RuntimeException e, Consumer<String> onBypass) {
+        bypassUntil = System.currentTimeMillis() + BYPASS_MILLIS;
+        onBypass.accept("쓰기 유입 제어 일시 중단 (" + BYPASS_MILLIS + "ms): " + e.getMessage());
+    }
+
+    private static double envDouble(String name, double defaultValue) {
+        return System.getenv(name) != null ? Double.parseDouble(System.getenv(name)) : defaultValue;
+    }
+}
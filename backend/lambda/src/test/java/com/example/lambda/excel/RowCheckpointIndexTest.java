@@ -0,0 +1,157 @@
+package com.example.lambda.excel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowCheckpointIndexTest {
+
+    private static final int INTERVAL = 3;
+    private static final int DATA_ROWS = 10;
+
+    @Test
+    void recordsHeaderAndEveryIntervalRow() throws IOException {
+        byte[] xml = sheetXml(DATA_ROWS);
+
+        RowCheckpointIndex index = RowCheckpointIndex.build(new ByteArrayInputStream(xml), INTERVAL);
+
+        assertNotNull(index);
+        assertEquals(DATA_ROWS, index.getDataRowCount());
+        assertRowTagAt(xml, index.getHeaderOffset(), 1);
+        for (int dataRow = 1; dataRow <= DATA_ROWS; dataRow += INTERVAL) {
+            // 데이터 행 n 은 Excel 행 n + 1
+            assertRowTagAt(xml, index.offsetOf(dataRow), dataRow + 1);
+        }
+    }
+
+    @Test
+    void checkpointRowForRoundsDownToInterval() throws IOException {
+        RowCheckpointIndex index = RowCheckpointIndex.build(new ByteArrayInputStream(sheetXml(DATA_ROWS)), INTERVAL);
+
+        assertEquals(1, index.checkpointRowFor(1));
+        assertEquals(1, index.checkpointRowFor(3));
+        assertEquals(4, index.checkpointRowFor(4));
+        assertEquals(10, index.checkpointRowFor(10));
+        assertThrows(IllegalArgumentException.class, () -> index.checkpointRowFor(11));
+        assertThrows(IllegalArgumentException.class, () -> index.offsetOf(2));
+    }
+
+    @Test
+    void countDataRowsIgnoresRowBreaks() throws IOException {
+        assertEquals(DATA_ROWS, RowCheckpointIndex.countDataRows(new ByteArrayInputStream(sheetXml(DATA_ROWS))));
+    }
+
+    @Test
+    void emptySheetHasNoIndex() throws IOException {
+        byte[] xml = "<worksheet><sheetData/></worksheet>".getBytes(StandardCharsets.UTF_8);
+
+        assertNull(RowCheckpointIndex.build(new ByteArrayInputStream(xml), INTERVAL));
+        assertEquals(0, RowCheckpointIndex.countDataRows(new ByteArrayInputStream(xml)));
+    }
+
+    @Test
+    void readerResumedAtCheckpointMatchesFullScan() throws IOException {
+        byte[] xml = sheetXml(DATA_ROWS);
+        RowCheckpointIndex index = RowCheckpointIndex.build(new ByteArrayInputStream(xml), INTERVAL);
+
+        List<List<Object>> fullScan = readAll(SheetRowReader.open(new ByteArrayInputStream(xml),
+                SharedStringsSidecar.empty(), DateStyles.none()));
+        assertEquals(DATA_ROWS + 1, fullScan.size());
+
+        for (int checkpointRow = 1; checkpointRow <= DATA_ROWS; checkpointRow += INTERVAL) {
+            List<List<Object>> resumed = readAll(SheetRowReader.openAt(new ByteArrayInputStream(xml),
+                    index.offsetOf(checkpointRow), SharedStringsSidecar.empty(), DateStyles.none()));
+
+            assertEquals(fullScan.subList(checkpointRow, fullScan.size()), resumed,
+                    "checkpoint row " + checkpointRow);
+        }
+    }
+
+    @Test
+    void readerResumedAtHeaderMatchesFullScan() throws IOException {
+        byte[] xml = sheetXml(DATA_ROWS);
+        RowCheckpointIndex index = RowCheckpointIndex.build(new ByteArrayInputStream(xml), INTERVAL);
+
+        List<List<Object>> fullScan = readAll(SheetRowReader.open(new ByteArrayInputStream(xml),
+                SharedStringsSidecar.empty(), DateStyles.none()));
+        List<List<Object>> resumed = readAll(SheetRowReader.openAt(new ByteArrayInputStream(xml),
+                index.getHeaderOffset(), SharedStringsSidecar.empty(), DateStyles.none()));
+
+        assertEquals(fullScan, resumed);
+    }
+
+    @Test
+    void offsetBeyondSheetFails() {
+        byte[] xml = sheetXml(DATA_ROWS);
+
+        assertThrows(EOFException.class, () -> SheetRowReader.openAt(new ByteArrayInputStream(xml),
+                xml.length + 1L, SharedStringsSidecar.empty(), DateStyles.none()));
+    }
+
+    /**
+     * 헤더 + 데이터 행 (인라인 문자열은 멀티바이트, 일부 행은 빈 셀, 수식은 캐시값, 뒤에 rowBreaks)
+     */
+    static byte[] sheetXml(int dataRows) {
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                .append("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">")
+                .append("<dimension ref=\"A1:D").append(dataRows + 1).append("\"/>")
+                .append("<sheetData>")
+                .append("<row r=\"1\" spans=\"1:4\">")
+                .append(inline("A1", "거래처")).append(inline("B1", "금액"))
+                .append(inline("C1", "확정")).append(inline("D1", "합계"))
+                .append("</row>");
+
+        for (int dataRow = 1; dataRow <= dataRows; dataRow++) {
+            int r = dataRow + 1;
+            xml.append("<row r=\"").append(r).append("\" spans=\"1:4\">")
+                    .append(inline("A" + r, "거래처-" + dataRow))
+                    .append("<c r=\"B").append(r).append("\"><v>").append(dataRow * 1.5).append("</v></c>");
+            if (dataRow % 4 != 0) {
+                xml.append("<c r=\"C").append(r).append("\" t=\"b\"><v>").append(dataRow % 2).append("</v></c>");
+            }
+            xml.append("<c r=\"D").append(r).append("\"><f>B").append(r).append("*2</f><v>")
+                    .append(dataRow * 3.0).append("</v></c>")
+                    .append("</row>");
+        }
+
+        xml.append("</sheetData>")
+                .append("<rowBreaks count=\"1\" manualBreakCount=\"1\"><brk id=\"5\" max=\"16383\" man=\"1\"/></rowBreaks>")
+                .append("</worksheet>");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String inline(String ref, String text) {
+        return "<c r=\"" + ref + "\" t=\"inlineStr\"><is><t>" + text + "</t></is></c>";
+    }
+
+    private static List<List<Object>> readAll(SheetRowReader reader) throws IOException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (reader) {
+            while (reader.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 0; i < reader.getCellCount(); i++) {
+                    row.add(reader.get(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRowTagAt(byte[] xml, long offset, int excelRow) {
+        String tag = new String(xml, (int) offset, Math.min(32, xml.length - (int) offset), StandardCharsets.UTF_8);
+        assertTrue(tag.startsWith("<row r=\"" + excelRow + "\""), "offset " + offset + ": " + tag);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.lambda.excel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SharedStringsSidecarTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripKeepsIndexOrderAndText() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+                "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"6\" uniqueCount=\"6\">" +
+                "<si><t>현금및현금성자산</t></si>" +
+                "<si><t/></si>" +
+                "<si><r><rPr><b/></rPr><t>매출</t></r><r><t xml:space=\"preserve\"> 원가</t></r></si>" +
+                "<si><t>東京</t><rPh sb=\"0\" eb=\"2\"><t>トウキョウ</t></rPh></si>" +
+                "<si><t>A &amp; B &lt;C&gt;</t></si>" +
+                "<si><t>💰 잔액</t></si>" +
+                "</sst>";
+
+        SharedStringsSidecar sidecar = writeAndOpen(xml, 6);
+
+        assertEquals(6, sidecar.size());
+        assertEquals("현금및현금성자산", sidecar.get(0));
+        assertEquals("", sidecar.get(1));
+        assertEquals("매출 원가", sidecar.get(2));
+        assertEquals("東京", sidecar.get(3)); // 윗주 제외
+        assertEquals("A & B <C>", sidecar.get(4));
+        assertEquals("💰 잔액", sidecar.get(5));
+    }
+
+    @Test
+    void roundTripBeyondInitialOffsetTable() throws IOException {
+        List<String> expected = new ArrayList<>();
+        StringBuilder xml = new StringBuilder("<sst>");
+        for (int i = 0; i < 5000; i++) {
+            String text = "계정-" + i;
+            expected.add(text);
+            xml.append("<si><t>").append(text).append("</t></si>");
+        }
+        xml.append("</sst>");
+
+        SharedStringsSidecar sidecar = writeAndOpen(xml.toString(), expected.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), sidecar.get(i));
+        }
+    }
+
+    @Test
+    void indexOutOfRangeFails() throws IOException {
+        SharedStringsSidecar sidecar = writeAndOpen("<sst><si><t>a</t></si></sst>", 1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> sidecar.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> sidecar.get(-1));
+        assertEquals(0, SharedStringsSidecar.empty().size());
+    }
+
+    @Test
+    void rejectsFileWithoutMagic() throws IOException {
+        Path file = Files.createTempFile(tempDir, "sst-", ".bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+        assertThrows(IOException.class, () -> SharedStringsSidecar.open(file));
+    }
+
+    private SharedStringsSidecar writeAndOpen(String xml, int expectedCount) throws IOException {
+        Path file = Files.createTempFile(tempDir, "sst-", ".bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int count = SharedStringsSidecar.write(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), out);
+            assertEquals(expectedCount, count);
+        }
+        return SharedStringsSidecar.open(file);
+    }
+}
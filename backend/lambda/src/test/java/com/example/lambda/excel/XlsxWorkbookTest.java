@@ -0,0 +1,111 @@
+package com.example.lambda.excel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxWorkbookTest {
+
+    private static final String WORKBOOK_XML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"" +
+            " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">" +
+            "<sheets>" +
+            "<sheet name=\"원장\" sheetId=\"3\" r:id=\"rId3\"/>" +
+            "<sheet name=\"요약\" sheetId=\"1\" r:id=\"rId1\"/>" +
+            "</sheets></workbook>";
+
+    private static final String RELS_XML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+            "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"" +
+            " Target=\"worksheets/sheet1.xml\"/>" +
+            "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"" +
+            " Target=\"%s\"/>" +
+            "</Relationships>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void firstSheetFollowsTabOrder() throws IOException {
+        Path file = zip(Map.of(XlsxEntries.WORKBOOK, WORKBOOK_XML,
+                XlsxEntries.WORKBOOK_RELS, RELS_XML.formatted("worksheets/sheet3.xml")));
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals("xl/worksheets/sheet3.xml", XlsxWorkbook.read(zipFile).getFirstSheet());
+        }
+    }
+
+    @Test
+    void absoluteTargetIsPackagePath() throws IOException {
+        Path file = zip(Map.of(XlsxEntries.WORKBOOK, WORKBOOK_XML,
+                XlsxEntries.WORKBOOK_RELS, RELS_XML.formatted("/xl/worksheets/ledger.xml")));
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals("xl/worksheets/ledger.xml", XlsxWorkbook.read(zipFile).getFirstSheet());
+        }
+    }
+
+    @Test
+    void missingRelationshipsFallBackToSheet1() throws IOException {
+        Path file = zip(Map.of(XlsxEntries.WORKBOOK, WORKBOOK_XML));
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals(XlsxEntries.SHEET1, XlsxWorkbook.read(zipFile).getFirstSheet());
+        }
+    }
+
+    @Test
+    void missingWorkbookFallsBackToSheet1() throws IOException {
+        assertEquals(XlsxEntries.SHEET1, XlsxWorkbook.read(name -> null).getFirstSheet());
+    }
+
+    @Test
+    void readsDate1904FromWorkbookPr() throws IOException {
+        String workbookXml = WORKBOOK_XML.replace("<sheets>", "<workbookPr date1904=\"1\"/><sheets>");
+        Path file = zip(Map.of(XlsxEntries.WORKBOOK, workbookXml,
+                XlsxEntries.WORKBOOK_RELS, RELS_XML.formatted("worksheets/sheet3.xml")));
+
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            XlsxWorkbook workbook = XlsxWorkbook.read(zipFile);
+            assertTrue(workbook.isDate1904());
+            assertEquals("xl/worksheets/sheet3.xml", workbook.getFirstSheet());
+        }
+        assertFalse(XlsxWorkbook.read(name -> null).isDate1904());
+    }
+
+    @Test
+    void resolveNormalizesRelativeSegments() {
+        assertEquals("xl/worksheets/sheet2.xml", XlsxWorkbook.resolve("./worksheets/sheet2.xml"));
+        assertEquals("sheets/sheet2.xml", XlsxWorkbook.resolve("../sheets/sheet2.xml"));
+        assertEquals("xl/worksheets/sheet2.xml", XlsxWorkbook.resolve("/xl/worksheets/sheet2.xml"));
+    }
+
+    private Path zip(Map<String, String> entries) throws IOException {
+        Path file = Files.createTempFile(tempDir, "workbook-", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(file);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : new LinkedHashMap<>(entries).entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.lambda.s3;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteZipTest {
+
+    private static final String BUCKET = "excel-bucket";
+    private static final String KEY = "uploads/test.xlsx";
+
+    private static final int EOCD_SIZE = 22;
+    private static final int MAX_TAIL_SIZE = EOCD_SIZE + 0xFFFF;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsEntriesThroughRanges() throws IOException {
+        Map<String, byte[]> entries = sampleEntries();
+        FakeS3Client s3 = new FakeS3Client(zip(entries, "xl/media/image1.png"));
+
+        RemoteZip remoteZip = RemoteZip.open(s3, BUCKET, KEY);
+
+        assertEquals(entries.size() + 1, remoteZip.getEntries().size());
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            try (InputStream in = remoteZip.open(entry.getKey())) {
+                assertNotNull(in, entry.getKey());
+                assertArrayEquals(entry.getValue(), in.readAllBytes(), entry.getKey());
+            }
+        }
+        assertNull(remoteZip.open("xl/worksheets/sheet9.xml"));
+    }
+
+    @Test
+    void readsOnlyRequestedEntryBytes() throws IOException {
+        Map<String, byte[]> entries = sampleEntries();
+        byte[] zip = zip(entries, "xl/media/image1.png");
+        FakeS3Client s3 = new FakeS3Client(zip);
+
+        RemoteZip remoteZip = RemoteZip.open(s3, BUCKET, KEY);
+        try (InputStream in = remoteZip.open("xl/workbook.xml")) {
+            assertArrayEquals(entries.get("xl/workbook.xml"), in.readAllBytes());
+        }
+
+        // 끝부분(최대 64KB + EOCD) + local header + workbook.xml 만 받음 (이미지 본문은 받지 않음)
+        RemoteZip.Entry image = remoteZip.find("xl/media/image1.png");
+        assertTrue(image.getCompressedSize() > 256 * 1024);
+        assertTrue(s3.transferred.get() < MAX_TAIL_SIZE + 1024, "transferred=" + s3.transferred.get());
+        assertTrue(s3.transferred.get() < zip.length / 4, "transferred=" + s3.transferred.get());
+    }
+
+    @Test
+    void findAllowsPathSuffix() throws IOException {
+        RemoteZip remoteZip = RemoteZip.open(new FakeS3Client(zip(sampleEntries(), null)), BUCKET, KEY);
+
+        assertEquals("xl/worksheets/sheet1.xml", remoteZip.find("worksheets/sheet1.xml").getName());
+        assertNull(remoteZip.find("xl/worksheets/sheet2.xml"));
+    }
+
+    @Test
+    void openEntryPrefixReadsLeadingBytes() throws IOException {
+        Map<String, byte[]> entries = sampleEntries();
+        RemoteZip remoteZip = RemoteZip.open(new FakeS3Client(zip(entries, null)), BUCKET, KEY);
+        RemoteZip.Entry sheet = remoteZip.find("xl/worksheets/sheet1.xml");
+
+        try (InputStream in = remoteZip.openEntry(sheet, 512)) {
+            byte[] head = in.readNBytes(64);
+            assertArrayEquals(Arrays.copyOf(entries.get("xl/worksheets/sheet1.xml"), 64), head);
+        }
+    }
+
+    @Test
+    void readsDirectoryLargerThanTail() throws IOException {
+        // central directory 가 끝부분 range(64KB + EOCD) 보다 커서 두 번째 range 로 읽는 경우
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 1500; i++) {
+            entries.put("xl/worksheets/_rels/" + "padding-".repeat(6) + i + ".xml.rels",
+                    ("<r>" + i + "</r>").getBytes(StandardCharsets.UTF_8));
+        }
+        RemoteZip remoteZip = RemoteZip.open(new FakeS3Client(zip(entries, null)), BUCKET, KEY);
+
+        assertEquals(entries.size(), remoteZip.getEntries().size());
+        String last = "xl/worksheets/_rels/" + "padding-".repeat(6) + 1499 + ".xml.rels";
+        try (InputStream in = remoteZip.open(last)) {
+            assertEquals("<r>1499</r>", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void writeEntriesProducesReadableZip() throws IOException {
+        Map<String, byte[]> entries = sampleEntries();
+        FakeS3Client s3 = new FakeS3Client(zip(entries, "xl/media/image1.png"));
+        RemoteZip remoteZip = RemoteZip.open(s3, BUCKET, KEY);
+
+        List<RemoteZip.Entry> selected = List.of(
+                remoteZip.find("xl/workbook.xml"),
+                remoteZip.find("xl/worksheets/sheet1.xml"),
+                remoteZip.find("xl/styles.xml"));
+        Path target = tempDir.resolve("partial.xlsx");
+        long written = remoteZip.writeEntries(selected, target, new RangedDownloader(s3, 4096, 4));
+
+        assertEquals(target.toFile().length(), written);
+        try (ZipFile zipFile = new ZipFile(target.toFile())) {
+            assertEquals(selected.size(), zipFile.size());
+            for (RemoteZip.Entry entry : selected) {
+                ZipEntry local = zipFile.getEntry(entry.getName());
+                assertNotNull(local, entry.getName());
+                try (InputStream in = zipFile.getInputStream(local)) {
+                    assertArrayEquals(entries.get(entry.getName()), in.readAllBytes(), entry.getName());
+                }
+            }
+            assertNull(zipFile.getEntry("xl/media/image1.png"));
+        }
+    }
+
+    @Test
+    void zip64EndOfCentralDirectoryFails() throws IOException {
+        byte[] zip = zip(sampleEntries(), null);
+        ByteBuffer eocd = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int eocdStart = zip.length - EOCD_SIZE;
+        assertEquals(0x06054b50, eocd.getInt(eocdStart));
+
+        // ZIP64 로 기록된 zip 은 EOCD 의 크기/오프셋이 0xFFFFFFFF
+        eocd.putInt(eocdStart + 12, 0xFFFFFFFF);
+        eocd.putInt(eocdStart + 16, 0xFFFFFFFF);
+
+        ZipException e = assertThrows(ZipException.class, () -> RemoteZip.open(new FakeS3Client(zip), BUCKET, KEY));
+        assertTrue(e.getMessage().contains("ZIP64"), e.getMessage());
+    }
+
+    @Test
+    void zip64CentralDirectoryEntryFails() throws IOException {
+        byte[] zip = zip(sampleEntries(), null);
+        ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int directoryOffset = buffer.getInt(zip.length - EOCD_SIZE + 16);
+        assertEquals(0x02014b50, buffer.getInt(directoryOffset));
+
+        // 첫 엔트리의 압축 크기를 ZIP64 표시값으로
+        buffer.putInt(directoryOffset + 20, 0xFFFFFFFF);
+
+        ZipException e = assertThrows(ZipException.class, () -> RemoteZip.open(new FakeS3Client(zip), BUCKET, KEY));
+        assertTrue(e.getMessage().contains("ZIP64"), e.getMessage());
+    }
+
+    @Test
+    void notAZipFails() {
+        byte[] text = "not a zip file, just some text that is long enough".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(ZipException.class, () -> RemoteZip.open(new FakeS3Client(text), BUCKET, KEY));
+        assertThrows(ZipException.class, () -> RemoteZip.open(new FakeS3Client(new byte[10]), BUCKET, KEY));
+    }
+
+    /**
+     * 작은 xlsx 엔트리 (시트는 압축, styles.xml 은 STORED)
+     */
+    private static Map<String, byte[]> sampleEntries() {
+        StringBuilder sheet = new StringBuilder("<worksheet><sheetData>");
+        for (int r = 1; r <= 2000; r++) {
+            sheet.append("<row r=\"").append(r).append("\"><c r=\"A").append(r)
+                    .append("\" t=\"inlineStr\"><is><t>거래처-").append(r).append("</t></is></c></row>");
+        }
+        sheet.append("</sheetData></worksheet>");
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("[Content_Types].xml", "<Types/>".getBytes(StandardCharsets.UTF_8));
+        entries.put("xl/workbook.xml", "<workbook><sheets><sheet name=\"원장\" r:id=\"rId1\"/></sheets></workbook>"
+                .getBytes(StandardCharsets.UTF_8));
+        entries.put("xl/worksheets/sheet1.xml", sheet.toString().getBytes(StandardCharsets.UTF_8));
+        entries.put("xl/styles.xml", "<styleSheet><cellXfs count=\"1\"><xf numFmtId=\"14\"/></cellXfs></styleSheet>"
+                .getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    /**
+     * zip 생성 (styles.xml 은 STORED, imageName 이 있으면 압축되지 않는 512KB 이미지 추가)
+     */
+    private static byte[] zip(Map<String, byte[]> entries, String imageName) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                if (entry.getKey().equals("xl/styles.xml")) {
+                    CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(entry.getValue().length);
+                    zipEntry.setCompressedSize(entry.getValue().length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(zipEntry);
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+            if (imageName != null) {
+                byte[] image = new byte[512 * 1024];
+                new Random(42).nextBytes(image);
+                zip.putNextEntry(new ZipEntry(imageName));
+                zip.write(image);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 메모리의 객체 하나를 HEAD / range GET 으로 돌려주는 S3Client (If-Match 확인, 전송 바이트 집계)
+     */
+    private static final class FakeS3Client implements S3Client {
+
+        private static final String ETAG = "\"0123456789abcdef\"";
+
+        private final byte[] object;
+        private final AtomicLong transferred = new AtomicLong();
+
+        private FakeS3Client(byte[] object) {
+            this.object = object;
+        }
+
+        @Override
+        public HeadObjectResponse headObject(HeadObjectRequest request) {
+            return HeadObjectResponse.builder()
+                    .contentLength((long) object.length)
+                    .eTag(ETAG)
+                    .build();
+        }
+
+        @Override
+        public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                           ResponseTransformer<GetObjectResponse, ReturnT> transformer) {
+            assertEquals(ETAG, request.ifMatch());
+
+            int start = 0;
+            int end = object.length - 1;
+            if (request.range() != null) {
+                String[] range = request.range().substring("bytes=".length()).split("-");
+                start = Integer.parseInt(range[0]);
+                end = Math.min(end, Integer.parseInt(range[1]));
+            }
+            int length = end - start + 1;
+            transferred.addAndGet(length);
+
+            GetObjectResponse response = GetObjectResponse.builder()
+                    .contentLength((long) length)
+                    .eTag(ETAG)
+                    .build();
+            try {
+                return transformer.transform(response,
+                        AbortableInputStream.create(new ByteArrayInputStream(object, start, length)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String serviceName() {
+            return "s3";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.lambda.worker;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBatchSizerTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void bucketRowsDoNotCarryDocumentOverhead() {
+        List<Object> row = List.of("abc", 1.5, true);
+        AdaptiveBatchSizer.SheetValues values = row::get;
+
+        long valueBytes = (5 + 3) + 8 + 1;
+        assertEquals(AdaptiveBatchSizer.DOCUMENT_OVERHEAD_BYTES + valueBytes,
+                AdaptiveBatchSizer.rowBytes(values, row.size()));
+
+        // 256행 버킷 = 문서 공통 필드 1번 + 행 배열 256개
+        long bucket = AdaptiveBatchSizer.DOCUMENT_OVERHEAD_BYTES +
+                256 * AdaptiveBatchSizer.bucketRowBytes(values, row.size());
+        assertTrue(bucket < 256 * AdaptiveBatchSizer.rowBytes(values, row.size()) / 4, "bucket=" + bucket);
+    }
+
+    @Test
+    void datesCountAsEightBytes() {
+        List<Object> row = List.of(new Date(0), LocalDateTime.of(2024, 1, 1, 0, 0));
+        assertEquals(AdaptiveBatchSizer.DOCUMENT_OVERHEAD_BYTES + 16,
+                AdaptiveBatchSizer.rowBytes(row::get, row.size()));
+    }
+
+    @Test
+    void targetFollowsInsertLatency() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(20000, 8 * MB, MB, 32 * MB, 1000);
+        assertFalse(sizer.isFull(100, 4 * MB));
+        assertTrue(sizer.isFull(20000, 0));
+
+        sizer.observe(8 * MB, 250); // 빠름 → 최대 +30%
+        assertEquals((long) (8 * MB * 1.3), sizer.getTargetBytes());
+
+        long grown = sizer.getTargetBytes();
+        sizer.observe(grown, 10_000); // 느림 → 최대 -30%
+        assertEquals((long) (grown * 0.7), sizer.getTargetBytes());
+
+        sizer.observe(MB / 10, 10_000); // 목표의 절반 미만 배치는 무시
+        assertEquals((long) (grown * 0.7), sizer.getTargetBytes());
+    }
+
+    @Test
+    void maxBytesShareFunctionMemoryAcrossLiveBatches() {
+        // 1024MB 의 절반을 배치 12개(레코드 4 × 배치 3)가 나눠 쓰고, 힙은 BSON 추정의 4배
+        assertEquals(512 * MB / 12 / 4, AdaptiveBatchSizer.maxBytesFor(1024, 12));
+        assertTrue(12 * AdaptiveBatchSizer.maxBytesFor(1024, 12) * AdaptiveBatchSizer.HEAP_BYTES_PER_BSON_BYTE
+                <= 1024 * MB / 2);
+        assertEquals(AdaptiveBatchSizer.maxBytesFor(3008, 1), AdaptiveBatchSizer.maxBytesFor(3008, 0));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.lambda.worker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkCompletionTrackerTest {
+
+    private static final String UPLOAD_ID = "upload-1";
+
+    private static EmbeddedRedis redis;
+    private static ChunkCompletionTracker tracker;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redis = EmbeddedRedis.start();
+        tracker = new ChunkCompletionTracker(redis::jedis);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        // 백엔드 UploadService 가 업로드 시 만드는 상태 해시
+        try (Jedis jedis = redis.jedis()) {
+            jedis.hset(statusKey(), Map.of("fileName", "원장.xlsx", "status", "PENDING",
+                    "progress", "0", "processedRows", "0", "totalRows", "0"));
+        }
+    }
+
+    @Test
+    void completesOnceWhenLastChunkCommits() {
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 1, 1, 3, 100));
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 1, 2, 3, 100));
+        assertEquals(ChunkCompletionTracker.Result.DUPLICATE, tracker.complete(UPLOAD_ID, 1, 2, 3, 100));
+        assertEquals(ChunkCompletionTracker.Result.COMPLETED, tracker.complete(UPLOAD_ID, 1, 3, 3, 50));
+        assertEquals(ChunkCompletionTracker.Result.DUPLICATE, tracker.complete(UPLOAD_ID, 1, 3, 3, 50));
+
+        Map<String, String> status = status();
+        assertEquals("COMPLETED", status.get("status"));
+        assertEquals("250", status.get("committedRows"));
+        assertEquals("250", status.get("totalRows"));
+        assertEquals("3", status.get("completedChunks"));
+        assertEquals("1", status.get("generation"));
+        assertTrue(tracker.isCompleted(UPLOAD_ID, 1, 2));
+    }
+
+    @Test
+    void overwriteStartsNewGeneration() {
+        for (int chunk = 1; chunk <= 2; chunk++) {
+            tracker.complete(UPLOAD_ID, 1, chunk, 2, 100);
+        }
+        assertEquals("COMPLETED", status().get("status"));
+
+        // 같은 키를 새 버전으로 덮어씀 → 세대 2 의 청크는 중복이 아님
+        assertFalse(tracker.isCompleted(UPLOAD_ID, 2, 1));
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 2, 1, 3, 70));
+
+        Map<String, String> status = status();
+        assertEquals("PROCESSING", status.get("status"));
+        assertEquals("70", status.get("committedRows"));
+        assertEquals("1", status.get("completedChunks"));
+        assertEquals("2", status.get("generation"));
+        assertEquals("원장.xlsx", status.get("fileName")); // 백엔드 메타데이터는 유지
+
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 2, 2, 3, 70));
+        assertEquals(ChunkCompletionTracker.Result.COMPLETED, tracker.complete(UPLOAD_ID, 2, 3, 3, 60));
+        assertEquals("200", status().get("totalRows"));
+    }
+
+    @Test
+    void staleGenerationDoesNotTouchNewerStatus() {
+        tracker.complete(UPLOAD_ID, 2, 1, 2, 100);
+        Map<String, String> before = status();
+
+        assertEquals(ChunkCompletionTracker.Result.STALE, tracker.complete(UPLOAD_ID, 1, 2, 2, 100));
+        assertEquals(before, status());
+        assertFalse(tracker.isCompleted(UPLOAD_ID, 1, 2));
+
+        assertTrue(tracker.isSuperseded(UPLOAD_ID, 1));
+        assertFalse(tracker.isSuperseded(UPLOAD_ID, 2));
+        assertFalse(tracker.isSuperseded("upload-unknown", 1));
+    }
+
+    @Test
+    void replayAfterCompletionIsNotCountedTwice() {
+        assertEquals(ChunkCompletionTracker.Result.COMPLETED, tracker.complete(UPLOAD_ID, 1, 1, 1, 100));
+        Map<String, String> completed = status();
+
+        // SQS 재전달: 완료 이후 같은 세대의 같은 청크
+        assertEquals(ChunkCompletionTracker.Result.DUPLICATE, tracker.complete(UPLOAD_ID, 1, 1, 1, 100));
+        assertEquals(completed, status());
+    }
+
+    @Test
+    void reprocessingAfterBackendResetCompletesOnce() {
+        for (int chunk = 1; chunk <= 3; chunk++) {
+            tracker.complete(UPLOAD_ID, 1, chunk, 3, 100);
+        }
+        assertEquals("COMPLETED", status().get("status"));
+
+        // 백엔드 FileSessionService.clearIngestState(sessionId, false) 와 같은 초기화 (같은 세대로 재실행)
+        try (Jedis jedis = redis.jedis()) {
+            jedis.del(IngestGeneration.chunksKey(UPLOAD_ID, 1), IngestGeneration.commitKey(UPLOAD_ID, 1));
+            jedis.hdel(statusKey(), "completedChunks", "committedRows", "totalChunks");
+            jedis.hset(statusKey(), Map.of("status", "PENDING", "progress", "0", "processedRows", "0"));
+        }
+
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 1, 1, 3, 100));
+        assertEquals(ChunkCompletionTracker.Result.IN_PROGRESS, tracker.complete(UPLOAD_ID, 1, 2, 3, 100));
+        assertEquals(ChunkCompletionTracker.Result.COMPLETED, tracker.complete(UPLOAD_ID, 1, 3, 3, 100));
+        assertEquals("300", status().get("committedRows"));
+    }
+
+    @Test
+    void watermarkIsScopedToGenerationAndNeverMovesBack() {
+        assertNull(tracker.committedEndRow(UPLOAD_ID, 1, 2));
+
+        tracker.saveCommittedEndRow(UPLOAD_ID, 1, 2, 5000);
+        tracker.saveCommittedEndRow(UPLOAD_ID, 1, 2, 3000); // 늦게 끝난 writer 스레드
+        assertEquals(5000, tracker.committedEndRow(UPLOAD_ID, 1, 2));
+
+        tracker.saveCommittedEndRow(UPLOAD_ID, 1, 2, 7000);
+        assertEquals(7000, tracker.committedEndRow(UPLOAD_ID, 1, 2));
+
+        // 덮어쓴 새 버전은 처음부터, 다른 청크와도 분리
+        assertNull(tracker.committedEndRow(UPLOAD_ID, 2, 2));
+        assertNull(tracker.committedEndRow(UPLOAD_ID, 1, 3));
+        tracker.saveCommittedEndRow(UPLOAD_ID, 2, 2, 1000);
+        assertEquals(1000, tracker.committedEndRow(UPLOAD_ID, 2, 2));
+        assertEquals(7000, tracker.committedEndRow(UPLOAD_ID, 1, 2));
+    }
+
+    private static Map<String, String> status() {
+        try (Jedis jedis = redis.jedis()) {
+            return jedis.hgetAll(statusKey());
+        }
+    }
+
+    private static String statusKey() {
+        return IngestGeneration.statusKey(UPLOAD_ID);
+    }
+}
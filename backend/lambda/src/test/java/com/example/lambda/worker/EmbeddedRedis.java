@@ -0,0 +1,48 @@
+package com.example.lambda.worker;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Lua 스크립트 테스트용 로컬 Redis (빈 포트에 기동, 테스트마다 flushAll)
+ */
+final class EmbeddedRedis implements AutoCloseable {
+
+    private final RedisServer server;
+    private final JedisPool pool;
+
+    private EmbeddedRedis(RedisServer server, JedisPool pool) {
+        this.server = server;
+        this.pool = pool;
+    }
+
+    static EmbeddedRedis start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        RedisServer server = new RedisServer(port);
+        server.start();
+        return new EmbeddedRedis(server, new JedisPool("localhost", port));
+    }
+
+    Jedis jedis() {
+        return pool.getResource();
+    }
+
+    void flushAll() {
+        try (Jedis jedis = jedis()) {
+            jedis.flushAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.close();
+        server.stop();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.lambda.worker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgressReporterTest {
+
+    private static final String UPLOAD_ID = "upload-1";
+
+    private static EmbeddedRedis redis;
+    private static ChunkCompletionTracker tracker;
+
+    private ProgressReporter reporter;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redis = EmbeddedRedis.start();
+        tracker = new ChunkCompletionTracker(redis::jedis);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+        reporter = new ProgressReporter(0, redis::jedis); // 매번 반영
+    }
+
+    @Test
+    void initializeKeepsProgressOfEarlierChunks() {
+        assertArrayEquals(new long[]{300, 30}, reporter.add(UPLOAD_ID, 1, 300, 1000));
+        assertTrue(reporter.initialize(UPLOAD_ID, 1, 1000));
+
+        Map<String, String> status = status();
+        assertEquals("PROCESSING", status.get("status"));
+        assertEquals("300", status.get("processedRows"));
+        assertEquals("1000", status.get("totalRows"));
+    }
+
+    @Test
+    void progressStopsAt99UntilTrackerCompletes() {
+        reporter.initialize(UPLOAD_ID, 1, 100);
+
+        assertArrayEquals(new long[]{100, 99}, reporter.add(UPLOAD_ID, 1, 100, 100));
+        assertEquals("99", status().get("progress"));
+    }
+
+    @Test
+    void completedUploadIsOnlyReopenedByNewGeneration() {
+        reporter.initialize(UPLOAD_ID, 1, 100);
+        tracker.complete(UPLOAD_ID, 1, 1, 1, 100);
+
+        // 같은 세대의 첫 청크 재전달은 완료 상태를 되돌리지 않음
+        assertFalse(reporter.initialize(UPLOAD_ID, 1, 100));
+        assertNull(reporter.add(UPLOAD_ID, 1, 10, 100));
+        assertEquals("COMPLETED", status().get("status"));
+
+        // 덮어쓴 새 버전은 진행률을 처음부터 기록
+        assertTrue(reporter.initialize(UPLOAD_ID, 2, 500));
+        Map<String, String> status = status();
+        assertEquals("PROCESSING", status.get("status"));
+        assertEquals("0", status.get("processedRows"));
+        assertEquals("500", status.get("totalRows"));
+        assertEquals("2", status.get("generation"));
+    }
+
+    @Test
+    void staleGenerationIsIgnored() {
+        reporter.initialize(UPLOAD_ID, 2, 500);
+        reporter.add(UPLOAD_ID, 2, 50, 500);
+
+        assertFalse(reporter.initialize(UPLOAD_ID, 1, 100));
+        assertNull(reporter.add(UPLOAD_ID, 1, 100, 100));
+
+        Map<String, String> status = status();
+        assertEquals("50", status.get("processedRows"));
+        assertEquals("500", status.get("totalRows"));
+        assertEquals("2", status.get("generation"));
+    }
+
+    @Test
+    void forcedFlushReleasesUploadEntry() {
+        ProgressReporter batched = new ProgressReporter(60_000, redis::jedis);
+        batched.initialize(UPLOAD_ID, 1, 1000);
+
+        assertNotNull(batched.add(UPLOAD_ID, 1, 100, 1000)); // 첫 반영
+        assertNull(batched.add(UPLOAD_ID, 1, 50, 1000));     // 누적만
+        assertEquals(1, batched.pendingCount());
+
+        assertArrayEquals(new long[]{150, 15}, batched.flush(UPLOAD_ID, 1, 1000));
+        assertEquals(0, batched.pendingCount());
+
+        // 같은 업로드의 다음 청크는 새 항목으로 다시 누적
+        assertNotNull(batched.add(UPLOAD_ID, 1, 10, 1000));
+        assertNull(batched.flush(UPLOAD_ID, 1, 1000));
+        assertEquals(0, batched.pendingCount());
+        assertEquals("160", status().get("processedRows"));
+    }
+
+    private static Map<String, String> status() {
+        try (Jedis jedis = redis.jedis()) {
+            return jedis.hgetAll(IngestGeneration.statusKey(UPLOAD_ID));
+        }
+    }
+}
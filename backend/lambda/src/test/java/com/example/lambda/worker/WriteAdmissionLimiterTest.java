@@ -0,0 +1,76 @@
+package com.example.lambda.worker;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAdmissionLimiterTest {
+
+    private static EmbeddedRedis redis;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redis = EmbeddedRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redis.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis.flushAll();
+    }
+
+    @Test
+    void acquireWaitsOnceBucketIsDrained() throws IOException {
+        // 초당 1000행, 버스트 1초
+        WriteAdmissionLimiter limiter = limiter(redis::jedis);
+        List<String> warnings = new ArrayList<>();
+
+        long start = System.currentTimeMillis();
+        limiter.acquire(1000, warnings::add);
+        limiter.acquire(200, warnings::add);
+        long waited = System.currentTimeMillis() - start;
+
+        assertTrue(waited >= 150, "waited=" + waited);
+        assertTrue(warnings.isEmpty());
+    }
+
+    @Test
+    void redisFailureBypassesAndReportsToCaller() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        WriteAdmissionLimiter limiter = limiter(() -> {
+            calls.incrementAndGet();
+            throw new JedisConnectionException("connection refused");
+        });
+        List<String> warnings = new ArrayList<>();
+
+        limiter.acquire(1000, warnings::add);
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("connection refused"), warnings.get(0));
+
+        // 중단 기간에는 Redis 를 다시 부르지 않음
+        limiter.acquire(1000, warnings::add);
+        limiter.observe(1000, 50, warnings::add);
+        assertEquals(1, calls.get());
+        assertEquals(1, warnings.size());
+    }
+
+    private static WriteAdmissionLimiter limiter(Supplier<Jedis> jedisSupplier) {
+        return new WriteAdmissionLimiter("test", 1000, 100, 10_000, 100, 0.7, 1, 100, 1000, jedisSupplier);
+    }
+}
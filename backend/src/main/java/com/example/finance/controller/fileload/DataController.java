@@ -2,6 +2,7 @@ package com.example.finance.controller.fileload;
 
 import com.example.finance.model.data.RawDataDocument;
 import com.example.finance.repository.data.RawDataRepository;
+import com.example.finance.service.common.RawDataQueryService;
 import com.example.finance.service.common.RedisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,7 @@ import java.util.Map;
 public class DataController {
 
     private final RawDataRepository rawDataRepository;
+    private final RawDataQueryService rawDataQueryService;
     private final RedisService redisService;
 
     /**
@@ -48,11 +50,11 @@ public class DataController {
     }
 
     /**
-     * MongoDB 조회 테스트 - 전체 개수
+     * MongoDB 조회 테스트 - 전체 개수 (bucket 형식은 행 수로 계산)
      */
     @GetMapping("/count")
     public Map<String, Object> getCount() {
-        long totalCount = rawDataRepository.count();
+        long totalCount = rawDataQueryService.count();
 
         Map<String, Object> response = new HashMap<>();
         response.put("totalCount", totalCount);
@@ -83,7 +85,7 @@ public class DataController {
         // 캐시 미스 - MongoDB 조회
         log.debug("Cache MISS: {}", cacheKey);
         Pageable pageable = PageRequest.of(page, size, Sort.by("rowNumber").ascending());
-        Page<RawDataDocument> result = rawDataRepository.findBySessionId(sessionId, pageable);
+        Page<RawDataDocument> result = rawDataQueryService.findBySessionId(sessionId, pageable);  // ⭐ bucket 형식 포함
 
         Map<String, Object> response = new HashMap<>();
         response.put("data", result.getContent());
@@ -99,15 +101,17 @@ public class DataController {
     }
 
     /**
-     * 전체 데이터 조회 (페이징)
+     * 전체 데이터 조회 (페이징, 업로드 → 행 역순)
+     *
+     * bucket 형식 행에는 createdAt 이 없으므로 업로드/행 번호로 정렬한다.
      */
     @GetMapping
     public Map<String, Object> getAllData(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<RawDataDocument> result = rawDataRepository.findAll(pageable);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("uploadId", "rowNumber").descending());
+        Page<RawDataDocument> result = rawDataQueryService.findAll(pageable);  // ⭐ bucket 형식 포함
 
         Map<String, Object> response = new HashMap<>();
         response.put("data", result.getContent());
@@ -7,6 +7,7 @@ import com.example.finance.dto.response.upload.AccountPartitionResponse;
 import com.example.finance.dto.response.upload.PartitionAnalysisResponse;
 import com.example.finance.dto.response.upload.PresignedUrlResponse;
 import com.example.finance.dto.response.upload.UploadFileResponse;
+import com.example.finance.exception.BusinessException;
 import com.example.finance.model.session.UploadedFileInfo;
 import com.example.finance.service.common.S3Service;
 import com.example.finance.service.project.ProjectService;
@@ -17,11 +18,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import com.example.finance.security.UserPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +48,9 @@ public class UploadController {
     private final FileAnalysisService fileAnalysisService;
     private final ProjectService projectService;
 
+    // 분석 스트림 최대 유지 시간 (10분)
+    private static final long ANALYZE_STREAM_TIMEOUT_MS = 10 * 60 * 1000L;
+
     /**
      * Presigned URL 생성
      *
@@ -209,6 +216,65 @@ public class UploadController {
         return ResponseEntity.ok(partitions);
     }
 
+    /**
+     * 파일 분석 (SSE 스트리밍)
+     *
+     * POST /api/projects/{projectId}/upload/analyze/stream
+     *
+     * 파일마다 분석이 끝나는 대로 file 이벤트를 보내고, 마지막에 partitions 이벤트로 파티션 제안을 보낸다.
+     * 실패하면 error 이벤트 (code, message) 후 종료.
+     */
+    @Operation(summary = "파일 분석 (스트리밍)", description = "파일별 계정명 추출 결과를 끝나는 대로 전송")
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analyzeFilesStream(
+            @PathVariable String projectId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestBody Map<String, List<String>> request) {
+
+        String userId = userPrincipal.getId();
+        List<String> fileIds = request.get("fileIds");
+
+        log.info("파일 분석 스트리밍 요청: projectId={}, userId={}, fileIds={}", projectId, userId, fileIds);
+
+        // 프로젝트 권한 확인 (스트림을 열기 전에)
+        projectService.getProject(projectId, userId);
+
+        SseEmitter emitter = new SseEmitter(ANALYZE_STREAM_TIMEOUT_MS);
+        Thread.ofVirtual().name("analyze-" + projectId).start(() -> {
+            try {
+                List<AccountPartitionResponse> partitions = fileAnalysisService.analyzeFilesAndCreatePartitions(
+                        projectId, fileIds, progress -> sendEvent(emitter, "file", progress));
+
+                sendEvent(emitter, "partitions", partitions);
+                emitter.complete();
+
+                log.info("파일 분석 스트리밍 완료: {} 개 파티션 생성", partitions.size());
+
+            } catch (BusinessException e) {
+                sendEvent(emitter, "error", Map.of("code", e.getErrorCode(), "message", e.getMessage()));
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("파일 분석 스트리밍 실패: projectId={}", projectId, e);
+                sendEvent(emitter, "error",
+                        Map.of("code", "ANALYSIS_FAILED", "message", String.valueOf(e.getMessage())));
+                emitter.complete();
+            }
+        });
+
+        return emitter;
+    }
+
+    /**
+     * SSE 이벤트 전송 (클라이언트가 끊었으면 분석은 계속하고 전송만 건너뜀)
+     */
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE 전송 실패 (연결 종료): event={}, error={}", name, e.getMessage());
+        }
+    }
+
     /**
      * 파티션 분석 (계정명별 그룹핑)
      *
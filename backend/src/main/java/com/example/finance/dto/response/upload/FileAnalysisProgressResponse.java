@@ -0,0 +1,48 @@
+package com.example.finance.dto.response.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 파일 분석 진행 (파일 하나 분석이 끝날 때마다 전송)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileAnalysisProgressResponse {
+
+    /**
+     * 분석이 끝난 파일 ID
+     */
+    private String fileId;
+
+    /**
+     * 파일명
+     */
+    private String fileName;
+
+    /**
+     * 계정명 컬럼
+     */
+    private String accountColumnName;
+
+    /**
+     * 파일의 계정명 고유값
+     */
+    private List<String> accountNames;
+
+    /**
+     * 분석이 끝난 파일 수
+     */
+    private Integer completedFiles;
+
+    /**
+     * 전체 파일 수
+     */
+    private Integer totalFiles;
+}
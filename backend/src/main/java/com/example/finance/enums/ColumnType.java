@@ -0,0 +1,71 @@
+package com.example.finance.enums;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * 컬럼 값 타입 (적재 시 추론)
+ *
+ * Lambda Worker 의 ColumnTypeStats 와 같은 규칙을 사용한다.
+ */
+public enum ColumnType {
+    NUMBER,
+    DATE,
+    STRING,
+    BOOLEAN,
+    MIXED,   // 지배적인 타입 없음
+    EMPTY;   // 값 없음
+
+    // 한 타입이 이 비율 이상이면 해당 타입으로 판정 (합계/비고 행 등 소수 예외 허용)
+    private static final double DOMINANT_RATIO = 0.95;
+
+    /**
+     * 적재 값의 타입 (null 이면 null)
+     */
+    public static ColumnType of(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return NUMBER;
+        }
+        if (value instanceof Date || value instanceof LocalDateTime || value instanceof LocalDate) {
+            return DATE;
+        }
+        if (value instanceof Boolean) {
+            return BOOLEAN;
+        }
+        return STRING;
+    }
+
+    /**
+     * 타입별 개수로 컬럼 타입 추론
+     *
+     * @param counts 타입명 → 개수
+     */
+    public static ColumnType infer(Map<String, ? extends Number> counts) {
+        if (counts == null || counts.isEmpty()) {
+            return EMPTY;
+        }
+
+        long total = 0;
+        long max = 0;
+        ColumnType dominant = EMPTY;
+        for (ColumnType type : new ColumnType[]{NUMBER, DATE, STRING, BOOLEAN}) {
+            Number count = counts.get(type.name());
+            long value = count != null ? count.longValue() : 0;
+            total += value;
+            if (value > max) {
+                max = value;
+                dominant = type;
+            }
+        }
+
+        if (total == 0) {
+            return EMPTY;
+        }
+        return max >= total * DOMINANT_RATIO ? dominant : MIXED;
+    }
+}
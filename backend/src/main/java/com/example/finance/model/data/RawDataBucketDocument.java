@@ -0,0 +1,76 @@
+package com.example.finance.model.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * Raw 데이터 버킷 (업로드 하나의 연속된 N행)
+ *
+ * MongoDB 컬렉션: raw_data_bucket
+ *
+ * bucket 형식에서는 행마다 문서를 만들지 않고 start_row 부터 row_count 행의 값 배열을 묶어 저장한다.
+ * 컬럼명은 raw_data_schema 의 headers 를 사용한다.
+ * row_offset 은 업로드 안에서 이 버킷 앞에 저장된 행 수로, 페이지 범위를 인덱스 범위 조회로 찾는 데 쓴다.
+ */
+@Document(collection = "raw_data_bucket")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@CompoundIndex(name = "project_session_idx", def = "{'project_id': 1, 'session_id': 1}")
+@CompoundIndex(name = "session_upload_count_idx", def = "{'session_id': 1, 'upload_id': 1, 'row_count': 1}")
+@CompoundIndex(name = "upload_offset_idx", def = "{'upload_id': 1, 'row_offset': 1}")
+public class RawDataBucketDocument {
+
+    @Id
+    private String id;
+
+    /**
+     * 프로젝트 ID
+     */
+    @Field("project_id")
+    private String projectId;
+
+    /**
+     * 세션 ID
+     */
+    @Field("session_id")
+    private String sessionId;
+
+    /**
+     * 업로드 ID
+     */
+    @Field("upload_id")
+    private String uploadId;
+
+    /**
+     * 첫 행 번호 (row_number)
+     */
+    @Field("start_row")
+    private Integer startRow;
+
+    /**
+     * 업로드 안에서 앞선 행 수 (0-based 위치, 빈 행은 세지 않음)
+     */
+    @Field("row_offset")
+    private Integer rowOffset;
+
+    /**
+     * 행 수
+     */
+    @Field("row_count")
+    private Integer rowCount;
+
+    /**
+     * 행별 값 배열 (raw_data_schema 의 headers 순서)
+     */
+    private List<List<Object>> rows;
+}
@@ -11,6 +11,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,6 +21,10 @@ import java.util.Map;
  *
  * Phase 1: Lambda에서 파싱하여 생성
  * Phase 2: FileSession과 연결
+ *
+ * 저장 형식 (raw-data.format)
+ * - map: data 에 컬럼명 → 값
+ * - compact: values 에 값 배열만, 컬럼명은 raw_data_schema 에 업로드당 1건
  */
 @Document(collection = "raw_data")
 @Data
@@ -68,6 +73,12 @@ public class RawDataDocument {
      */
     private Map<String, Object> data;
 
+    /**
+     * compact 형식 값 배열 (raw_data_schema 의 headers 순서)
+     * 조회 시 RawDataDecodeCallback 이 data 로 복원하고 비운다.
+     */
+    private List<Object> values;
+
     /**
      * 생성 시간
      */
@@ -0,0 +1,94 @@
+package com.example.finance.model.data;
+
+import com.example.finance.enums.ColumnType;
+import com.example.finance.model.session.ColumnTypeInfo;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raw 데이터 스키마 (업로드당 1건)
+ *
+ * MongoDB 컬렉션: raw_data_schema
+ *
+ * compact 형식의 raw_data 행은 헤더 없이 values 배열만 저장하고,
+ * 컬럼명과 컬럼 타입 집계는 이 문서에서 한 번만 관리한다.
+ */
+@Document(collection = "raw_data_schema")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RawDataSchemaDocument {
+
+    /**
+     * 업로드 ID (_id)
+     */
+    @Id
+    private String id;
+
+    /**
+     * 프로젝트 ID
+     */
+    @Field("project_id")
+    private String projectId;
+
+    /**
+     * 세션 ID
+     */
+    @Indexed
+    @Field("session_id")
+    private String sessionId;
+
+    /**
+     * 업로드 ID
+     */
+    @Field("upload_id")
+    private String uploadId;
+
+    /**
+     * 컬럼명 (values 배열 순서)
+     */
+    private List<String> headers;
+
+    /**
+     * 컬럼 타입 집계 (컬럼 인덱스 → 타입명 → 개수, 청크별 $inc 합산)
+     */
+    @Field("column_types")
+    private Map<String, Map<String, Long>> columnTypeCounts;
+
+    /**
+     * 생성 시간 (compact 행의 created_at 대신 사용)
+     */
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 집계 기준 컬럼별 추론 타입
+     */
+    public List<ColumnTypeInfo> inferColumnTypes() {
+        List<ColumnTypeInfo> result = new ArrayList<>();
+        if (headers == null) {
+            return result;
+        }
+
+        for (int i = 0; i < headers.size(); i++) {
+            Map<String, Long> counts = columnTypeCounts != null ? columnTypeCounts.get(String.valueOf(i)) : null;
+            result.add(ColumnTypeInfo.builder()
+                    .name(headers.get(i))
+                    .type(ColumnType.infer(counts))
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.finance.model.session;
+
+import com.example.finance.enums.ColumnType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 컬럼별 추론 타입 (UploadedFileInfo 내 임베디드)
+ *
+ * 컬럼명에 '.' 이 들어갈 수 있어 Map 대신 목록으로 저장한다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnTypeInfo {
+
+    /**
+     * 컬럼명
+     */
+    private String name;
+
+    /**
+     * 추론 타입
+     */
+    private ColumnType type;
+}
@@ -76,6 +76,13 @@ public class UploadedFileInfo {
     @Builder.Default
     private List<String> detectedColumns = new ArrayList<>();
 
+    /**
+     * 컬럼별 추론 타입 (업로드 시 샘플 기준, 적재 후 전체 행 기준으로 갱신)
+     */
+    @Field("column_types")
+    @Builder.Default
+    private List<ColumnTypeInfo> columnTypes = new ArrayList<>();
+
     /**
      * 계정명 고유값 목록 (미리보기용)
      */
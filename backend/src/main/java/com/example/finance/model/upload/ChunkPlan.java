@@ -0,0 +1,99 @@
+package com.example.finance.model.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * 청크 분할 계획 + 실제 처리 시간 (UploadSession 내 임베디드)
+ *
+ * Coordinator Lambda 가 계획을 기록하고, Worker Lambda 가 청크마다 실제 처리 시간을 합산한다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkPlan {
+
+    /**
+     * 청크당 행 수
+     */
+    @Field("chunk_size")
+    private Integer chunkSize;
+
+    /**
+     * 총 청크 수
+     */
+    @Field("total_chunks")
+    private Integer totalChunks;
+
+    /**
+     * 총 데이터 행 수
+     */
+    @Field("total_rows")
+    private Integer totalRows;
+
+    /**
+     * 컬럼 수 (Dimension 기준, 0 = 알 수 없음)
+     */
+    @Field("column_count")
+    private Integer columnCount;
+
+    /**
+     * 압축 해제된 시트 XML 크기
+     */
+    @Field("sheet_bytes")
+    private Long sheetBytes;
+
+    /**
+     * 평균 행 크기 (bytes)
+     */
+    @Field("avg_row_bytes")
+    private Double avgRowBytes;
+
+    /**
+     * 추정 청크 처리 시간 (초)
+     */
+    @Field("estimated_chunk_seconds")
+    private Double estimatedChunkSeconds;
+
+    /**
+     * 목표 청크 처리 시간 (초)
+     */
+    @Field("target_chunk_seconds")
+    private Double targetChunkSeconds;
+
+    /**
+     * 청크 크기를 결정한 조건 (target_time / chunk_bytes / max_chunks / single_chunk / empty)
+     */
+    @Field("limited_by")
+    private String limitedBy;
+
+    /**
+     * 계획 시간
+     */
+    @Field("planned_at")
+    private Date plannedAt;
+
+    /**
+     * 처리 완료된 청크 수
+     */
+    @Field("actual_chunks")
+    private Integer actualChunks;
+
+    /**
+     * 실제 청크 처리 시간 합계 (ms)
+     */
+    @Field("actual_total_millis")
+    private Long actualTotalMillis;
+
+    /**
+     * 가장 오래 걸린 청크 처리 시간 (ms)
+     */
+    @Field("actual_max_chunk_millis")
+    private Long actualMaxChunkMillis;
+}
@@ -0,0 +1,54 @@
+package com.example.finance.model.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * 컬럼 고유값 (FileProfile 의 컬럼당 1건)
+ *
+ * MongoDB 컬렉션: file_profile_values
+ *
+ * 고유값 목록은 컬럼 수만큼 커지므로 file_profiles 문서에 넣지 않고 컬럼별로 나눠 저장한다.
+ * 목록 크기는 file-profile.distinct-limit / distinct-max-mb 로 제한된다.
+ */
+@Document(collection = "file_profile_values")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnDistinctValues {
+
+    /**
+     * {fileId}:{컬럼 인덱스}
+     */
+    @Id
+    private String id;
+
+    /**
+     * 파일 ID
+     */
+    @Field("file_id")
+    private String fileId;
+
+    /**
+     * 컬럼 인덱스 (0-based)
+     */
+    @Field("column_index")
+    private Integer columnIndex;
+
+    /**
+     * 고유값 (trim, 처음 나온 순서, 한도를 넘으면 앞의 일부만)
+     */
+    private List<String> values;
+
+    public static String id(String fileId, int columnIndex) {
+        return fileId + ":" + columnIndex;
+    }
+}
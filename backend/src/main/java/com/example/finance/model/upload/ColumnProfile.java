@@ -0,0 +1,77 @@
+package com.example.finance.model.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 컬럼 통계 (FileProfile 내 임베디드)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnProfile {
+
+    /**
+     * 컬럼명 (헤더 셀 문자열)
+     */
+    private String name;
+
+    /**
+     * 컬럼 인덱스 (0-based)
+     */
+    private Integer index;
+
+    /**
+     * 값이 있는 행 수
+     */
+    @Field("non_null_count")
+    private Long nonNullCount;
+
+    /**
+     * 빈 행 수 (셀 없음 또는 공백)
+     */
+    @Field("null_count")
+    private Long nullCount;
+
+    /**
+     * 숫자 셀 수 (날짜 포함, 수식 제외)
+     */
+    @Field("numeric_count")
+    private Long numericCount;
+
+    /**
+     * 숫자 셀 최소/최대
+     */
+    private Double min;
+
+    private Double max;
+
+    /**
+     * 금액 합계 (숫자 셀 + 숫자 외 문자를 제거한 문자열 셀, 수식 제외)
+     */
+    @Field("amount_sum")
+    private Double amountSum;
+
+    /**
+     * 고유값이 한도(개수 또는 바이트)를 넘어 저장된 고유값이 일부뿐인지
+     * (고유값 목록은 file_profile_values 에 컬럼별로 저장)
+     */
+    @Field("distinct_truncated")
+    private Boolean distinctTruncated;
+
+    /**
+     * 고유값 수 (한도 이하면 정확, 넘으면 HyperLogLog 추정)
+     */
+    @Field("distinct_count")
+    private Long distinctCount;
+
+    /**
+     * HyperLogLog 레지스터 (파일 간 합산용)
+     */
+    @Field("distinct_sketch")
+    private byte[] distinctSketch;
+}
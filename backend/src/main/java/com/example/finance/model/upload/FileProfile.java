@@ -0,0 +1,100 @@
+package com.example.finance.model.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 파일 프로파일 (파일당 1건, 한 번의 스트리밍 패스로 계산)
+ *
+ * MongoDB 컬렉션: file_profiles
+ *
+ * 계정명 추출/금액 합산/파일 분석은 S3 파일을 다시 읽지 않고 이 문서로 응답한다.
+ * eTag 가 현재 S3 객체와 다르거나 version 이 현재 형식과 다르면 다시 계산한다.
+ * 컬럼별 고유값 목록은 file_profile_values 에 따로 저장한다 (ColumnDistinctValues).
+ */
+@Document(collection = "file_profiles")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileProfile {
+
+    /**
+     * 파일 ID (_id)
+     */
+    @Id
+    private String id;
+
+    /**
+     * 저장 형식 버전 (고유값 분리 저장 = 2)
+     */
+    private Integer version;
+
+    /**
+     * 계산 기준 S3 ETag
+     */
+    @Field("e_tag")
+    private String eTag;
+
+    /**
+     * S3 키
+     */
+    @Field("s3_key")
+    private String s3Key;
+
+    /**
+     * 데이터 행 수 (헤더 제외, 시트에 존재하는 행 기준)
+     */
+    @Field("row_count")
+    private Long rowCount;
+
+    /**
+     * 컬럼별 통계 (헤더가 있는 컬럼만)
+     */
+    private List<ColumnProfile> columns;
+
+    /**
+     * 계산 소요 시간 (ms)
+     */
+    @Field("elapsed_millis")
+    private Long elapsedMillis;
+
+    /**
+     * 생성 시간
+     */
+    @Field("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 컬럼 찾기 (정확히 일치 → trim 일치 → 대소문자 무시 순, 없으면 null)
+     */
+    public ColumnProfile findColumn(String columnName) {
+        if (columnName == null || columns == null) {
+            return null;
+        }
+        for (ColumnProfile column : columns) {
+            if (columnName.equals(column.getName())) {
+                return column;
+            }
+        }
+        for (ColumnProfile column : columns) {
+            if (column.getName().trim().equals(columnName.trim())) {
+                return column;
+            }
+        }
+        for (ColumnProfile column : columns) {
+            if (column.getName().trim().equalsIgnoreCase(columnName.trim())) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
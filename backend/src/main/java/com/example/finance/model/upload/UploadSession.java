@@ -92,6 +92,24 @@ public class UploadSession {
     @Field("processed_rows")
     private Integer processedRows;
 
+    /**
+     * 청크 분할 계획 (Lambda 처리 시 기록)
+     */
+    @Field("chunk_plan")
+    private ChunkPlan chunkPlan;
+
+    /**
+     * 마지막으로 적재를 시작한 S3 객체 ETag (Coordinator Lambda 기록)
+     */
+    @Field("ingest_etag")
+    private String ingestEtag;
+
+    /**
+     * 적재 세대 (같은 키를 새 버전으로 덮어쓸 때마다 1 증가, Worker 의 Redis 키/행 ID 를 버전별로 구분)
+     */
+    @Field("ingest_generation")
+    private Integer ingestGeneration;
+
     /**
      * 에러 메시지
      */
@@ -0,0 +1,37 @@
+package com.example.finance.repository.data;
+
+import com.example.finance.model.data.RawDataBucketDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * RawDataBucket Repository
+ */
+@Repository
+public interface RawDataBucketRepository extends MongoRepository<RawDataBucketDocument, String> {
+
+    /**
+     * 업로드의 rowOffset 위치를 담은 버킷 (rowOffset 이하 중 마지막)
+     */
+    Optional<RawDataBucketDocument> findFirstByUploadIdAndRowOffsetLessThanEqualOrderByRowOffsetDesc(
+            String uploadId, int rowOffset);
+
+    /**
+     * 업로드의 (from, to) 구간에서 시작하는 버킷 (row_offset 순)
+     */
+    List<RawDataBucketDocument> findByUploadIdAndRowOffsetGreaterThanAndRowOffsetLessThanOrderByRowOffsetAsc(
+            String uploadId, int from, int to);
+
+    /**
+     * 세션에 버킷이 있는지
+     */
+    boolean existsBySessionId(String sessionId);
+
+    /**
+     * 프로젝트 + 세션의 모든 버킷 삭제
+     */
+    void deleteByProjectIdAndSessionId(String projectId, String sessionId);
+}
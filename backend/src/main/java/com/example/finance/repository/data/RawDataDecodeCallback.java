@@ -0,0 +1,77 @@
+package com.example.finance.repository.data;
+
+import com.example.finance.model.data.RawDataDocument;
+import com.example.finance.model.data.RawDataSchemaDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * compact 형식 raw_data 복원
+ *
+ * values 배열만 있는 행을 조회하면 raw_data_schema 의 headers 로 data 맵을 채운다.
+ * Repository / MongoTemplate 조회 결과 모두에 적용되므로 호출부는 형식을 알 필요가 없다.
+ */
+@Slf4j
+@Component
+public class RawDataDecodeCallback implements AfterConvertCallback<RawDataDocument> {
+
+    private static final int MAX_CACHED_SCHEMAS = 256;
+
+    private final RawDataSchemaRepository rawDataSchemaRepository;
+
+    // 스키마는 업로드 후 바뀌지 않으므로 LRU 캐시
+    private final Map<String, RawDataSchemaDocument> schemaCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RawDataSchemaDocument> eldest) {
+                    return size() > MAX_CACHED_SCHEMAS;
+                }
+            });
+
+    public RawDataDecodeCallback(@Lazy RawDataSchemaRepository rawDataSchemaRepository) {
+        this.rawDataSchemaRepository = rawDataSchemaRepository;
+    }
+
+    @Override
+    public RawDataDocument onAfterConvert(RawDataDocument entity, Document document, String collection) {
+        return decode(entity);
+    }
+
+    /**
+     * values 배열 → data 맵 복원 (raw_data_bucket 에서 풀어낸 행에도 사용)
+     */
+    public RawDataDocument decode(RawDataDocument entity) {
+        if (entity.getValues() == null || entity.getData() != null) {
+            return entity;
+        }
+
+        RawDataSchemaDocument schema = schemaCache.computeIfAbsent(entity.getUploadId(),
+                uploadId -> rawDataSchemaRepository.findById(uploadId).orElse(null));
+        if (schema == null) {
+            log.warn("raw_data_schema 없음: uploadId={}, rowNumber={}", entity.getUploadId(), entity.getRowNumber());
+            return entity;
+        }
+
+        List<String> headers = schema.getHeaders();
+        List<Object> values = entity.getValues();
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            data.put(headers.get(i), i < values.size() ? values.get(i) : null);
+        }
+
+        entity.setData(data);
+        entity.setValues(null);
+        if (entity.getCreatedAt() == null) {
+            entity.setCreatedAt(schema.getCreatedAt());
+        }
+        return entity;
+    }
+}
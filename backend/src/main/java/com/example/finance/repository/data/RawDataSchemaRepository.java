@@ -0,0 +1,22 @@
+package com.example.finance.repository.data;
+
+import com.example.finance.model.data.RawDataSchemaDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * RawDataSchema Repository (_id = uploadId)
+ */
+@Repository
+public interface RawDataSchemaRepository extends MongoRepository<RawDataSchemaDocument, String> {
+
+    /**
+     * 세션의 모든 스키마 삭제
+     */
+    void deleteBySessionId(String sessionId);
+
+    /**
+     * 프로젝트 + 세션의 모든 스키마 삭제
+     */
+    void deleteByProjectIdAndSessionId(String projectId, String sessionId);
+}
@@ -0,0 +1,14 @@
+package com.example.finance.repository.upload;
+
+import com.example.finance.model.upload.ColumnDistinctValues;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ColumnDistinctValues Repository (_id = {fileId}:{컬럼 인덱스})
+ */
+@Repository
+public interface ColumnDistinctValuesRepository extends MongoRepository<ColumnDistinctValues, String> {
+
+    void deleteByFileId(String fileId);
+}
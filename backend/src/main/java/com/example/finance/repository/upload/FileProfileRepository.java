@@ -0,0 +1,12 @@
+package com.example.finance.repository.upload;
+
+import com.example.finance.model.upload.FileProfile;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * FileProfile Repository (_id = fileId)
+ */
+@Repository
+public interface FileProfileRepository extends MongoRepository<FileProfile, String> {
+}
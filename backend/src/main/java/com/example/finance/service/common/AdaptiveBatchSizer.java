@@ -0,0 +1,136 @@
+package com.example.finance.service.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 삽입 배치 크기 조정 (행 수 + 추정 BSON 바이트)
+ *
+ * 배치는 행 수 상한 또는 바이트 목표 중 먼저 닿는 쪽에서 저장한다.
+ * 바이트 목표는 저장 지연을 보고 조정한다: 목표 지연보다 빠르면 키우고 느리면 줄인다 (한 번에 ±30% 이내).
+ * (Lambda Worker 의 AdaptiveBatchSizer 와 동일 규칙)
+ */
+@Slf4j
+@Component
+public class AdaptiveBatchSizer {
+
+    // 문서 공통 필드(_id, project_id, session_id, upload_id, row_number 등) 추정 크기 (bucket 형식은 버킷 문서당 1번)
+    public static final int DOCUMENT_OVERHEAD_BYTES = 200;
+    // bucket 형식 rows 배열 안의 행 배열 하나 (배열 헤더/종료 + 요소 타입 + 인덱스 키)
+    private static final int BUCKET_ROW_OVERHEAD_BYTES = 12;
+
+    private final int maxRows;
+    private final long minBytes;
+    private final long maxBytes;
+    private final long targetMillis;
+
+    private volatile long targetBytes;
+
+    public AdaptiveBatchSizer(
+            @Value("${raw-data.batch.max-rows:5000}") int maxRows,
+            @Value("${raw-data.batch.target-mb:4}") long targetMb,
+            @Value("${raw-data.batch.min-mb:1}") long minMb,
+            @Value("${raw-data.batch.max-mb:16}") long maxMb,
+            @Value("${raw-data.batch.target-millis:500}") long targetMillis) {
+        this.maxRows = maxRows;
+        this.minBytes = minMb * 1024 * 1024;
+        this.maxBytes = maxMb * 1024 * 1024;
+        this.targetMillis = targetMillis;
+        this.targetBytes = Math.max(minBytes, Math.min(maxBytes, targetMb * 1024 * 1024));
+    }
+
+    /**
+     * 배치를 저장할 때인지
+     */
+    public boolean isFull(int rows, long bytes) {
+        return rows >= maxRows || bytes >= targetBytes;
+    }
+
+    /**
+     * 저장 지연 반영
+     */
+    public void observe(long bytes, long millis) {
+        // 목표 바이트에 못 미친 배치(마지막 배치 등)는 속도 판단에 쓰지 않음
+        long current = targetBytes;
+        if (bytes < current / 2) {
+            return;
+        }
+        double ratio = Math.sqrt((double) targetMillis / Math.max(1, millis));
+        double factor = Math.max(0.7, Math.min(1.3, ratio));
+        targetBytes = Math.max(minBytes, Math.min(maxBytes, (long) (current * factor)));
+        log.debug("배치 바이트 목표 조정: {} → {} ({}ms)", current, targetBytes, millis);
+    }
+
+    /**
+     * 키 이름 바이트 합 (map 형식에서 행마다 반복되는 부분, 헤더당 한 번 계산)
+     */
+    public static long keyBytes(List<String> headers) {
+        long bytes = 0;
+        for (String header : headers) {
+            bytes += header.getBytes(StandardCharsets.UTF_8).length + 2; // 타입 바이트 + 종료 0
+        }
+        return bytes;
+    }
+
+    /**
+     * 행 하나의 추정 BSON 크기 (행 = 문서 하나, 키 이름 제외)
+     */
+    public static long rowBytes(List<Object> values) {
+        return DOCUMENT_OVERHEAD_BYTES + valuesBytes(values);
+    }
+
+    /**
+     * 버킷 안 행 하나의 추정 BSON 크기 (문서 공통 필드는 버킷마다 DOCUMENT_OVERHEAD_BYTES 로 따로 더함)
+     */
+    public static long bucketRowBytes(List<Object> values) {
+        return BUCKET_ROW_OVERHEAD_BYTES + valuesBytes(values);
+    }
+
+    private static long valuesBytes(List<Object> values) {
+        long bytes = 0;
+        for (Object value : values) {
+            bytes += valueBytes(value);
+        }
+        return bytes;
+    }
+
+    private static long valueBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            return 5 + utf8Length(text);
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Number || value instanceof Date || value instanceof LocalDateTime) {
+            return 8;
+        }
+        return 5 + utf8Length(value.toString());
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
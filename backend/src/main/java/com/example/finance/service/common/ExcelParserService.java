@@ -1,23 +1,23 @@
 package com.example.finance.service.common;
 
+import com.example.finance.enums.ColumnType;
+import com.example.finance.model.data.RawDataBucketDocument;
 import com.example.finance.model.data.RawDataDocument;
+import com.example.finance.model.data.RawDataSchemaDocument;
 import com.example.finance.model.upload.UploadSession;
+import com.example.finance.repository.data.RawDataBucketRepository;
 import com.example.finance.repository.data.RawDataRepository;
+import com.example.finance.repository.data.RawDataSchemaRepository;
 import com.example.finance.repository.upload.UploadSessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.core.ResponseInputStream;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,15 +28,28 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class ExcelParserService {
 
-    private final S3Client s3Client;
+    private final XlsxMetadataProbe xlsxMetadataProbe;
     private final RawDataRepository rawDataRepository;
+    private final RawDataSchemaRepository rawDataSchemaRepository;
+    private final RawDataBucketRepository rawDataBucketRepository;
     private final UploadSessionRepository uploadSessionRepository;
     private final RedisService redisService;
+    private final AdaptiveBatchSizer batchSizer;
 
     @Value("${aws.s3.excel-bucket}")
     private String excelBucket;
 
-    private static final int BATCH_SIZE = 1000; // MongoDB 배치 삽입 크기
+    // raw_data 저장 형식 (map | compact | bucket)
+    @Value("${raw-data.format:map}")
+    private String rawDataFormat;
+
+    // bucket 형식의 문서당 행 수
+    @Value("${raw-data.bucket-size:256}")
+    private int bucketSize;
+
+    // bucket 형식의 문서당 추정 바이트 상한 (문서 최대 16MB, 넓은 행은 bucketSize 전에 버킷을 닫음)
+    @Value("${raw-data.bucket-max-mb:8}")
+    private long bucketMaxMb;
 
     /**
      * Excel 파일 비동기 파싱
@@ -59,81 +72,25 @@ public class ExcelParserService {
             // 2. 상태 업데이트: PROCESSING
             updateSessionStatus(session, UploadSession.UploadStatus.PROCESSING, 0);
 
-            // 3. S3에서 파일 다운로드
-            log.info("S3에서 파일 다운로드: bucket={}, key={}", session.getS3Bucket(), session.getS3Key());
-            ResponseInputStream<GetObjectResponse> s3Object = downloadFromS3(session.getS3Bucket(), session.getS3Key());
-
-            // 4. Excel 파싱
-            try (Workbook workbook = new XSSFWorkbook(s3Object)) {
-                Sheet sheet = workbook.getSheetAt(0); // 첫 번째 시트
-                int totalRows = sheet.getPhysicalNumberOfRows();
-                log.info("총 행 개수: {}", totalRows);
-
-                // 5. 헤더 추출 (첫 번째 행)
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    throw new RuntimeException("헤더 행이 없습니다");
-                }
-                List<String> headers = extractHeaders(headerRow);
-                log.info("헤더: {}", headers);
-
-                // 6. 데이터 행 파싱 (배치 처리)
-                List<RawDataDocument> batch = new ArrayList<>();
-                int processedRows = 0;
-
-                for (int rowIndex = 1; rowIndex < totalRows; rowIndex++) { // 헤더 제외
-                    Row row = sheet.getRow(rowIndex);
-                    if (row == null) continue;
-
-                    // 행 데이터 추출
-                    Map<String, Object> rowData = extractRowData(headers, row);
-
-                    // RawDataDocument 생성
-                    RawDataDocument document = RawDataDocument.builder()
-                            .projectId(session.getProjectId())  // ⭐ 추가!
-                            .sessionId(session.getSessionId())
-                            .uploadId(uploadId)
-                            .rowNumber(rowIndex)
-                            .data(rowData)
-                            .createdAt(LocalDateTime.now())
-                            .updatedAt(LocalDateTime.now())
-                            .build();
-
-                    batch.add(document);
-
-                    // 배치 삽입
-                    if (batch.size() >= BATCH_SIZE) {
-                        rawDataRepository.saveAll(batch);
-                        processedRows += batch.size();
-                        batch.clear();
-
-                        // 진행률 업데이트
-                        int progress = (int) ((processedRows * 100.0) / (totalRows - 1));
-                        updateSessionProgress(session, processedRows, totalRows - 1, progress);
-
-                        log.info("진행률: {}% ({}/{})", progress, processedRows, totalRows - 1);
-                    }
-                }
-
-                // 남은 데이터 삽입
-                if (!batch.isEmpty()) {
-                    rawDataRepository.saveAll(batch);
-                    processedRows += batch.size();
-                }
-
-                // 7. 완료 처리
-                updateSessionStatus(session, UploadSession.UploadStatus.COMPLETED, 100);
-                session.setTotalRows(totalRows - 1); // 헤더 제외
-                session.setProcessedRows(processedRows);
-                session.setCompletedAt(LocalDateTime.now());
-                uploadSessionRepository.save(session);
-
-                log.info("Excel 파싱 완료: uploadId={}, totalRows={}, processedRows={}",
-                        uploadId, totalRows - 1, processedRows);
+            // 3. 총 행 수 (Dimension 기준, 진행률 표시용)
+            Long dimensionRows = xlsxMetadataProbe.probe(session.getS3Key(), 0).getDataRowCount();
+            int totalRows = dimensionRows != null ? dimensionRows.intValue() : 0;
+            log.info("총 행 개수: {}", totalRows);
+
+            // 4. Excel 스트리밍 파싱 (S3 range 스트림을 행 단위로 읽음, 워크북을 메모리에 올리지 않음)
+            SheetWriter writer = new SheetWriter(session, uploadId, totalRows);
+            xlsxMetadataProbe.scanRows(session.getS3Key(), writer::accept);
+            writer.finish();
+
+            // 7. 완료 처리
+            updateSessionStatus(session, UploadSession.UploadStatus.COMPLETED, 100);
+            session.setTotalRows(writer.dataRows);
+            session.setProcessedRows(writer.processedRows);
+            session.setCompletedAt(LocalDateTime.now());
+            uploadSessionRepository.save(session);
 
-            } catch (IOException e) {
-                throw new RuntimeException("Excel 파일 읽기 실패", e);
-            }
+            log.info("Excel 파싱 완료: uploadId={}, totalRows={}, processedRows={}",
+                    uploadId, writer.dataRows, writer.processedRows);
 
         } catch (Exception e) {
             log.error("Excel 파싱 실패: uploadId={}", uploadId, e);
@@ -153,84 +110,239 @@ public class ExcelParserService {
     }
 
     /**
-     * S3에서 파일 다운로드
+     * 시트 행을 받아 형식별 문서로 모아 배치 저장 (첫 행은 헤더)
      */
-    private ResponseInputStream<GetObjectResponse> downloadFromS3(String bucket, String key) {
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(bucket)
-                .key(key)
-                .build();
+    private class SheetWriter {
+        private final UploadSession session;
+        private final String uploadId;
+        private final int totalRows;
+        private final boolean compact = "compact".equalsIgnoreCase(rawDataFormat);
+        private final boolean bucket = "bucket".equalsIgnoreCase(rawDataFormat);
+
+        private List<String> headers;
+        private RawDataSchemaDocument schema;
+        private final Map<String, Map<String, Long>> columnTypeCounts = new HashMap<>();
+
+        private final List<RawDataDocument> batch = new ArrayList<>();
+        private final List<RawDataBucketDocument> bucketBatch = new ArrayList<>();
+        private int pendingRows = 0;
+        private long pendingBytes = 0;
+        private int processedRows = 0;
+        private int dataRows = 0;
+        // 행마다 반복되는 키 이름 크기 (map: 컬럼명, compact/bucket: 배열 인덱스)
+        private long rowKeyBytes;
+
+        // bucket 형식: 채우는 중인 버킷 (연속된 행만 묶음)
+        private List<List<Object>> bucketRows = null;
+        private int bucketStartRow = 0;
+        private int bucketRowOffset = 0;
+        private long bucketBytes = 0;
+        private int previousRowIndex = 0;
+
+        private SheetWriter(UploadSession session, String uploadId, int totalRows) {
+            this.session = session;
+            this.uploadId = uploadId;
+            this.totalRows = totalRows;
+        }
+
+        private void accept(int rowNumber, List<XlsxMetadataProbe.ProbeCell> cells) {
+            int rowIndex = rowNumber - 1; // 헤더 = 0
+
+            // 5. 헤더 추출 (첫 번째 행)
+            if (headers == null) {
+                if (rowIndex != 0) {
+                    throw new RuntimeException("헤더 행이 없습니다");
+                }
+                headers = extractHeaders(cells);
+                log.info("헤더: {}", headers);
+
+                // ⭐ 컬럼명은 스키마 문서에 한 번만 저장 (compact/bucket 행 복원 + 컬럼 타입 집계)
+                schema = rawDataSchemaRepository.save(RawDataSchemaDocument.builder()
+                        .id(uploadId)
+                        .projectId(session.getProjectId())
+                        .sessionId(session.getSessionId())
+                        .uploadId(uploadId)
+                        .headers(headers)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+                rowKeyBytes = compact || bucket ? headers.size() * 4L : AdaptiveBatchSizer.keyBytes(headers);
+                return;
+            }
+
+            // 6. 데이터 행 파싱 (배치 처리), 빈 행이 끼면 버킷을 닫음
+            if (rowIndex != previousRowIndex + 1 && bucketRows != null) {
+                bucketBatch.add(buildBucket(session, uploadId, bucketStartRow, bucketRowOffset, bucketRows));
+                bucketRows = null;
+            }
+            previousRowIndex = rowIndex;
+            dataRows++;
+
+            List<Object> values = extractRowValues(headers, cells);
+            countColumnTypes(columnTypeCounts, values);
+
+            if (bucket) {
+                if (bucketRows == null) {
+                    bucketRows = new ArrayList<>(bucketSize);
+                    bucketStartRow = rowIndex;
+                    bucketRowOffset = dataRows - 1; // 앞서 저장된 행 수 (빈 행 제외)
+                    bucketBytes = AdaptiveBatchSizer.DOCUMENT_OVERHEAD_BYTES; // 문서 공통 필드는 버킷당 1번
+                    pendingBytes += bucketBytes;
+                }
+                long rowBytes = rowKeyBytes + AdaptiveBatchSizer.bucketRowBytes(values);
+                bucketRows.add(values);
+                bucketBytes += rowBytes;
+                pendingBytes += rowBytes;
+                if (bucketRows.size() >= bucketSize || bucketBytes >= bucketMaxMb * 1024 * 1024) {
+                    bucketBatch.add(buildBucket(session, uploadId, bucketStartRow, bucketRowOffset, bucketRows));
+                    bucketRows = null;
+                }
+            } else {
+                // RawDataDocument 생성
+                RawDataDocument.RawDataDocumentBuilder builder = RawDataDocument.builder()
+                        .projectId(session.getProjectId())  // ⭐ 추가!
+                        .sessionId(session.getSessionId())
+                        .uploadId(uploadId)
+                        .rowNumber(rowIndex);
+
+                batch.add(compact
+                        ? builder.values(values).build()
+                        : builder.data(toRowData(headers, values))
+                                .createdAt(LocalDateTime.now())
+                                .updatedAt(LocalDateTime.now())
+                                .build());
+                pendingBytes += rowKeyBytes + AdaptiveBatchSizer.rowBytes(values);
+            }
+            pendingRows++;
+
+            // 배치 삽입 (행 수/추정 바이트 기준, 버킷은 다 채운 뒤에만)
+            if (batchSizer.isFull(pendingRows, pendingBytes) && bucketRows == null) {
+                flush();
+
+                // 진행률 업데이트 (Dimension 이 없으면 행 수를 알 수 없으므로 처리 행 수 기준)
+                int total = Math.max(totalRows, processedRows);
+                int progress = Math.min(99, (int) ((processedRows * 100.0) / Math.max(1, total)));
+                updateSessionProgress(session, processedRows, total, progress);
+
+                log.info("진행률: {}% ({}/{})", progress, processedRows, total);
+            }
+        }
+
+        /**
+         * 남은 데이터 삽입 + 컬럼 타입 집계 저장
+         */
+        private void finish() {
+            if (headers == null) {
+                throw new RuntimeException("헤더 행이 없습니다");
+            }
+            if (bucketRows != null) {
+                bucketBatch.add(buildBucket(session, uploadId, bucketStartRow, bucketRowOffset, bucketRows));
+                bucketRows = null;
+            }
+            if (pendingRows > 0) {
+                flush();
+            }
+
+            schema.setColumnTypeCounts(columnTypeCounts);
+            rawDataSchemaRepository.save(schema);
+            log.info("컬럼 타입: {}", schema.inferColumnTypes());
+        }
+
+        private void flush() {
+            saveBatch(batch, bucketBatch, pendingBytes);
+            processedRows += pendingRows;
+            pendingRows = 0;
+            pendingBytes = 0;
+        }
+    }
+
+    /**
+     * 배치 저장 (형식에 맞는 쪽만 채워져 있음, 저장 지연은 배치 크기 조정에 반영)
+     */
+    private void saveBatch(List<RawDataDocument> batch, List<RawDataBucketDocument> bucketBatch, long bytes) {
+        long startTime = System.currentTimeMillis();
+        if (!batch.isEmpty()) {
+            rawDataRepository.saveAll(batch);
+            batch.clear();
+        }
+        if (!bucketBatch.isEmpty()) {
+            rawDataBucketRepository.saveAll(bucketBatch);
+            bucketBatch.clear();
+        }
+        batchSizer.observe(bytes, System.currentTimeMillis() - startTime);
+    }
 
-        return s3Client.getObject(getObjectRequest);
+    /**
+     * 버킷 생성 (startRow 부터 연속된 행, rowOffset = 업로드 안에서 앞선 행 수)
+     */
+    private RawDataBucketDocument buildBucket(UploadSession session, String uploadId,
+                                              int startRow, int rowOffset, List<List<Object>> rows) {
+        return RawDataBucketDocument.builder()
+                .projectId(session.getProjectId())
+                .sessionId(session.getSessionId())
+                .uploadId(uploadId)
+                .startRow(startRow)
+                .rowOffset(rowOffset)
+                .rowCount(rows.size())
+                .rows(rows)
+                .build();
     }
 
     /**
-     * 헤더 추출
+     * 헤더 추출 (헤더 행에 있는 셀 순서대로)
      */
-    private List<String> extractHeaders(Row headerRow) {
+    private List<String> extractHeaders(List<XlsxMetadataProbe.ProbeCell> headerCells) {
         List<String> headers = new ArrayList<>();
-        for (Cell cell : headerRow) {
-            String header = getCellValueAsString(cell);
-            headers.add(header != null ? header : "Column_" + cell.getColumnIndex());
+        for (XlsxMetadataProbe.ProbeCell cell : headerCells) {
+            Object header = cell.getValue();
+            headers.add(header != null ? header.toString() : "Column_" + cell.getColumn());
         }
         return headers;
     }
 
     /**
-     * 행 데이터 추출
+     * 행 데이터 추출 (map 형식)
      */
-    private Map<String, Object> extractRowData(List<String> headers, Row row) {
+    private Map<String, Object> toRowData(List<String> headers, List<Object> values) {
         Map<String, Object> data = new LinkedHashMap<>();
 
         for (int i = 0; i < headers.size(); i++) {
-            Cell cell = row.getCell(i);
-            String header = headers.get(i);
-            Object value = getCellValue(cell);
-            data.put(header, value);
+            data.put(headers.get(i), i < values.size() ? values.get(i) : null);
         }
 
         return data;
     }
 
     /**
-     * 셀 값 추출 (타입별 처리)
+     * 행 값 배열 추출 (끝의 빈 셀은 생략)
+     *
+     * 숫자 → Double, 날짜 → UTC 기준 Date, 수식 → 캐시된 결과값 (오류는 오류 값)
      */
-    private Object getCellValue(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                } else {
-                    return cell.getNumericCellValue();
-                }
+    private List<Object> extractRowValues(List<String> headers, List<XlsxMetadataProbe.ProbeCell> cells) {
+        List<Object> values = new ArrayList<>(Collections.nCopies(headers.size(), null));
 
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
-
-            case FORMULA:
-                return cell.getCellFormula();
-
-            case BLANK:
-                return null;
-
-            default:
-                return cell.toString();
+        for (XlsxMetadataProbe.ProbeCell cell : cells) {
+            if (cell.getColumn() >= 0 && cell.getColumn() < headers.size()) {
+                values.set(cell.getColumn(), cell.getValue());
+            }
         }
+        while (!values.isEmpty() && values.get(values.size() - 1) == null) {
+            values.remove(values.size() - 1);
+        }
+
+        return values;
     }
 
     /**
-     * 셀 값을 문자열로 추출
+     * 컬럼 타입 집계 (컬럼 인덱스 → 타입명 → 개수)
      */
-    private String getCellValueAsString(Cell cell) {
-        Object value = getCellValue(cell);
-        return value != null ? value.toString() : null;
+    private void countColumnTypes(Map<String, Map<String, Long>> counts, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            ColumnType type = ColumnType.of(values.get(i));
+            if (type != null) {
+                counts.computeIfAbsent(String.valueOf(i), k -> new HashMap<>())
+                        .merge(type.name(), 1L, Long::sum);
+            }
+        }
     }
 
     /**
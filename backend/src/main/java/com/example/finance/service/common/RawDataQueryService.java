@@ -0,0 +1,212 @@
+package com.example.finance.service.common;
+
+import com.example.finance.exception.BusinessException;
+import com.example.finance.model.data.RawDataBucketDocument;
+import com.example.finance.model.data.RawDataDocument;
+import com.example.finance.repository.data.RawDataBucketRepository;
+import com.example.finance.repository.data.RawDataDecodeCallback;
+import com.example.finance.repository.data.RawDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Raw 데이터 조회 (저장 형식 무관)
+ *
+ * 버킷이 없으면 raw_data 를 그대로 페이징 조회한다 (pageable 정렬 그대로).
+ * 버킷이 있으면 업로드별 행 수를 집계해 페이지가 걸치는 업로드만 읽는다.
+ * - raw_data 업로드: row_number 순으로 필요한 구간만 조회
+ * - raw_data_bucket 업로드: row_offset 인덱스로 구간과 겹치는 버킷만 조회 후 행 단위로 풀기
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RawDataQueryService {
+
+    // 버킷이 섞인 조회에서 지원하는 정렬 (업로드 → 행 순서, 방향만 선택)
+    private static final Set<String> ROW_ORDER_PROPERTIES = Set.of("uploadId", "rowNumber");
+
+    private final RawDataRepository rawDataRepository;
+    private final RawDataBucketRepository rawDataBucketRepository;
+    private final RawDataDecodeCallback rawDataDecodeCallback;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 업로드 하나의 저장 형식과 행 수
+     */
+    private record UploadRows(String uploadId, boolean bucket, long rows) {
+    }
+
+    /**
+     * 세션 ID로 페이징 조회
+     *
+     * 버킷이 있는 세션은 uploadId / rowNumber 정렬만 지원한다 (그 외 정렬은 INVALID_SORT).
+     */
+    public Page<RawDataDocument> findBySessionId(String sessionId, Pageable pageable) {
+        if (!rawDataBucketRepository.existsBySessionId(sessionId)) {
+            return rawDataRepository.findBySessionId(sessionId, pageable);
+        }
+        return findRows(Criteria.where("session_id").is(sessionId), pageable);
+    }
+
+    /**
+     * 전체 페이징 조회 (raw_data + raw_data_bucket)
+     */
+    public Page<RawDataDocument> findAll(Pageable pageable) {
+        if (rawDataBucketRepository.count() == 0) {
+            return rawDataRepository.findAll(pageable);
+        }
+        return findRows(new Criteria(), pageable);
+    }
+
+    /**
+     * 전체 행 수 (raw_data 문서 수 + 버킷 행 수)
+     */
+    public long count() {
+        return rawDataRepository.count() + countRowsByUpload(new Criteria(), "raw_data_bucket").stream()
+                .mapToLong(UploadRows::rows)
+                .sum();
+    }
+
+    /**
+     * 업로드 → 행 순서로 이어 붙인 전체에서 페이지 구간 조회
+     */
+    private Page<RawDataDocument> findRows(Criteria scope, Pageable pageable) {
+        boolean descending = isDescending(pageable.getSort());
+
+        // 1. 업로드별 행 수 (두 컬렉션, 업로드 ID 순)
+        List<UploadRows> uploads = new ArrayList<>(countRowsByUpload(scope, "raw_data"));
+        uploads.addAll(countRowsByUpload(scope, "raw_data_bucket"));
+        uploads.sort(Comparator.comparing(UploadRows::uploadId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(UploadRows::bucket));
+
+        long total = uploads.stream().mapToLong(UploadRows::rows).sum();
+        long pageStart = Math.min(pageable.getOffset(), total);
+        long pageEnd = Math.min(pageStart + pageable.getPageSize(), total);
+
+        // 역순은 정순 구간으로 바꿔 읽은 뒤 뒤집음
+        long from = descending ? total - pageEnd : pageStart;
+        long to = descending ? total - pageStart : pageEnd;
+
+        // 2. 구간과 겹치는 업로드만 조회
+        List<RawDataDocument> content = new ArrayList<>();
+        long position = 0;
+        for (UploadRows upload : uploads) {
+            if (position >= to) {
+                break;
+            }
+            long uploadEnd = position + upload.rows();
+            if (uploadEnd > from) {
+                int localFrom = (int) Math.max(0, from - position);
+                int localTo = (int) Math.min(upload.rows(), to - position);
+                content.addAll(upload.bucket()
+                        ? readBuckets(upload.uploadId(), localFrom, localTo)
+                        : readRawData(upload.uploadId(), localFrom, localTo));
+            }
+            position = uploadEnd;
+        }
+
+        if (descending) {
+            Collections.reverse(content);
+        }
+        log.debug("행 조회: uploads={}, rows={}, total={}", uploads.size(), content.size(), total);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * 정렬 → 역순 여부 (uploadId / rowNumber 만, 방향은 하나로)
+     */
+    private boolean isDescending(Sort sort) {
+        Sort.Direction direction = null;
+        for (Sort.Order order : sort) {
+            if (!ROW_ORDER_PROPERTIES.contains(order.getProperty())
+                    || (direction != null && direction != order.getDirection())) {
+                throw new BusinessException("INVALID_SORT",
+                        "bucket 형식 데이터는 업로드/행 번호 순 정렬만 지원합니다: " + sort);
+            }
+            direction = order.getDirection();
+        }
+        return direction == Sort.Direction.DESC;
+    }
+
+    /**
+     * 업로드별 행 수 집계 (raw_data: 문서 수, raw_data_bucket: row_count 합)
+     */
+    private List<UploadRows> countRowsByUpload(Criteria scope, String collection) {
+        boolean bucket = "raw_data_bucket".equals(collection);
+        AggregationOperation group = bucket
+                ? Aggregation.group("upload_id").sum("row_count").as("rows")
+                : Aggregation.group("upload_id").count().as("rows");
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(Aggregation.match(scope), group),
+                        collection, Document.class)
+                .getMappedResults().stream()
+                .map(result -> new UploadRows(result.getString("_id"), bucket,
+                        ((Number) result.get("rows")).longValue()))
+                .toList();
+    }
+
+    /**
+     * raw_data 업로드의 [from, to) 번째 행 (row_number 순)
+     */
+    private List<RawDataDocument> readRawData(String uploadId, int from, int to) {
+        Query query = Query.query(Criteria.where("upload_id").is(uploadId))
+                .with(Sort.by("rowNumber"))
+                .skip(from)
+                .limit(to - from);
+        return mongoTemplate.find(query, RawDataDocument.class);
+    }
+
+    /**
+     * 버킷 업로드의 [from, to) 번째 행 (from 을 담은 버킷 + 구간 안에서 시작하는 버킷)
+     */
+    private List<RawDataDocument> readBuckets(String uploadId, int from, int to) {
+        List<RawDataBucketDocument> buckets = new ArrayList<>();
+        rawDataBucketRepository.findFirstByUploadIdAndRowOffsetLessThanEqualOrderByRowOffsetDesc(uploadId, from)
+                .ifPresent(buckets::add);
+        buckets.addAll(rawDataBucketRepository
+                .findByUploadIdAndRowOffsetGreaterThanAndRowOffsetLessThanOrderByRowOffsetAsc(uploadId, from, to));
+
+        List<RawDataDocument> rows = new ArrayList<>();
+        for (RawDataBucketDocument bucket : buckets) {
+            int offset = bucket.getRowOffset();
+            int start = Math.max(0, from - offset);
+            int end = Math.min(bucket.getRows().size(), to - offset);
+            for (int i = start; i < end; i++) {
+                rows.add(unpack(bucket, i));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 버킷의 i 번째 행 → RawDataDocument
+     */
+    private RawDataDocument unpack(RawDataBucketDocument bucket, int index) {
+        RawDataDocument document = RawDataDocument.builder()
+                .id(bucket.getId() + ":" + index)
+                .projectId(bucket.getProjectId())
+                .sessionId(bucket.getSessionId())
+                .uploadId(bucket.getUploadId())
+                .rowNumber(bucket.getStartRow() + index)
+                .values(bucket.getRows().get(index))
+                .build();
+        return rawDataDecodeCallback.decode(document);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.finance.service.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * S3 객체 로컬 디스크 캐시 (노드 단위)
+ *
+ * 키는 S3 키 + ETag 이므로 객체가 바뀌면 새 항목이 된다.
+ * 전체 크기가 max-mb 를 넘으면 가장 오래 쓰지 않은 파일부터 지운다 (LRU).
+ * 같은 항목을 동시에 요청하면 다운로드 하나를 함께 기다린다.
+ * 지운 파일도 이미 열린 채널은 닫을 때까지 읽을 수 있다 (POSIX unlink).
+ */
+@Slf4j
+@Component
+public class S3ObjectCache {
+
+    /**
+     * 캐시 파일 채우기 (target 에 객체 전체를 쓴다)
+     */
+    @FunctionalInterface
+    public interface Loader {
+        void load(Path target) throws Exception;
+    }
+
+    @Value("${aws.s3.cache.dir:${java.io.tmpdir}/s3-object-cache}")
+    private String cacheDir;
+
+    @Value("${aws.s3.cache.max-mb:2048}")
+    private long maxMb;
+
+    // 접근 순서 (가장 오래 쓰지 않은 항목이 앞)
+    private final LinkedHashMap<String, Path> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> sizes = new LinkedHashMap<>();
+    private long totalBytes;
+    private Path directory;
+
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 캐시 파일 경로 (없으면 loader 로 채운 뒤 반환)
+     */
+    public Path get(String s3Key, String eTag, Loader loader) throws IOException {
+        String cacheKey = s3Key + "@" + eTag;
+
+        Path cached = lookup(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = loading.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+            }
+        }
+
+        try {
+            // 앞선 적재가 막 끝났을 수 있음
+            Path file = lookup(cacheKey);
+            if (file == null) {
+                file = load(cacheKey, loader);
+            }
+            created.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(cacheKey, created);
+        }
+    }
+
+    /**
+     * 현재 캐시 사용량 (bytes)
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized Path lookup(String cacheKey) {
+        Path file = entries.get(cacheKey);
+        if (file == null) {
+            return null;
+        }
+        if (!Files.exists(file)) {
+            // 외부에서 지워진 파일
+            remove(cacheKey);
+            return null;
+        }
+        return file;
+    }
+
+    private Path load(String cacheKey, Loader loader) throws IOException {
+        Path directory = directory();
+        Path file = directory.resolve(fileName(cacheKey));
+        Path temp = Files.createTempFile(directory, "loading-", ".tmp");
+
+        long startTime = System.currentTimeMillis();
+        try {
+            loader.load(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e instanceof IOException io ? io : new IOException("S3 캐시 적재 실패: " + e.getMessage(), e);
+        }
+
+        long size = Files.size(file);
+        synchronized (this) {
+            remove(cacheKey);
+            evict(size);
+            entries.put(cacheKey, file);
+            sizes.put(cacheKey, size);
+            totalBytes += size;
+        }
+
+        log.info("S3 캐시 적재: key={}, {} bytes, {}ms, 캐시 사용량={} bytes",
+                cacheKey, size, System.currentTimeMillis() - startTime, getTotalBytes());
+        return file;
+    }
+
+    /**
+     * 새 항목이 들어갈 자리 만들기 (한도보다 큰 항목은 다른 항목을 모두 비우고 들어간다)
+     */
+    private void evict(long incomingBytes) {
+        long maxBytes = maxMb * 1024L * 1024L;
+        Iterator<Map.Entry<String, Path>> iterator = entries.entrySet().iterator();
+        while (totalBytes + incomingBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Path> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= sizes.remove(eldest.getKey());
+            try {
+                Files.deleteIfExists(eldest.getValue());
+            } catch (IOException e) {
+                log.warn("S3 캐시 파일 삭제 실패: {}", eldest.getValue(), e);
+            }
+            log.debug("S3 캐시 제거 (LRU): key={}", eldest.getKey());
+        }
+    }
+
+    private void remove(String cacheKey) {
+        entries.remove(cacheKey);
+        Long size = sizes.remove(cacheKey);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * 캐시 디렉토리 (처음 사용할 때 만들고, 이전 프로세스가 남긴 파일은 비운다)
+     */
+    private synchronized Path directory() throws IOException {
+        if (directory == null) {
+            Path path = Path.of(cacheDir);
+            Files.createDirectories(path);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(path)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            directory = path;
+        }
+        return directory;
+    }
+
+    private static String fileName(String cacheKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(cacheKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,14 +4,31 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * S3 서비스
@@ -24,6 +41,7 @@ import java.time.Duration;
 public class S3Service {
 
     private final S3Client s3Client;
+    private final S3ObjectCache objectCache;
 
     @Value("${aws.s3.excel-bucket}")
     private String excelBucket;
@@ -31,6 +49,13 @@ public class S3Service {
     @Value("${aws.region}")
     private String region;
 
+    // 병렬 다운로드 part 크기 (MB), 동시 요청 수
+    @Value("${aws.s3.download.part-size-mb:8}")
+    private long downloadPartSizeMb;
+
+    @Value("${aws.s3.download.concurrency:8}")
+    private int downloadConcurrency;
+
     /**
      * Presigned URL 생성 (projectId 포함)
      *
@@ -90,28 +115,155 @@ public class S3Service {
     // ⭐⭐⭐ 신규 메서드 추가 ⭐⭐⭐
 
     /**
-     * S3에서 파일 다운로드
+     * S3 객체 ETag 조회 (따옴표 제거, 없으면 null)
+     */
+    public String getETag(String s3Key) {
+        try {
+            String eTag = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(excelBucket)
+                    .key(s3Key)
+                    .build()).eTag();
+            return eTag != null ? eTag.replace("\"", "") : null;
+        } catch (Exception e) {
+            log.warn("S3 ETag 조회 실패: key={}, error={}", s3Key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * byte range 스트림 열기 (다 읽지 않고 닫을 때는 abort 로 연결 정리)
      *
-     * @param s3Key S3 키
-     * @return 파일 바이트 배열
+     * @param start        시작 오프셋
+     * @param endInclusive 끝 오프셋 (포함)
      */
-    public byte[] downloadFile(String s3Key) {
-        log.info("S3 파일 다운로드: bucket={}, key={}", excelBucket, s3Key);
+    public ResponseInputStream<GetObjectResponse> openRange(String s3Key, long start, long endInclusive) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(excelBucket)
+                .key(s3Key)
+                .range("bytes=" + start + "-" + endInclusive)
+                .build());
+    }
 
+    /**
+     * 파일 끝 length 바이트 스트림 열기 (Content-Range 로 전체 크기 확인 가능)
+     */
+    public ResponseInputStream<GetObjectResponse> openSuffix(String s3Key, long length) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(excelBucket)
+                .key(s3Key)
+                .range("bytes=-" + length)
+                .build());
+    }
+
+    /**
+     * S3 객체를 로컬 디스크 캐시로 받고 경로 반환 (S3 키 + ETag 기준, 캐시에 있으면 바로 반환)
+     *
+     * 반환된 경로는 캐시 한도를 넘으면 지워질 수 있으므로 바로 열어서 쓴다.
+     */
+    private Path downloadToFile(String s3Key) {
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
                     .bucket(excelBucket)
                     .key(s3Key)
-                    .build();
+                    .build());
+
+            return objectCache.get(s3Key, head.eTag(), target -> {
+                log.info("S3 파일 다운로드: bucket={}, key={}", excelBucket, s3Key);
+                long startTime = System.currentTimeMillis();
 
-            byte[] fileBytes = s3Client.getObject(getObjectRequest).readAllBytes();
-            log.info("S3 파일 다운로드 완료: {} bytes", fileBytes.length);
+                long size = head.contentLength();
+                long partSize = downloadPartSizeMb * 1024L * 1024L;
+                try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                    if (size <= partSize) {
+                        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(GetObjectRequest.builder()
+                                .bucket(excelBucket)
+                                .key(s3Key)
+                                .ifMatch(head.eTag())
+                                .build())) {
+                            channel.transferFrom(Channels.newChannel(in), 0, size);
+                        }
+                    } else {
+                        downloadRanges(s3Key, head.eTag(), size, partSize, channel);
+                    }
+                    if (channel.size() != size) {
+                        throw new IOException("다운로드 크기 불일치: expected=" + size + ", received=" + channel.size());
+                    }
+                }
 
-            return fileBytes;
+                log.info("S3 파일 다운로드 완료: {} bytes, {}ms", size, System.currentTimeMillis() - startTime);
+            });
 
         } catch (Exception e) {
             log.error("S3 파일 다운로드 실패: key={}, error={}", s3Key, e.getMessage(), e);
             throw new RuntimeException("S3 파일 다운로드 실패: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * S3 객체를 로컬 디스크 캐시로 받고 읽기 채널 열기 (호출자가 close)
+     */
+    public FileChannel openFile(String s3Key) throws IOException {
+        try {
+            return FileChannel.open(downloadToFile(s3Key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // 경로를 받은 직후 LRU 로 지워진 경우 한 번 더
+            return FileChannel.open(downloadToFile(s3Key), StandardOpenOption.READ);
+        }
+    }
+
+    /**
+     * ⭐ 병렬 byte range 다운로드
+     *
+     * 최대 download-concurrency 개의 가상 스레드가 part 를 하나씩 가져가
+     * 파일의 해당 위치에 바로 쓴다.
+     * 모든 part 는 같은 ETag 로 If-Match 요청하므로 도중에 객체가 바뀌면 실패한다.
+     */
+    private void downloadRanges(String s3Key, String eTag, long size, long partSize, FileChannel channel)
+            throws Exception {
+        int partCount = (int) ((size + partSize - 1) / partSize);
+        AtomicInteger nextPart = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(downloadConcurrency, partCount); i++) {
+                workers.add(executor.submit(() -> {
+                    int part;
+                    while ((part = nextPart.getAndIncrement()) < partCount) {
+                        long start = part * partSize;
+                        long length = Math.min(partSize, size - start);
+
+                        GetObjectRequest request = GetObjectRequest.builder()
+                                .bucket(excelBucket)
+                                .key(s3Key)
+                                .range("bytes=" + start + "-" + (start + length - 1))
+                                .ifMatch(eTag)
+                                .build();
+
+                        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+                            // FileChannel 위치 지정 쓰기는 part 간 경합 없음
+                            long written = channel.transferFrom(Channels.newChannel(in), start, length);
+                            if (written != length) {
+                                throw new IOException("range 응답 길이 불일치: part=" + part +
+                                        ", expected=" + length + ", received=" + written);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    // 남은 part 는 가져가지 않도록
+                    nextPart.set(partCount);
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        }
+
+        log.info("S3 병렬 다운로드: parts={}, concurrency={}", partCount,
+                Math.min(downloadConcurrency, partCount));
+    }
+}
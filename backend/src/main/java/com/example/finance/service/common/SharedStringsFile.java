@@ -0,0 +1,133 @@
+package com.example.finance.service.common;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 공유 문자열 임시 파일 (xlsx 전체 행 순회용)
+ *
+ * 공유 문자열을 읽는 대로 UTF-8 데이터 파일과 오프셋 파일에 쓰고, 다 쓰면 두 파일을 메모리 매핑해
+ * 인덱스 조회 시점에만 디코딩한다 (Lambda SharedStringsSidecar 와 같은 방식).
+ * 문자열 수/길이와 관계없이 힙에는 조회한 문자열만 올라간다. close() 시 파일을 지운다.
+ *
+ * <pre>
+ * data:    [UTF-8 문자열 데이터 ...]
+ * offsets: [long offset × (count + 1)]   // 각 문자열 시작 위치, 마지막 값 = 데이터 길이
+ * </pre>
+ */
+final class SharedStringsFile implements AutoCloseable {
+
+    private Path dataFile;
+    private Path offsetsFile;
+    private DataOutputStream data;
+    private DataOutputStream offsets;
+    private long position;
+    private int count;
+
+    private ByteBuffer dataBuffer;
+    private ByteBuffer offsetBuffer;
+
+    SharedStringsFile() throws IOException {
+        try {
+            this.dataFile = Files.createTempFile("xlsx-shared-strings-", ".dat");
+            this.offsetsFile = Files.createTempFile("xlsx-shared-strings-", ".idx");
+            this.data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile), 64 * 1024));
+            this.offsets = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsetsFile), 64 * 1024));
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * 다음 인덱스의 문자열 추가 (seal 전에만)
+     */
+    void add(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        offsets.writeLong(position);
+        data.write(bytes);
+        position += bytes.length;
+        count++;
+    }
+
+    /**
+     * 쓰기 종료 후 메모리 매핑 (이후 get 가능)
+     */
+    void seal() throws IOException {
+        offsets.writeLong(position);
+        data.close();
+        offsets.close();
+        data = null;
+        offsets = null;
+
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("공유 문자열이 너무 큼: " + position + " bytes");
+        }
+        dataBuffer = map(dataFile);
+        offsetBuffer = map(offsetsFile);
+    }
+
+    /**
+     * 인덱스의 문자열 (범위 밖이면 null)
+     */
+    String get(int index) {
+        if (index < 0 || index >= count) {
+            return null;
+        }
+
+        int start = (int) offsetBuffer.getLong(index * Long.BYTES);
+        int end = (int) offsetBuffer.getLong((index + 1) * Long.BYTES);
+
+        byte[] bytes = new byte[end - start];
+        dataBuffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return count;
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(data);
+        closeQuietly(offsets);
+        dataBuffer = null;
+        offsetBuffer = null;
+        // 매핑이 남아 있어도 Linux 에서는 삭제 가능 (GC 시 해제)
+        deleteQuietly(dataFile);
+        deleteQuietly(offsetsFile);
+    }
+
+    private static void closeQuietly(DataOutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // 무시
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // 무시
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.finance.service.common;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQS 일괄 발행
+ *
+ * 메시지를 SendMessageBatch 단위(최대 10건, 256KB)로 묶어 여러 배치를 동시에 보내고,
+ * 일부 항목만 실패하면 해당 항목만 지수 백오프로 재시도한다. (Lambda 의 SqsBatchPublisher 와 동일 규칙)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqsBatchPublisher {
+
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
+    private static final long BASE_BACKOFF_MS = 100;
+
+    private final SqsClient sqsClient;
+
+    @Value("${aws.sqs.publish.concurrency:8}")
+    private int concurrency;
+
+    @Value("${aws.sqs.publish.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * 메시지 일괄 발행
+     *
+     * @param queueUrl 대상 큐
+     * @param bodies 메시지 본문 목록
+     * @return 재시도 후에도 발행하지 못한 메시지의 인덱스 (모두 성공하면 빈 목록)
+     */
+    public List<Integer> publish(String queueUrl, List<String> bodies) {
+        List<List<Integer>> batches = partition(bodies);
+        List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger nextBatch = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(concurrency, batches.size()); i++) {
+                executor.execute(() -> {
+                    int batch;
+                    while ((batch = nextBatch.getAndIncrement()) < batches.size()) {
+                        failed.addAll(sendWithRetry(queueUrl, bodies, batches.get(batch)));
+                    }
+                });
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(failed);
+        Collections.sort(result);
+
+        log.info("SQS 일괄 발행 완료: total={}, batches={}, failed={}",
+                bodies.size(), batches.size(), result.size());
+        return result;
+    }
+
+    /**
+     * 배치 발행 + 실패 항목 재시도 (요청 자체가 잘못된 senderFault 는 재시도 안 함)
+     */
+    private List<Integer> sendWithRetry(String queueUrl, List<String> bodies, List<Integer> indexes) {
+        List<Integer> pending = indexes;
+        List<Integer> failed = new ArrayList<>();
+
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<Integer> retry = new ArrayList<>();
+
+            try {
+                List<SendMessageBatchRequestEntry> entries = new ArrayList<>(pending.size());
+                for (Integer index : pending) {
+                    entries.add(SendMessageBatchRequestEntry.builder()
+                            .id(String.valueOf(index))
+                            .messageBody(bodies.get(index))
+                            .build());
+                }
+
+                SendMessageBatchResponse response = sqsClient.sendMessageBatch(SendMessageBatchRequest.builder()
+                        .queueUrl(queueUrl)
+                        .entries(entries)
+                        .build());
+
+                for (BatchResultErrorEntry error : response.failed()) {
+                    Integer index = Integer.valueOf(error.id());
+                    if (Boolean.TRUE.equals(error.senderFault())) {
+                        log.error("SQS 발행 실패 (재시도 안 함): index={}, code={}, message={}",
+                                index, error.code(), error.message());
+                        failed.add(index);
+                    } else {
+                        retry.add(index);
+                    }
+                }
+
+            } catch (RuntimeException e) {
+                // 요청 전체 실패 (스로틀링, 네트워크 등)
+                log.warn("SQS 배치 발행 실패 (시도 {}/{}): {}", attempt, maxAttempts, e.getMessage());
+                retry.addAll(pending);
+            }
+
+            if (retry.isEmpty() || attempt >= maxAttempts) {
+                failed.addAll(retry);
+                break;
+            }
+
+            try {
+                Thread.sleep(BASE_BACKOFF_MS << (attempt - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAll(retry);
+                break;
+            }
+            pending = retry;
+        }
+
+        return failed;
+    }
+
+    /**
+     * SendMessageBatch 한도(10건, 256KB)에 맞춰 메시지 인덱스 분할
+     */
+    private static List<List<Integer>> partition(List<String> bodies) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentBytes = 0;
+
+        for (int i = 0; i < bodies.size(); i++) {
+            int bytes = bodies.get(i).getBytes(StandardCharsets.UTF_8).length;
+            if (!current.isEmpty()
+                    && (current.size() == MAX_BATCH_ENTRIES || currentBytes + bytes > MAX_BATCH_BYTES)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(i);
+            currentBytes += bytes;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+}
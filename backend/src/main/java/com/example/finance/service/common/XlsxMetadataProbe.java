@@ -0,0 +1,978 @@
+package com.example.finance.service.common;
+
+import com.example.finance.enums.ColumnType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * xlsx 메타데이터 스트리밍 탐지 (헤더 행 + Dimension + 샘플 행)
+ *
+ * 파일 전체를 받지 않고 zip central directory 를 파일 끝 range 요청으로 읽은 뒤,
+ * 시트 XML 은 필요한 행까지만 압축 해제하며 StAX 로 읽고 연결을 끊는다.
+ * 공유 문자열도 샘플이 참조한 인덱스까지만 읽으므로 메모리 사용량은 파일 크기와 무관하다.
+ * 시트는 workbook.xml 탭 순서상 첫 번째 시트이다 (POI getSheetAt(0), Lambda XlsxWorkbook 과 동일).
+ * 날짜 값은 workbookPr date1904 에 따라 1900/1904 날짜 체계로 변환한다.
+ *
+ * scanRows 는 같은 방식으로 시트 전체를 한 번 스트리밍하며 행 단위로 넘긴다 (파일 프로파일 계산용).
+ * 시트 전체를 읽으므로 range 요청 대신 S3 키 + ETag 로 캐시된 로컬 파일(S3Service.openFile)에서 읽는다.
+ * 이때 공유 문자열은 임시 파일에 두고 조회 시점에만 읽는다 (SharedStringsFile).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class XlsxMetadataProbe {
+
+    private static final String SHEET1 = "xl/worksheets/sheet1.xml";
+    private static final String WORKBOOK = "xl/workbook.xml";
+    private static final String WORKBOOK_RELS = "xl/_rels/workbook.xml.rels";
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String STYLES = "xl/styles.xml";
+
+    // EOCD(22 bytes) + 최대 주석 길이
+    private static final int EOCD_SEARCH_BYTES = 22 + 0xFFFF;
+    private static final int MAX_LOCAL_EXTRA_BYTES = 0xFFFF;
+
+    private static final Pattern CONTENT_RANGE_TOTAL = Pattern.compile("/(\\d+)$");
+    private static final Pattern DIMENSION_LAST_ROW = Pattern.compile("(?:.*:)?[A-Z]+(\\d+)$");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    // 날짜 셀은 시간대 없는 Excel 일시를 UTC 기준 Date 로 저장 (Lambda 와 동일, 서버 시간대와 무관)
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final S3Service s3Service;
+
+    /**
+     * 셀 (헤더 문자열 + 타입)
+     */
+    @Getter
+    public static class ProbeCell {
+        private final int column;
+        private final ColumnType type;  // 빈 셀/오류는 null
+        private final String text;      // 문자열 표현 (POI getCellValueAsString 과 동일 규칙)
+        private final Double number;    // 숫자/날짜 셀의 원본 값 (그 외 null)
+        private final boolean formula;  // 수식 셀 (POI CellType.FORMULA)
+        private final Object value;     // 저장용 값 (Lambda SheetRowReader 와 동일 규칙: 날짜는 UTC 기준 Date, 수식은 캐시된 결과)
+
+        private ProbeCell(int column, ColumnType type, String text, Double number, boolean formula, Object value) {
+            this.column = column;
+            this.type = type;
+            this.text = text;
+            this.number = number;
+            this.formula = formula;
+            this.value = value;
+        }
+    }
+
+    /**
+     * scanRows 행 콜백
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        /**
+         * @param rowNumber 행 번호 (1-based, 1 = 헤더)
+         */
+        void visit(int rowNumber, List<ProbeCell> cells);
+    }
+
+    /**
+     * 탐지 결과
+     */
+    @Getter
+    public static class Result {
+        private final Long lastRow;                 // Dimension 마지막 행 (1-based), 없으면 null
+        private final List<ProbeCell> header;       // 첫 행 셀
+        private final List<List<ProbeCell>> sampleRows;
+        private final boolean sheetEnded;           // 샘플을 읽다가 시트가 끝남 (sampleRows 가 전체 데이터 행)
+
+        private Result(Long lastRow, List<ProbeCell> header, List<List<ProbeCell>> sampleRows, boolean sheetEnded) {
+            this.lastRow = lastRow;
+            this.header = header;
+            this.sampleRows = sampleRows;
+            this.sheetEnded = sheetEnded;
+        }
+
+        /**
+         * 헤더 제외 데이터 행 수 (알 수 없으면 null)
+         */
+        public Long getDataRowCount() {
+            if (lastRow != null) {
+                return Math.max(0, lastRow - 1);
+            }
+            return sheetEnded ? (long) sampleRows.size() : null;
+        }
+    }
+
+    /**
+     * 헤더 행과 데이터 행 sampleRows 개 탐지
+     */
+    public Result probe(String s3Key, int sampleRows) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        ZipSource source = new S3RangeSource(s3Key);
+        Map<String, Entry> entries = new HashMap<>();
+        long objectSize = readCentralDirectory(source, entries);
+
+        Workbook workbook = readWorkbook(source, entries, objectSize);
+
+        SheetScan scan = new SheetScan();
+        try (InputStream in = openEntry(source, workbook.sheetEntry, objectSize)) {
+            scanSheet(in, sampleRows + 1, scan, (rowNumber, row) -> {
+                if (rowNumber == 1) {
+                    scan.header = row;
+                } else {
+                    scan.rows.add(row);
+                }
+                for (RawCell cell : row) {
+                    collect(scan, cell);
+                }
+            });
+        }
+
+        // 공유 문자열: 샘플이 참조한 인덱스까지만
+        Map<Integer, String> sharedStrings = new HashMap<>();
+        Entry sstEntry = find(entries, SHARED_STRINGS);
+        if (!scan.sharedStringIndexes.isEmpty() && sstEntry != null) {
+            try (InputStream in = openEntry(source, sstEntry, objectSize)) {
+                readSharedStrings(in, scan.sharedStringIndexes, (index, text) -> sharedStrings.put(index, text));
+            }
+        }
+
+        // 날짜 서식: 스타일이 지정된 숫자 셀이 있을 때만
+        List<Boolean> dateStyles = new ArrayList<>();
+        Entry stylesEntry = find(entries, STYLES);
+        if (scan.hasStyledNumber && stylesEntry != null) {
+            try (InputStream in = openEntry(source, stylesEntry, objectSize)) {
+                readDateStyles(in, dateStyles);
+            }
+        }
+
+        List<ProbeCell> header = toCells(scan.header, sharedStrings::get, dateStyles, workbook.date1904);
+        List<List<ProbeCell>> rows = new ArrayList<>(scan.rows.size());
+        for (List<RawCell> row : scan.rows) {
+            rows.add(toCells(row, sharedStrings::get, dateStyles, workbook.date1904));
+        }
+
+        log.debug("xlsx 메타데이터 탐지: key={}, lastRow={}, columns={}, samples={}, {}ms",
+                s3Key, scan.lastRow, header.size(), rows.size(), System.currentTimeMillis() - startTime);
+
+        return new Result(scan.lastRow, header, rows, scan.sheetEnded);
+    }
+
+    /**
+     * 시트 전체 행 순회 (헤더 행 포함, 한 번의 스트리밍 패스)
+     *
+     * 공유 문자열 전체를 임시 파일에 쓰고 날짜 서식을 읽은 뒤, 시트는 행을 만드는 대로 visitor 에 넘기고 버린다.
+     * 힙 사용량은 공유 문자열 크기와 무관하다.
+     * 파일은 로컬 디스크 캐시에서 읽으므로 같은 객체를 다시 순회해도 S3 에서 다시 받지 않는다.
+     *
+     * @return Dimension 마지막 행 (없으면 null)
+     */
+    public Long scanRows(String s3Key, RowVisitor visitor) throws IOException {
+        try (FileSource source = new FileSource(s3Service.openFile(s3Key))) {
+            return scanRows(s3Key, source, visitor);
+        }
+    }
+
+    private Long scanRows(String s3Key, ZipSource source, RowVisitor visitor) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        Map<String, Entry> entries = new HashMap<>();
+        long objectSize = readCentralDirectory(source, entries);
+
+        Workbook workbook = readWorkbook(source, entries, objectSize);
+
+        List<Boolean> dateStyles = new ArrayList<>();
+        Entry stylesEntry = find(entries, STYLES);
+        if (stylesEntry != null) {
+            try (InputStream in = openEntry(source, stylesEntry, objectSize)) {
+                readDateStyles(in, dateStyles);
+            }
+        }
+
+        SheetScan scan = new SheetScan();
+        int[] rowCount = {0};
+        try (SharedStringsFile sharedStrings = new SharedStringsFile()) {
+            Entry sstEntry = find(entries, SHARED_STRINGS);
+            if (sstEntry != null) {
+                try (InputStream in = openEntry(source, sstEntry, objectSize)) {
+                    readSharedStrings(in, null, (index, text) -> sharedStrings.add(text));
+                }
+            }
+            sharedStrings.seal();
+
+            try (InputStream in = openEntry(source, workbook.sheetEntry, objectSize)) {
+                scanSheet(in, Integer.MAX_VALUE, scan, (rowNumber, row) -> {
+                    visitor.visit(rowNumber, toCells(row, sharedStrings::get, dateStyles, workbook.date1904));
+                    rowCount[0]++;
+                });
+            }
+
+            log.debug("xlsx 전체 행 순회: key={}, rows={}, sharedStrings={}, {}ms",
+                    s3Key, rowCount[0], sharedStrings.size(), System.currentTimeMillis() - startTime);
+        }
+
+        return scan.lastRow;
+    }
+
+    // ==================== zip ====================
+
+    /**
+     * zip 바이트 출처 (probe: S3 range 요청, scanRows: 캐시된 로컬 파일)
+     */
+    private interface ZipSource {
+
+        /**
+         * 파일 끝 length 바이트 (파일이 더 작으면 전체)
+         */
+        byte[] readTail(int length) throws IOException;
+
+        /**
+         * 파일 전체 크기 (readTail 이후 호출)
+         */
+        long size() throws IOException;
+
+        /**
+         * [start, endInclusive] 범위 스트림 (다 읽지 않고 닫아도 남은 데이터는 받지 않는다)
+         */
+        InputStream openRange(long start, long endInclusive) throws IOException;
+    }
+
+    /**
+     * S3 range 요청 (필요한 바이트만 받음)
+     */
+    private class S3RangeSource implements ZipSource {
+        private final String s3Key;
+        private long objectSize = -1;
+
+        private S3RangeSource(String s3Key) {
+            this.s3Key = s3Key;
+        }
+
+        @Override
+        public byte[] readTail(int length) throws IOException {
+            try (ResponseInputStream<GetObjectResponse> response = s3Service.openSuffix(s3Key, length)) {
+                byte[] tail = response.readAllBytes();
+                String contentRange = response.response().contentRange();
+                Matcher matcher = contentRange != null ? CONTENT_RANGE_TOTAL.matcher(contentRange) : null;
+                objectSize = matcher != null && matcher.find() ? Long.parseLong(matcher.group(1)) : tail.length;
+                return tail;
+            }
+        }
+
+        @Override
+        public long size() {
+            return objectSize;
+        }
+
+        @Override
+        public InputStream openRange(long start, long endInclusive) {
+            ResponseInputStream<GetObjectResponse> response = s3Service.openRange(s3Key, start, endInclusive);
+            return new FilterInputStream(response) {
+                @Override
+                public void close() {
+                    // 남은 데이터를 받지 않고 연결 정리
+                    response.abort();
+                }
+            };
+        }
+    }
+
+    /**
+     * 로컬 파일 (위치 지정 읽기, 채널 위치를 공유하지 않음)
+     */
+    private static class FileSource implements ZipSource, Closeable {
+        private final FileChannel channel;
+
+        private FileSource(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public byte[] readTail(int length) throws IOException {
+            long size = channel.size();
+            long start = Math.max(0, size - length);
+            try (InputStream in = openRange(start, size - 1)) {
+                return in.readAllBytes();
+            }
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public InputStream openRange(long start, long endInclusive) {
+            return new InputStream() {
+                private long position = start;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    long remaining = endInclusive + 1 - position;
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    if (length == 0) {
+                        return 0;
+                    }
+                    int read = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+                    if (read > 0) {
+                        position += read;
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * zip 엔트리 위치 정보 (central directory)
+     */
+    private static class Entry {
+        private final int method;
+        private final long compressedSize;
+        private final long localHeaderOffset;
+        private final int nameLength;
+
+        private Entry(int method, long compressedSize, long localHeaderOffset, int nameLength) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.localHeaderOffset = localHeaderOffset;
+            this.nameLength = nameLength;
+        }
+    }
+
+    /**
+     * 파일 끝에서 EOCD 와 central directory 를 읽어 엔트리 목록 작성
+     *
+     * @return 파일 전체 크기
+     */
+    private long readCentralDirectory(ZipSource source, Map<String, Entry> entries) throws IOException {
+        byte[] tail = source.readTail(EOCD_SEARCH_BYTES);
+        long objectSize = source.size();
+        long tailStart = objectSize - tail.length;
+
+        int eocd = -1;
+        for (int i = tail.length - 22; i >= 0; i--) {
+            if (u32(tail, i) == 0x06054b50L) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("EOCD 없음 (xlsx 아님)");
+        }
+
+        long cdSize = u32(tail, eocd + 12);
+        long cdOffset = u32(tail, eocd + 16);
+        if (cdOffset == 0xFFFFFFFFL || cdSize == 0xFFFFFFFFL) {
+            throw new ZipException("ZIP64 미지원");
+        }
+
+        byte[] cd;
+        int cdStart;
+        if (cdOffset >= tailStart) {
+            cd = tail;
+            cdStart = (int) (cdOffset - tailStart);
+        } else {
+            try (InputStream in = source.openRange(cdOffset, cdOffset + cdSize - 1)) {
+                cd = in.readAllBytes();
+            }
+            cdStart = 0;
+        }
+
+        int position = cdStart;
+        while (position + 46 <= cd.length && u32(cd, position) == 0x02014b50L) {
+            int nameLength = u16(cd, position + 28);
+            int extraLength = u16(cd, position + 30);
+            int commentLength = u16(cd, position + 32);
+            String name = new String(cd, position + 46, nameLength, StandardCharsets.UTF_8);
+
+            entries.put(name, new Entry(u16(cd, position + 10), u32(cd, position + 20),
+                    u32(cd, position + 42), nameLength));
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return objectSize;
+    }
+
+    /**
+     * 엔트리 찾기 (정확히 일치, 없으면 대소문자/경로 구분자 차이 허용)
+     */
+    private static Entry find(Map<String, Entry> entries, String name) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            return entry;
+        }
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (candidate.getKey().replace('\\', '/').equalsIgnoreCase(name)) {
+                return candidate.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * workbook.xml 에서 읽은 값 (첫 시트 엔트리, 1904 날짜 체계 여부)
+     */
+    private static class Workbook {
+        private String firstSheetRelation;
+        private boolean date1904;
+        private Entry sheetEntry;
+    }
+
+    /**
+     * 첫 번째 시트 엔트리 (workbook.xml 의 첫 &lt;sheet&gt; → workbook.xml.rels 의 Target) + date1904
+     *
+     * 시트를 옮기거나 지운 통합 문서는 sheet1.xml 이 첫 시트가 아닐 수 있으므로 관계 파일로 실제 경로를 찾는다.
+     * workbook.xml / 관계 파일이 없거나 시트를 못 찾으면 sheet1.xml.
+     */
+    private Workbook readWorkbook(ZipSource source, Map<String, Entry> entries, long objectSize) throws IOException {
+        Workbook workbook = new Workbook();
+        String sheetPath = SHEET1;
+
+        Entry workbookEntry = find(entries, WORKBOOK);
+        if (workbookEntry != null) {
+            try (InputStream in = openEntry(source, workbookEntry, objectSize)) {
+                readWorkbookXml(in, workbook);
+            }
+        }
+
+        Entry relsEntry = find(entries, WORKBOOK_RELS);
+        if (workbook.firstSheetRelation != null && relsEntry != null) {
+            try (InputStream in = openEntry(source, relsEntry, objectSize)) {
+                String target = readRelationTarget(in, workbook.firstSheetRelation);
+                if (target != null) {
+                    sheetPath = resolveTarget(target);
+                }
+            }
+        }
+
+        workbook.sheetEntry = find(entries, sheetPath);
+        if (workbook.sheetEntry == null) {
+            throw new IOException(sheetPath + " 엔트리 없음");
+        }
+        return workbook;
+    }
+
+    /**
+     * Target → 패키지 경로 ("/xl/..." 는 절대 경로, 나머지는 xl/ 기준 상대 경로)
+     */
+    static String resolveTarget(String target) {
+        String path = target.startsWith("/") ? target.substring(1) : "xl/" + target;
+
+        Deque<String> parts = new ArrayDeque<>();
+        for (String part : path.split("/")) {
+            if (part.isEmpty() || ".".equals(part)) {
+                continue;
+            }
+            if ("..".equals(part)) {
+                parts.pollLast();
+            } else {
+                parts.addLast(part);
+            }
+        }
+        return String.join("/", parts);
+    }
+
+    /**
+     * 엔트리 압축 해제 스트림 (닫으면 남은 데이터는 받지 않음)
+     */
+    private InputStream openEntry(ZipSource source, Entry entry, long objectSize) throws IOException {
+        long end = Math.min(objectSize - 1, entry.localHeaderOffset + 30 + entry.nameLength
+                + MAX_LOCAL_EXTRA_BYTES + entry.compressedSize);
+        InputStream response = source.openRange(entry.localHeaderOffset, end);
+
+        try {
+            byte[] localHeader = response.readNBytes(30);
+            if (localHeader.length < 30 || u32(localHeader, 0) != 0x04034b50L) {
+                throw new ZipException("로컬 헤더 오류");
+            }
+            response.skipNBytes(u16(localHeader, 26) + u16(localHeader, 28));
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+
+        Inflater inflater = new Inflater(true);
+        InputStream data = switch (entry.method) {
+            case 8 -> new InflaterInputStream(response, inflater, 8192);
+            case 0 -> new InputStream() {
+                private long remaining = entry.compressedSize;
+
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int b = response.read();
+                    if (b >= 0) {
+                        remaining--;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    if (remaining <= 0) {
+                        return -1;
+                    }
+                    int read = response.read(buffer, offset, (int) Math.min(length, remaining));
+                    if (read > 0) {
+                        remaining -= read;
+                    }
+                    return read;
+                }
+            };
+            default -> {
+                response.close();
+                throw new ZipException("지원하지 않는 압축 방식: " + entry.method);
+            }
+        };
+
+        return new FilterInputStream(data) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    response.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private static int u16(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static long u32(byte[] bytes, int offset) {
+        return u16(bytes, offset) | (long) u16(bytes, offset + 2) << 16;
+    }
+
+    // ==================== sheet XML ====================
+
+    /**
+     * 파싱한 셀 원본 (공유 문자열/날짜 서식 해석 전)
+     */
+    private static class RawCell {
+        private int column;
+        private String type;       // t 속성
+        private int style;         // s 속성
+        private String value;      // <v>
+        private String inlineText; // <is>
+        private String formula;    // <f>
+    }
+
+    /**
+     * 행 단위 콜백 (셀 원본)
+     */
+    @FunctionalInterface
+    private interface RawRowHandler {
+        void accept(int rowNumber, List<RawCell> row);
+    }
+
+    private static class SheetScan {
+        private Long lastRow;
+        private List<RawCell> header = new ArrayList<>();
+        private final List<List<RawCell>> rows = new ArrayList<>();
+        private final TreeSet<Integer> sharedStringIndexes = new TreeSet<>();
+        private boolean hasStyledNumber;
+        private boolean sheetEnded;
+    }
+
+    /**
+     * 시트 XML 을 lastRowNumber 행까지 읽으며 Dimension 기록 후 행마다 handler 호출
+     */
+    private void scanSheet(InputStream in, int lastRowNumber, SheetScan scan, RawRowHandler handler)
+            throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+
+            List<RawCell> row = null;
+            int rowNumber = 0;
+            int nextColumn = 0;
+            RawCell cell = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "dimension" -> {
+                            Matcher matcher = DIMENSION_LAST_ROW.matcher(
+                                    String.valueOf(reader.getAttributeValue(null, "ref")));
+                            if (matcher.matches()) {
+                                scan.lastRow = Long.parseLong(matcher.group(1));
+                            }
+                        }
+                        case "row" -> {
+                            String r = reader.getAttributeValue(null, "r");
+                            rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                            if (rowNumber > lastRowNumber) {
+                                return; // 범위를 지남: 나머지는 읽지 않음
+                            }
+                            row = new ArrayList<>();
+                            nextColumn = 0;
+                        }
+                        case "c" -> {
+                            cell = new RawCell();
+                            String r = reader.getAttributeValue(null, "r");
+                            cell.column = r != null ? columnIndex(r) : nextColumn;
+                            nextColumn = cell.column + 1;
+                            cell.type = reader.getAttributeValue(null, "t");
+                            String s = reader.getAttributeValue(null, "s");
+                            cell.style = s != null ? Integer.parseInt(s) : 0;
+                        }
+                        case "v" -> {
+                            if (cell != null) {
+                                cell.value = reader.getElementText();
+                            }
+                        }
+                        case "f" -> {
+                            if (cell != null) {
+                                cell.formula = reader.getElementText();
+                            }
+                        }
+                        case "is" -> {
+                            if (cell != null) {
+                                cell.inlineText = readRichText(reader, "is");
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "c" -> {
+                            if (row != null && cell != null) {
+                                row.add(cell);
+                            }
+                            cell = null;
+                        }
+                        case "row" -> {
+                            if (rowNumber >= 1 && row != null) {
+                                handler.accept(rowNumber, row);
+                            }
+                            row = null;
+                        }
+                        case "sheetData" -> {
+                            scan.sheetEnded = true;
+                            return;
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            }
+            scan.sheetEnded = true;
+
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("시트 XML 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private static void collect(SheetScan scan, RawCell cell) {
+        if ("s".equals(cell.type) && cell.value != null) {
+            try {
+                scan.sharedStringIndexes.add(Integer.parseInt(cell.value.trim()));
+            } catch (NumberFormatException e) {
+                // 잘못된 인덱스는 빈 문자열 취급
+            }
+        } else if (isNumeric(cell) && cell.style > 0) {
+            scan.hasStyledNumber = true;
+        }
+    }
+
+    private static boolean isNumeric(RawCell cell) {
+        return (cell.type == null || "n".equals(cell.type)) && cell.value != null;
+    }
+
+    /**
+     * 셀 원본 → 타입/문자열 (UploadService 의 POI 기반 규칙과 동일)
+     *
+     * @param date1904 1904 날짜 체계 (workbookPr date1904)
+     */
+    private static List<ProbeCell> toCells(List<RawCell> rawCells, IntFunction<String> sharedStrings,
+                                           List<Boolean> dateStyles, boolean date1904) {
+        List<ProbeCell> cells = new ArrayList<>(rawCells.size());
+        for (RawCell raw : rawCells) {
+            ColumnType type = null;
+            String text = null;
+            Double number = null;
+            Object value = null;
+
+            if ("s".equals(raw.type) || "inlineStr".equals(raw.type) || "str".equals(raw.type)) {
+                text = "s".equals(raw.type) ? sharedString(raw.value, sharedStrings)
+                        : "inlineStr".equals(raw.type) ? raw.inlineText : raw.value;
+                type = text != null && !text.trim().isEmpty() ? ColumnType.STRING : null;
+                value = text;
+            } else if ("b".equals(raw.type)) {
+                type = ColumnType.BOOLEAN;
+                text = String.valueOf("1".equals(raw.value));
+                value = raw.value != null ? "1".equals(raw.value) : null;
+            } else if ("e".equals(raw.type)) {
+                value = raw.value; // 오류 값 (#DIV/0! 등)
+            } else if (isNumeric(raw)) {
+                try {
+                    number = Double.parseDouble(raw.value);
+                    boolean date = raw.style < dateStyles.size() && dateStyles.get(raw.style)
+                            && DateUtil.isValidExcelDate(number);
+                    type = date ? ColumnType.DATE : ColumnType.NUMBER;
+                    text = date ? DateUtil.getLocalDateTime(number, date1904).toString()
+                            : String.valueOf(number.longValue());
+                    value = date ? DateUtil.getJavaDate(number, date1904, UTC) : number;
+                } catch (NumberFormatException e) {
+                    // 숫자가 아니면 빈 셀 취급
+                }
+            }
+
+            if (raw.formula != null) {
+                text = raw.formula;
+                if (raw.value == null && !"inlineStr".equals(raw.type)) {
+                    value = raw.formula; // 캐시된 결과가 없는 수식
+                }
+            }
+            cells.add(new ProbeCell(raw.column, type, text, number, raw.formula != null, value));
+        }
+        return cells;
+    }
+
+    private static String sharedString(String index, IntFunction<String> sharedStrings) {
+        try {
+            return index != null ? sharedStrings.apply(Integer.parseInt(index.trim())) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 공유 문자열 콜백 (인덱스 순서대로 호출)
+     */
+    @FunctionalInterface
+    private interface SharedStringSink {
+        void accept(int index, String text) throws IOException;
+    }
+
+    /**
+     * 공유 문자열 중 필요한 인덱스만 읽기 (가장 큰 인덱스까지 읽고 중단, indexes 가 null 이면 전체)
+     */
+    private void readSharedStrings(InputStream in, TreeSet<Integer> indexes, SharedStringSink sink)
+            throws IOException {
+        int maxIndex = indexes != null ? indexes.last() : Integer.MAX_VALUE;
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            int index = 0;
+            while (reader.hasNext() && index <= maxIndex) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "si".equals(reader.getLocalName())) {
+                    String text = readRichText(reader, "si");
+                    if (indexes == null || indexes.contains(index)) {
+                        sink.accept(index, text);
+                    }
+                    index++;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("공유 문자열 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * workbook.xml 의 workbookPr date1904 와 첫 &lt;sheet&gt; r:id (workbookPr 가 sheets 보다 앞에 있음)
+     */
+    private void readWorkbookXml(InputStream in, Workbook workbook) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if ("workbookPr".equals(reader.getLocalName())) {
+                    String date1904 = reader.getAttributeValue(null, "date1904");
+                    workbook.date1904 = "1".equals(date1904) || "true".equalsIgnoreCase(date1904);
+                } else if ("sheet".equals(reader.getLocalName())) {
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        if ("id".equals(reader.getAttributeLocalName(i))) {
+                            workbook.firstSheetRelation = reader.getAttributeValue(i);
+                        }
+                    }
+                    return;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("workbook.xml 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * workbook.xml.rels 에서 관계 Id 의 Target (없으면 null)
+     */
+    private String readRelationTarget(InputStream in, String relationId) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Relationship".equals(reader.getLocalName())
+                        && relationId.equals(reader.getAttributeValue(null, "Id"))) {
+                    return reader.getAttributeValue(null, "Target");
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("workbook.xml.rels 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * 셀 서식(cellXfs) 인덱스별 날짜 서식 여부
+     */
+    private void readDateStyles(InputStream in, List<Boolean> dateStyles) throws IOException {
+        Map<Integer, String> customFormats = new TreeMap<>();
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            boolean inCellXfs = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("numFmt".equals(name)) {
+                        customFormats.put(Integer.parseInt(reader.getAttributeValue(null, "numFmtId")),
+                                reader.getAttributeValue(null, "formatCode"));
+                    } else if ("cellXfs".equals(name)) {
+                        inCellXfs = true;
+                    } else if (inCellXfs && "xf".equals(name)) {
+                        String id = reader.getAttributeValue(null, "numFmtId");
+                        int formatId = id != null ? Integer.parseInt(id) : 0;
+                        String format = customFormats.getOrDefault(formatId, BuiltinFormats.getBuiltinFormat(formatId));
+                        dateStyles.add(format != null && DateUtil.isADateFormat(formatId, format));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(reader.getLocalName())) {
+                    return;
+                }
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("스타일 파싱 실패: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * &lt;si&gt; / &lt;is&gt; 안의 &lt;t&gt; 이어 붙이기 (윗주 &lt;rPh&gt; 제외)
+     */
+    private static String readRichText(XMLStreamReader reader, String elementName) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int phoneticDepth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth++;
+                } else if ("t".equals(name)) {
+                    String value = reader.getElementText();
+                    if (phoneticDepth == 0) {
+                        text.append(value);
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("rPh".equals(name)) {
+                    phoneticDepth--;
+                } else if (elementName.equals(name)) {
+                    break;
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 셀 참조(A1, BC12)의 열 인덱스 (0-based)
+     */
+    private static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // 무시
+            }
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
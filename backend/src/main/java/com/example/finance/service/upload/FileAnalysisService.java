@@ -1,20 +1,25 @@
 package com.example.finance.service.upload;
 
 import com.example.finance.dto.response.upload.AccountPartitionResponse;
+import com.example.finance.dto.response.upload.FileAnalysisProgressResponse;
 import com.example.finance.exception.BusinessException;
 import com.example.finance.model.session.FileSession;
 import com.example.finance.model.session.UploadedFileInfo;
 import com.example.finance.repository.session.FileSessionRepository;
-import com.example.finance.service.common.S3Service;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * 파일 분석 서비스
@@ -26,9 +31,20 @@ import java.util.*;
 @RequiredArgsConstructor
 public class FileAnalysisService {
 
-    private final S3Service s3Service;
+    private final FileProfileService fileProfileService;
     private final FileSessionRepository fileSessionRepository;
 
+    // 동시에 분석할 파일 수 (메모리 한도는 FileProfileService 가 전역으로 관리)
+    @Value("${file-analysis.concurrency:8}")
+    private int concurrency;
+
+    @PostConstruct
+    void validateConcurrency() {
+        if (concurrency <= 0) {
+            throw new IllegalStateException("file-analysis.concurrency must be positive: " + concurrency);
+        }
+    }
+
     /**
      * 파일 분석 및 계정 파티션 생성
      *
@@ -38,19 +54,33 @@ public class FileAnalysisService {
      */
     public List<AccountPartitionResponse> analyzeFilesAndCreatePartitions(
             String projectId, List<String> fileIds) {
+        return analyzeFilesAndCreatePartitions(projectId, fileIds, progress -> {
+        });
+    }
+
+    /**
+     * 파일 분석 및 계정 파티션 생성 (파일마다 분석이 끝나는 대로 onProgress 호출)
+     *
+     * @param onProgress 파일별 결과 (한 번에 하나씩 호출됨)
+     */
+    public List<AccountPartitionResponse> analyzeFilesAndCreatePartitions(
+            String projectId, List<String> fileIds, Consumer<FileAnalysisProgressResponse> onProgress) {
 
         log.info("파일 분석 시작: projectId={}, fileIds={}", projectId, fileIds);
+        long startTime = System.currentTimeMillis();
 
         // 1. 파일 정보 조회
         List<UploadedFileInfo> files = getUploadedFiles(projectId, fileIds);
 
-        // 2. 각 파일의 계정명 추출
-        Map<String, FileAccountInfo> fileAccountMap = new HashMap<>();
+        // 2. 각 파일의 계정명 추출 (병렬)
+        FileAccountInfo[] accountInfos = extractAccountNames(files, onProgress);
 
-        for (UploadedFileInfo file : files) {
-            FileAccountInfo accountInfo = extractAccountNames(file);
-            fileAccountMap.put(file.getFileId(), accountInfo);
+        Map<String, FileAccountInfo> fileAccountMap = new LinkedHashMap<>();
+        for (FileAccountInfo accountInfo : accountInfos) {
+            fileAccountMap.put(accountInfo.getFileId(), accountInfo);
         }
+        log.info("계정명 추출 완료: files={}, concurrency={}, {}ms",
+                files.size(), Math.min(concurrency, files.size()), System.currentTimeMillis() - startTime);
 
         // 3. 계정명 기준으로 그룹핑
         Map<String, List<String>> accountToFilesMap = groupFilesByAccount(fileAccountMap);
@@ -89,115 +119,97 @@ public class FileAnalysisService {
     }
 
     /**
-     * 파일에서 계정명 추출
+     * ⭐ 파일별 계정명 병렬 추출
+     *
+     * 최대 concurrency 개의 가상 스레드가 파일을 하나씩 가져가 처리한다.
+     * 처음 분석하는 파일은 전체 스트리밍 패스가 필요하므로, 동시에 열리는 파일 수는
+     * FileProfileService 의 메모리 한도로 한 번 더 제한된다. 한 파일이라도 실패하면 그 스레드가 바로
+     * 남은 파일을 모두 가져간 것으로 표시해 다른 스레드도 새 파일을 시작하지 않는다.
+     * onProgress 는 ReentrantLock 으로 한 번에 하나씩 호출한다 (synchronized 는 가상 스레드를 캐리어에 고정).
+     *
+     * @return files 와 같은 순서의 결과
      */
-    private FileAccountInfo extractAccountNames(UploadedFileInfo file) {
-        log.debug("계정명 추출 시작: fileId={}, fileName={}", file.getFileId(), file.getFileName());
-
-        try {
-            // S3에서 파일 다운로드
-            byte[] fileBytes = s3Service.downloadFile(file.getS3Key());
-
-            // Excel 파싱
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-                 Workbook workbook = new XSSFWorkbook(bis)) {
-
-                Sheet sheet = workbook.getSheetAt(0);
-
-                // 헤더 행 (첫 번째 행)
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    throw new BusinessException("INVALID_FILE", "헤더 행이 없습니다: " + file.getFileName());
-                }
-
-                // 계정명 컬럼 찾기 (미리 설정되었거나 자동 감지)
-                String accountColumnName = file.getAccountColumnName();
-                int accountColumnIndex = findColumnIndex(headerRow, accountColumnName);
-
-                if (accountColumnIndex == -1) {
-                    throw new BusinessException("COLUMN_NOT_FOUND",
-                            "계정명 컬럼을 찾을 수 없습니다: " + accountColumnName);
-                }
-
-                // 계정명 고유값 추출 (최대 1000개만 샘플링)
-                Set<String> accountNames = new HashSet<>();
-                int maxRows = Math.min(sheet.getLastRowNum(), 1000);
-
-                for (int i = 1; i <= maxRows; i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-
-                    Cell cell = row.getCell(accountColumnIndex);
-                    if (cell == null) continue;
-
-                    String accountName = getCellValueAsString(cell);
-                    if (accountName != null && !accountName.trim().isEmpty()) {
-                        accountNames.add(accountName.trim());
+    private FileAccountInfo[] extractAccountNames(List<UploadedFileInfo> files,
+                                                  Consumer<FileAnalysisProgressResponse> onProgress) {
+        FileAccountInfo[] results = new FileAccountInfo[files.size()];
+        AtomicInteger nextFile = new AtomicInteger();
+        AtomicInteger completedFiles = new AtomicInteger();
+        ReentrantLock progressLock = new ReentrantLock();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.min(concurrency, files.size()); i++) {
+                workers.add(executor.submit(() -> {
+                    int index;
+                    while ((index = nextFile.getAndIncrement()) < files.size()) {
+                        try {
+                            FileAccountInfo accountInfo = extractAccountNames(files.get(index));
+                            results[index] = accountInfo;
+
+                            progressLock.lock();
+                            try {
+                                onProgress.accept(FileAnalysisProgressResponse.builder()
+                                        .fileId(accountInfo.getFileId())
+                                        .fileName(accountInfo.getFileName())
+                                        .accountColumnName(accountInfo.getAccountColumnName())
+                                        .accountNames(accountInfo.getAccountNames())
+                                        .completedFiles(completedFiles.incrementAndGet())
+                                        .totalFiles(files.size())
+                                        .build());
+                            } finally {
+                                progressLock.unlock();
+                            }
+                        } catch (RuntimeException e) {
+                            // 남은 파일은 어느 스레드도 가져가지 않도록
+                            nextFile.set(files.size());
+                            throw e;
+                        }
                     }
-                }
-
-                log.debug("계정명 추출 완료: fileId={}, 고유 계정 수={}",
-                        file.getFileId(), accountNames.size());
-
-                return FileAccountInfo.builder()
-                        .fileId(file.getFileId())
-                        .fileName(file.getFileName())
-                        .accountNames(new ArrayList<>(accountNames))
-                        .accountColumnName(accountColumnName)
-                        .build();
+                    return null;
+                }));
             }
 
-        } catch (IOException e) {
-            log.error("파일 파싱 실패: fileId={}, error={}", file.getFileId(), e.getMessage(), e);
-            throw new BusinessException("FILE_PARSE_ERROR", "파일 파싱 실패: " + e.getMessage());
-        }
-    }
-
-    /**
-     * 컬럼 인덱스 찾기
-     */
-    private int findColumnIndex(Row headerRow, String columnName) {
-        if (columnName == null) {
-            return -1;
-        }
-
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                if (columnName.equals(cellValue)) {
-                    return i;
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    // 남은 파일은 가져가지 않도록
+                    nextFile.set(files.size());
+                    throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    nextFile.set(files.size());
+                    Thread.currentThread().interrupt();
+                    throw new BusinessException("ANALYSIS_INTERRUPTED", "파일 분석이 중단되었습니다");
                 }
             }
         }
 
-        return -1;
+        return results;
     }
 
     /**
-     * Cell 값을 String으로 변환
+     * 파일에서 계정명 추출 (파일 프로파일의 고유값)
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
+    private FileAccountInfo extractAccountNames(UploadedFileInfo file) {
+        log.debug("계정명 추출 시작: fileId={}, fileName={}", file.getFileId(), file.getFileName());
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
+        String accountColumnName = file.getAccountColumnName();
+        if (accountColumnName == null) {
+            throw new BusinessException("COLUMN_NOT_FOUND",
+                    "계정명 컬럼을 찾을 수 없습니다: " + accountColumnName);
         }
+
+        // 컬럼이 없으면 COLUMN_NOT_FOUND, 고유값이 한도를 넘어 잘렸으면 일부 계정만으로 그룹핑하지 않고 실패
+        List<String> accountNames = fileProfileService.getDistinctValues(file, accountColumnName);
+
+        log.debug("계정명 추출 완료: fileId={}, 고유 계정 수={}", file.getFileId(), accountNames.size());
+
+        return FileAccountInfo.builder()
+                .fileId(file.getFileId())
+                .fileName(file.getFileName())
+                .accountNames(new ArrayList<>(accountNames))
+                .accountColumnName(accountColumnName)
+                .build();
     }
 
     /**
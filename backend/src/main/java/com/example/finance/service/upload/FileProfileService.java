@@ -0,0 +1,420 @@
+package com.example.finance.service.upload;
+
+import com.example.finance.enums.ColumnType;
+import com.example.finance.exception.BusinessException;
+import com.example.finance.model.session.UploadedFileInfo;
+import com.example.finance.model.upload.ColumnDistinctValues;
+import com.example.finance.model.upload.ColumnProfile;
+import com.example.finance.model.upload.FileProfile;
+import com.example.finance.repository.upload.ColumnDistinctValuesRepository;
+import com.example.finance.repository.upload.FileProfileRepository;
+import com.example.finance.service.common.S3Service;
+import com.example.finance.service.common.XlsxMetadataProbe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * 파일 프로파일 서비스
+ *
+ * 파일당 한 번 시트 전체를 스트리밍으로 읽어 컬럼별 고유값/합계/최소·최대/빈 값 수를 계산하고
+ * file_profiles 에 저장한다. 컬럼별 고유값 목록은 file_profile_values 에 컬럼당 한 문서로 나눠 저장하고,
+ * 개수와 UTF-8 바이트 한도를 넘으면 잘라 distinctTruncated 로 표시한다.
+ * 같은 파일의 동시 요청은 계산 하나를 함께 기다린다.
+ * 계산 중에는 컬럼별 고유값 집합을 메모리에 두므로, 파일 크기로 추정한 만큼 전역 메모리 한도를 잡고 계산한다.
+ * (공유 문자열은 XlsxMetadataProbe 가 임시 파일에 둔다)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileProfileService {
+
+    // HyperLogLog 레지스터 수 = 2^11 (표준 오차 약 2.3%)
+    private static final int SKETCH_PRECISION = 11;
+
+    // file_profiles 저장 형식 (2 = 고유값 분리 저장), 다르면 다시 계산
+    static final int PROFILE_VERSION = 2;
+
+    // 고유값 하나의 BSON 배열 원소 오버헤드 (타입 1 + 인덱스 키 최대 6 + 길이 4 + 종료 1)
+    static final int DISTINCT_VALUE_OVERHEAD_BYTES = 12;
+
+    private static final Pattern NON_NUMERIC = Pattern.compile("[^0-9.-]");
+
+    // 계산 중 메모리 추정 = 압축 파일 크기 x 4 (압축 해제된 고유값 문자열, UTF-16), 크기를 모르면 64MB
+    private static final int MEMORY_PER_FILE_BYTE = 4;
+    private static final int DEFAULT_MEMORY_MB = 64;
+
+    private final XlsxMetadataProbe xlsxMetadataProbe;
+    private final S3Service s3Service;
+    private final FileProfileRepository fileProfileRepository;
+    private final ColumnDistinctValuesRepository columnDistinctValuesRepository;
+
+    // 컬럼별 고유값 보관 한도 (넘으면 개수만 추정)
+    @Value("${file-profile.distinct-limit:10000}")
+    private int distinctLimit;
+
+    // 컬럼별 고유값 보관 바이트 한도 (UTF-8, MongoDB 문서 최대 16MB 미만)
+    @Value("${file-profile.distinct-max-mb:4}")
+    private int distinctMaxMb;
+
+    // 동시에 계산 중인 프로파일의 추정 메모리 합계 한도
+    @Value("${file-profile.memory-budget-mb:512}")
+    private int memoryBudgetMb;
+
+    private final Map<String, CompletableFuture<FileProfile>> inFlight = new ConcurrentHashMap<>();
+    private Semaphore memoryBudget;
+
+    /**
+     * 파일 프로파일 조회 (없거나 ETag 가 바뀌었으면 계산 후 저장)
+     */
+    public FileProfile getProfile(UploadedFileInfo file) {
+        String eTag = s3Service.getETag(file.getS3Key());
+
+        Optional<FileProfile> cached = fileProfileRepository.findById(file.getFileId());
+        if (cached.isPresent() && Integer.valueOf(PROFILE_VERSION).equals(cached.get().getVersion())
+                && (eTag == null || eTag.equals(cached.get().getETag()))) {
+            return cached.get();
+        }
+
+        CompletableFuture<FileProfile> created = new CompletableFuture<>();
+        CompletableFuture<FileProfile> existing = inFlight.putIfAbsent(file.getFileId(), created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        int memoryMb = estimateMemoryMb(file);
+        try {
+            acquireMemory(file, memoryMb);
+        } catch (RuntimeException e) {
+            inFlight.remove(file.getFileId(), created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+
+        try {
+            ComputedProfile computed = computeProfile(file, eTag);
+            FileProfile profile = computed.profile();
+
+            // 고유값을 먼저 저장: 프로파일 문서가 보이면 고유값도 있음
+            columnDistinctValuesRepository.deleteByFileId(file.getFileId());
+            columnDistinctValuesRepository.saveAll(computed.distinctValues());
+            fileProfileRepository.save(profile);
+            created.complete(profile);
+            return profile;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            memoryBudget().release(memoryMb);
+            inFlight.remove(file.getFileId(), created);
+        }
+    }
+
+    /**
+     * 계산 메모리 추정 (MB, 1 ~ 한도)
+     */
+    private int estimateMemoryMb(UploadedFileInfo file) {
+        long estimateMb = file.getFileSize() != null
+                ? (file.getFileSize() * MEMORY_PER_FILE_BYTE + (1 << 20) - 1) >> 20
+                : DEFAULT_MEMORY_MB;
+        return (int) Math.max(1, Math.min(memoryBudgetMb, estimateMb));
+    }
+
+    private void acquireMemory(UploadedFileInfo file, int memoryMb) {
+        Semaphore budget = memoryBudget();
+        if (budget.tryAcquire(memoryMb)) {
+            return;
+        }
+
+        log.info("파일 프로파일 메모리 대기: fileId={}, 필요={}MB, 남은={}MB",
+                file.getFileId(), memoryMb, budget.availablePermits());
+        try {
+            budget.acquire(memoryMb);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("ANALYSIS_INTERRUPTED", "파일 분석이 중단되었습니다");
+        }
+    }
+
+    private synchronized Semaphore memoryBudget() {
+        if (memoryBudget == null) {
+            // 공정 모드: 큰 파일이 작은 파일들에 계속 밀리지 않도록
+            memoryBudget = new Semaphore(memoryBudgetMb, true);
+        }
+        return memoryBudget;
+    }
+
+    /**
+     * 컬럼 통계 조회 (컬럼이 없으면 COLUMN_NOT_FOUND)
+     */
+    public ColumnProfile getColumn(UploadedFileInfo file, String columnName) {
+        FileProfile profile = getProfile(file);
+        ColumnProfile column = profile.findColumn(columnName);
+        if (column == null) {
+            throw new BusinessException("COLUMN_NOT_FOUND", "컬럼을 찾을 수 없습니다: " + columnName);
+        }
+        return column;
+    }
+
+    /**
+     * 컬럼 고유값 조회 (계정명 목록 등 전체 목록이 필요한 곳)
+     *
+     * 고유값이 한도를 넘어 일부만 저장된 컬럼은 잘린 목록을 돌려주지 않고 TOO_MANY_DISTINCT_VALUES.
+     */
+    public List<String> getDistinctValues(UploadedFileInfo file, String columnName) {
+        ColumnProfile column = getColumn(file, columnName);
+        if (Boolean.TRUE.equals(column.getDistinctTruncated())) {
+            log.warn("고유값 한도 초과: fileId={}, column={}, 추정 고유값={}, 한도={}개/{}MB",
+                    file.getFileId(), column.getName(), column.getDistinctCount(), distinctLimit, distinctMaxMb);
+            throw new BusinessException("TOO_MANY_DISTINCT_VALUES",
+                    "컬럼의 고유값이 너무 많습니다: " + column.getName() + " (약 " + column.getDistinctCount() + "개)");
+        }
+
+        return columnDistinctValuesRepository.findById(ColumnDistinctValues.id(file.getFileId(), column.getIndex()))
+                .map(ColumnDistinctValues::getValues)
+                .orElseGet(List::of);
+    }
+
+    /**
+     * 파일 프로파일 삭제
+     */
+    public void evict(String fileId) {
+        fileProfileRepository.deleteById(fileId);
+        columnDistinctValuesRepository.deleteByFileId(fileId);
+    }
+
+    /**
+     * 계산 결과 (프로파일 문서 + 컬럼별 고유값 문서)
+     */
+    record ComputedProfile(FileProfile profile, List<ColumnDistinctValues> distinctValues) {
+    }
+
+    ComputedProfile computeProfile(UploadedFileInfo file, String eTag) {
+        long distinctMaxBytes = (long) distinctMaxMb << 20;
+        log.info("파일 프로파일 계산 시작: fileId={}, s3Key={}", file.getFileId(), file.getS3Key());
+        long startTime = System.currentTimeMillis();
+
+        Map<Integer, ColumnAccumulator> columns = new HashMap<>();
+        List<ColumnAccumulator> ordered = new ArrayList<>();
+        long[] dataRows = {0};
+
+        try {
+            xlsxMetadataProbe.scanRows(file.getS3Key(), (rowNumber, cells) -> {
+                if (rowNumber == 1) {
+                    for (XlsxMetadataProbe.ProbeCell cell : cells) {
+                        String name = cell.getText();
+                        if (name != null && !name.trim().isEmpty()) {
+                            ColumnAccumulator column = new ColumnAccumulator(name.trim(), cell.getColumn());
+                            columns.put(cell.getColumn(), column);
+                            ordered.add(column);
+                        }
+                    }
+                    return;
+                }
+
+                dataRows[0]++;
+                for (XlsxMetadataProbe.ProbeCell cell : cells) {
+                    ColumnAccumulator column = columns.get(cell.getColumn());
+                    if (column != null) {
+                        column.add(cell, distinctLimit, distinctMaxBytes);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            log.error("파일 프로파일 계산 실패: fileId={}", file.getFileId(), e);
+            throw new BusinessException("FILE_PARSE_ERROR", "파일 파싱 실패: " + e.getMessage());
+        }
+
+        List<ColumnProfile> profiles = new ArrayList<>(ordered.size());
+        List<ColumnDistinctValues> distinctValues = new ArrayList<>(ordered.size());
+        for (ColumnAccumulator column : ordered) {
+            profiles.add(column.toProfile(dataRows[0]));
+            distinctValues.add(ColumnDistinctValues.builder()
+                    .id(ColumnDistinctValues.id(file.getFileId(), column.index))
+                    .fileId(file.getFileId())
+                    .columnIndex(column.index)
+                    .values(new ArrayList<>(column.distinctValues))
+                    .build());
+        }
+
+        long elapsedMillis = System.currentTimeMillis() - startTime;
+        log.info("파일 프로파일 계산 완료: fileId={}, rows={}, columns={}, {}ms",
+                file.getFileId(), dataRows[0], profiles.size(), elapsedMillis);
+
+        return new ComputedProfile(FileProfile.builder()
+                .id(file.getFileId())
+                .version(PROFILE_VERSION)
+                .eTag(eTag)
+                .s3Key(file.getS3Key())
+                .rowCount(dataRows[0])
+                .columns(profiles)
+                .elapsedMillis(elapsedMillis)
+                .createdAt(LocalDateTime.now())
+                .build(), distinctValues);
+    }
+
+    /**
+     * 컬럼 하나의 누적 통계
+     */
+    private static class ColumnAccumulator {
+        private final String name;
+        private final int index;
+        private long nonNullCount;
+        private long numericCount;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double amountSum;
+        private final Set<String> distinctValues = new LinkedHashSet<>();
+        private long distinctBytes;
+        private boolean distinctTruncated;
+        private final byte[] sketch = new byte[1 << SKETCH_PRECISION];
+
+        private ColumnAccumulator(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        private void add(XlsxMetadataProbe.ProbeCell cell, int distinctLimit, long distinctMaxBytes) {
+            // 고유값: 문자열 표현 trim (기존 계정명 추출과 동일)
+            String text = cell.getText();
+            if (text != null && !text.trim().isEmpty()) {
+                String value = text.trim();
+                nonNullCount++;
+                if (!distinctTruncated && !distinctValues.contains(value)) {
+                    long valueBytes = utf8Length(value) + DISTINCT_VALUE_OVERHEAD_BYTES;
+                    if (distinctValues.size() < distinctLimit && distinctBytes + valueBytes <= distinctMaxBytes) {
+                        distinctValues.add(value);
+                        distinctBytes += valueBytes;
+                    } else {
+                        distinctTruncated = true;
+                    }
+                }
+                addToSketch(value);
+            }
+
+            // 금액: 수식 셀 제외, 숫자 셀은 값 그대로, 문자열 셀은 숫자 외 문자 제거 후 (기존 금액 합산과 동일)
+            if (cell.isFormula()) {
+                return;
+            }
+            if (cell.getNumber() != null) {
+                double number = cell.getNumber();
+                numericCount++;
+                min = Math.min(min, number);
+                max = Math.max(max, number);
+                amountSum += number;
+            } else if (cell.getType() == ColumnType.STRING) {
+                String value = NON_NUMERIC.matcher(text).replaceAll("");
+                if (!value.isEmpty()) {
+                    try {
+                        amountSum += Double.parseDouble(value);
+                    } catch (NumberFormatException e) {
+                        // 무시
+                    }
+                }
+            }
+        }
+
+        private void addToSketch(String value) {
+            long hash = hash64(value);
+            int register = (int) (hash >>> (64 - SKETCH_PRECISION));
+            int rank = Math.min(Long.numberOfLeadingZeros(hash << SKETCH_PRECISION), 64 - SKETCH_PRECISION) + 1;
+            if (rank > sketch[register]) {
+                sketch[register] = (byte) rank;
+            }
+        }
+
+        private long estimateDistinct() {
+            int m = sketch.length;
+            double sum = 0;
+            int zeros = 0;
+            for (byte rank : sketch) {
+                sum += Math.pow(2, -rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+            double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+            if (estimate <= 2.5 * m && zeros > 0) {
+                estimate = m * Math.log((double) m / zeros);
+            }
+            return Math.round(estimate);
+        }
+
+        private ColumnProfile toProfile(long dataRows) {
+            return ColumnProfile.builder()
+                    .name(name)
+                    .index(index)
+                    .nonNullCount(nonNullCount)
+                    .nullCount(dataRows - nonNullCount)
+                    .numericCount(numericCount)
+                    .min(numericCount > 0 ? min : null)
+                    .max(numericCount > 0 ? max : null)
+                    .amountSum(amountSum)
+                    .distinctTruncated(distinctTruncated)
+                    .distinctCount(distinctTruncated
+                            ? Math.max(estimateDistinct(), distinctValues.size())
+                            : distinctValues.size())
+                    .distinctSketch(sketch)
+                    .build();
+        }
+    }
+
+    /**
+     * UTF-8 인코딩 바이트 수 (인코딩 없이 계산)
+     */
+    static long utf8Length(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 문자열 64bit 해시 (FNV-1a + murmur3 fmix64)
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -11,6 +11,7 @@ import com.example.finance.dto.response.upload.AccountPartitionResponse;
 import com.example.finance.enums.ProcessStep;
 import com.example.finance.exception.BusinessException;
 import com.example.finance.exception.ProjectNotFoundException;
+import com.example.finance.model.data.RawDataSchemaDocument;
 import com.example.finance.model.session.FileSession;
 import com.example.finance.model.project.Project;
 import com.example.finance.model.session.StepHistory;
@@ -18,10 +19,14 @@ import com.example.finance.model.session.UploadedFileInfo;
 import com.example.finance.model.upload.UploadSession;
 import com.example.finance.repository.data.ClusteringResultRepository;
 import com.example.finance.repository.data.ProcessDataRepository;
+import com.example.finance.repository.data.RawDataBucketRepository;
 import com.example.finance.repository.data.RawDataRepository;
+import com.example.finance.repository.data.RawDataSchemaRepository;
 import com.example.finance.repository.project.ProjectRepository;
 import com.example.finance.repository.session.FileSessionRepository;
 import com.example.finance.repository.upload.UploadSessionRepository;
+import com.example.finance.service.common.S3Service;
+import com.example.finance.service.common.SqsBatchPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,14 +34,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-
-
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -52,18 +54,32 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FileSessionService {
 
+    // Coordinator Lambda 와 같은 키 (값: 헤더 제외 데이터 행 수)
+    private static final String ROW_COUNT_KEY_PREFIX = "excel:rowcount:";
+
+    // Worker Lambda 적재 상태 키 (ChunkCompletionTracker / ProgressReporter, UploadService 와 같은 상태 키)
+    private static final String INGEST_CHUNKS_KEY_PREFIX = "upload:chunks:";
+    private static final String INGEST_COMMIT_KEY_PREFIX = "upload:chunk:commit:";
+    private static final String UPLOAD_STATUS_KEY_PREFIX = "upload:status:";
+
+    // 세션 재처리 시 비우는 적재 컬렉션 (행 형식, 버킷 형식, 스키마)
+    private static final List<String> RAW_DATA_COLLECTIONS = List.of("raw_data", "raw_data_bucket", "raw_data_schema");
+
     private final FileSessionRepository fileSessionRepository;
     private final ProjectRepository projectRepository;
     private final UploadSessionRepository uploadSessionRepository;
     private final RawDataRepository rawDataRepository;
+    private final RawDataSchemaRepository rawDataSchemaRepository;
+    private final RawDataBucketRepository rawDataBucketRepository;
     private final ProcessDataRepository processDataRepository;
     private final ClusteringResultRepository clusteringResultRepository;
 
     // 클래스 상단에 추가
     private final MongoTemplate mongoTemplate;
     private final ObjectMapper objectMapper;
-    private final SqsClient sqsClient;
+    private final SqsBatchPublisher sqsBatchPublisher;
     private final StringRedisTemplate redisTemplate;
+    private final S3Service s3Service;
 
     @Value("${aws.sqs.excel-queue-url}")
     private String sqsQueueUrl;
@@ -131,29 +147,9 @@ public class FileSessionService {
             log.info("⭐ Step 4: Lambda 병렬 처리 시작 ({} files)", files.size());
             updateProgress(progressKey, 40, "Lambda 병렬 처리 시작...");
 
-            int totalProcessedRows = 0;
-            int processedFileCount = 0;
-
-            for (int i = 0; i < files.size(); i++) {
-                UploadedFileInfo fileInfo = files.get(i);
-                int fileProgress = 40 + ((i + 1) * 50 / files.size());
-
-                updateProgress(progressKey, fileProgress,
-                        String.format("파일 처리 중... (%d/%d): %s",
-                                i + 1, files.size(), fileInfo.getFileName()));
-
-                // Lambda Coordinator 호출 (SQS 메시지 발행)
-                int rowCount = triggerLambdaRawDataInsert(
-                        sessionId,
-                        fileInfo
-                );
-
-                totalProcessedRows += rowCount;
-                processedFileCount++;
-
-                log.info("파일 처리 완료: file={}, rows={}",
-                        fileInfo.getFileName(), rowCount);
-            }
+            // Lambda Coordinator 호출 (파일별 SQS 메시지 일괄 발행)
+            int totalProcessedRows = triggerLambdaRawDataInsert(sessionId, files);
+            int processedFileCount = files.size();
 
             // 10. 세션 완료 상태 업데이트
             log.info("⭐ Step 5: 세션 상태 업데이트");
@@ -196,8 +192,7 @@ public class FileSessionService {
      */
     private void clearRawDataCollection(String sessionId) {
         try {
-            Query query = new Query(Criteria.where("sessionId").is(sessionId));
-            long deletedCount = mongoTemplate.remove(query, "raw_data").getDeletedCount();
+            long deletedCount = deleteRawData(sessionId);
 
             log.info("raw_data 컬렉션 초기화 완료: sessionId={}, deleted={}",
                     sessionId, deletedCount);
@@ -208,6 +203,23 @@ public class FileSessionService {
         }
     }
 
+    /**
+     * 세션의 raw_data / raw_data_bucket / raw_data_schema 문서 삭제
+     *
+     * 컬렉션 이름으로 직접 지우므로 필드명은 저장된 이름(session_id)을 쓴다.
+     * RawDataQueryService 가 행 형식과 버킷 형식을 함께 읽으므로 둘 다 지워야 이전 적재 행이 남지 않는다.
+     *
+     * @return 삭제한 문서 수
+     */
+    private long deleteRawData(String sessionId) {
+        Query query = new Query(Criteria.where("session_id").is(sessionId));
+        long deleted = 0;
+        for (String collection : RAW_DATA_COLLECTIONS) {
+            deleted += mongoTemplate.remove(query, collection).getDeletedCount();
+        }
+        return deleted;
+    }
+
     /**
      * process_data 컬렉션 초기화 (해당 세션만)
      */
@@ -225,55 +237,148 @@ public class FileSessionService {
     }
 
     /**
-     * Lambda raw_data Insert 트리거 (SQS 메시지 발행)
+     * Lambda raw_data Insert 트리거 (SQS 메시지 일괄 발행)
+     *
+     * @return 예상 행 수 합계
      */
     private int triggerLambdaRawDataInsert(
             String sessionId,
-            UploadedFileInfo fileInfo) {
-
-        try {
-            log.info("⭐ Lambda raw_data Insert 트리거: file={}, account={}",
-                    fileInfo.getFileName(), fileInfo.getAccountColumnName());
-
-            // SQS 메시지 생성
-            Map<String, Object> message = new HashMap<>();
-            message.put("operation", "RAW_DATA_INSERT");  // ⭐ 작업 구분
-            message.put("sessionId", sessionId);
-            message.put("fileId", fileInfo.getFileId());
-            message.put("s3Bucket", "finance-excel-uploads");
-            message.put("s3Key", fileInfo.getS3Key());
-            message.put("fileName", fileInfo.getFileName());
-            message.put("accountColumnName", fileInfo.getAccountColumnName());
-            message.put("amountColumnName", fileInfo.getAmountColumnName());
-            message.put("accountContents", fileInfo.getAccountContents()); // ⭐ 계정명 필터
-
-            String messageBody = objectMapper.writeValueAsString(message);
-
-            // SQS 메시지 발행
-            SendMessageRequest request = SendMessageRequest.builder()
-                    .queueUrl(sqsQueueUrl)
-                    .messageBody(messageBody)
-                    .build();
+            List<UploadedFileInfo> files) {
 
-            sqsClient.sendMessage(request);
+        List<String> messageBodies = new ArrayList<>(files.size());
+        int estimatedRows = 0;
 
-            log.info("SQS 메시지 발행 완료: file={}", fileInfo.getFileName());
+        try {
+            for (UploadedFileInfo fileInfo : files) {
+                log.info("⭐ Lambda raw_data Insert 트리거: file={}, account={}",
+                        fileInfo.getFileName(), fileInfo.getAccountColumnName());
 
-            // 예상 행 수 반환
-            return estimateRowCount(fileInfo);
+                messageBodies.add(objectMapper.writeValueAsString(
+                        buildRawDataInsertMessage(sessionId, fileInfo)));
 
+                // 예상 행 수
+                estimatedRows += estimateRowCount(fileInfo);
+            }
         } catch (Exception e) {
-            log.error("Lambda 트리거 실패: file={}, error={}",
-                    fileInfo.getFileName(), e.getMessage(), e);
+            log.error("Lambda 트리거 실패: sessionId={}, error={}", sessionId, e.getMessage(), e);
             throw new BusinessException(
                     "LAMBDA_TRIGGER_FAILED", "Lambda 트리거 실패");
         }
+
+        // SQS 메시지 발행 (10건 배치, 병렬, 실패 항목 재시도)
+        List<Integer> failed = sqsBatchPublisher.publish(sqsQueueUrl, messageBodies);
+        if (!failed.isEmpty()) {
+            List<String> failedFiles = failed.stream()
+                    .map(index -> files.get(index).getFileName())
+                    .toList();
+            log.error("Lambda 트리거 실패: files={}", failedFiles);
+            throw new BusinessException(
+                    "LAMBDA_TRIGGER_FAILED", "Lambda 트리거 실패: " + failedFiles);
+        }
+
+        log.info("SQS 메시지 발행 완료: {} files", files.size());
+        return estimatedRows;
     }
 
     /**
-     * 파일 크기 기반 행 수 예상
+     * 세션 업로드의 Lambda 적재 상태(Redis) 삭제
+     *
+     * upload:chunks:{uploadId}:{generation} 비트맵과 upload:chunk:commit:{uploadId}:{generation} 워터마크가 남아 있으면
+     * 같은 업로드를 다시 적재할 때 모든 청크가 이미 집계된 것으로 걸러진다.
+     * 키는 upload_sessions 의 ingest_generation 으로 정확히 만들어 지운다 (KEYS 는 Redis 전체를 막음).
+     * 이전 세대의 키는 Worker 가 건 TTL 로 만료된다.
+     *
+     * 상태 해시를 남기는 재처리(includeStatus=false)는 집계 필드(completedChunks/committedRows/totalChunks)를
+     * 초기화하고 ingest_etag 를 지워, 같은 S3 객체라도 Coordinator 가 새 세대로 적재를 시작하게 한다.
+     * 그렇지 않으면 첫 청크가 이전 completedChunks 위에 더해져 바로 COMPLETED 가 발행된다.
+     * 실패해도 키는 24시간 뒤 만료되므로 경고만 기록한다.
+     *
+     * @param includeStatus upload:status:{uploadId} 도 삭제할지
+     */
+    private void clearIngestState(String sessionId, boolean includeStatus) {
+        try {
+            Query sessionUploads = Query.query(Criteria.where("sessionId").is(sessionId));
+            List<UploadSession> uploads = mongoTemplate.find(sessionUploads, UploadSession.class);
+
+            List<String> keys = new ArrayList<>();
+            for (UploadSession upload : uploads) {
+                String uploadId = upload.getUploadId();
+                int generation = upload.getIngestGeneration() != null ? upload.getIngestGeneration() : 0;
+                keys.add(INGEST_CHUNKS_KEY_PREFIX + uploadId + ":" + generation);
+                keys.add(INGEST_COMMIT_KEY_PREFIX + uploadId + ":" + generation);
+                if (includeStatus) {
+                    keys.add(UPLOAD_STATUS_KEY_PREFIX + uploadId);
+                } else {
+                    resetIngestProgress(UPLOAD_STATUS_KEY_PREFIX + uploadId);
+                }
+            }
+            if (!keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+
+            if (!includeStatus) {
+                mongoTemplate.updateMulti(sessionUploads, new Update().unset("ingestEtag"), UploadSession.class);
+            }
+            log.info("적재 상태 삭제: sessionId={}, uploads={}", sessionId, uploads.size());
+        } catch (Exception e) {
+            log.warn("적재 상태 삭제 실패: sessionId={}, error={}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * 업로드 상태 해시의 적재 집계 초기화 (파일명 등 백엔드 메타데이터는 유지, 해시가 없으면 무시)
+     */
+    private void resetIngestProgress(String statusKey) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(statusKey))) {
+            return;
+        }
+        redisTemplate.opsForHash().delete(statusKey, "completedChunks", "committedRows", "totalChunks");
+        redisTemplate.opsForHash().putAll(statusKey, Map.of(
+                "status", "PENDING",
+                "progress", "0",
+                "processedRows", "0"));
+    }
+
+    /**
+     * raw_data Insert SQS 메시지 생성
+     */
+    private Map<String, Object> buildRawDataInsertMessage(String sessionId, UploadedFileInfo fileInfo) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("operation", "RAW_DATA_INSERT");  // ⭐ 작업 구분
+        message.put("sessionId", sessionId);
+        message.put("fileId", fileInfo.getFileId());
+        message.put("s3Bucket", "finance-excel-uploads");
+        message.put("s3Key", fileInfo.getS3Key());
+        message.put("fileName", fileInfo.getFileName());
+        message.put("accountColumnName", fileInfo.getAccountColumnName());
+        message.put("amountColumnName", fileInfo.getAmountColumnName());
+        message.put("accountContents", fileInfo.getAccountContents()); // ⭐ 계정명 필터
+        return message;
+    }
+
+    /**
+     * 파일 행 수 예상
+     * 1순위: 업로드 시 확인한 행 수
+     * 2순위: Coordinator Lambda 가 ETag 기준으로 캐시한 정확한 행 수
+     * 3순위: 파일 크기 기반 추정
      */
     private int estimateRowCount(UploadedFileInfo fileInfo) {
+        if (fileInfo.getRowCount() != null && fileInfo.getRowCount() > 0) {
+            return (int) Math.min(fileInfo.getRowCount(), Integer.MAX_VALUE);
+        }
+
+        String eTag = s3Service.getETag(fileInfo.getS3Key());
+        if (eTag != null) {
+            try {
+                String cached = redisTemplate.opsForValue().get(ROW_COUNT_KEY_PREFIX + eTag);
+                if (cached != null) {
+                    return Integer.parseInt(cached);
+                }
+            } catch (Exception e) {
+                log.warn("행 개수 캐시 조회 실패: s3Key={}, error={}", fileInfo.getS3Key(), e.getMessage());
+            }
+        }
+
         // 평균 행당 크기: 500 bytes
         long estimatedRows = fileInfo.getFileSize() / 500;
         return (int) Math.min(estimatedRows, Integer.MAX_VALUE);
@@ -389,6 +494,9 @@ public class FileSessionService {
                         .rowCount(us.getTotalRows() != null ? us.getTotalRows().longValue() : 0L)
                         .uploadedAt(us.getCreatedAt())
                         .detectedColumns(new ArrayList<>())  // Lambda에서 추출된 컬럼 정보
+                        .columnTypes(rawDataSchemaRepository.findById(us.getUploadId())
+                                .map(RawDataSchemaDocument::inferColumnTypes)
+                                .orElseGet(ArrayList::new))  // ⭐ 적재 시 추론된 컬럼 타입
                         .accountContents(new ArrayList<>())
                         .build())
                 .collect(Collectors.toList());
@@ -650,6 +758,8 @@ public class FileSessionService {
 
         // 1. raw_data 삭제
         rawDataRepository.deleteByProjectIdAndSessionId(projectId, sessionId);
+        rawDataBucketRepository.deleteByProjectIdAndSessionId(projectId, sessionId);
+        rawDataSchemaRepository.deleteByProjectIdAndSessionId(projectId, sessionId);
         log.info("raw_data 삭제 완료");
 
         // 2. process_data 삭제
@@ -671,6 +781,9 @@ public class FileSessionService {
 
         fileSessionRepository.save(fileSession);
 
+        // 5. Lambda 적재 상태 삭제 (청크 비트맵/워터마크/업로드 상태)
+        clearIngestState(sessionId, true);
+
         log.info("세션 초기화 완료");
     }
 
@@ -1097,45 +1210,33 @@ public class FileSessionService {
             throw new BusinessException("NO_FILES", "업로드된 파일이 없습니다");
         }
 
-        // ⭐⭐⭐ 4. raw_data 컬렉션 초기화 (신규 추가)
-        Query deleteQuery = new Query(Criteria.where("sessionId").is(sessionId));
-        long deletedRawData = mongoTemplate.remove(deleteQuery, "raw_data").getDeletedCount();
+        // ⭐⭐⭐ 4. raw_data 컬렉션 초기화 (행/버킷 형식, 스키마)
+        long deletedRawData = deleteRawData(sessionId);
         log.info("raw_data 초기화 완료: {} 건 삭제", deletedRawData);
 
-        // ⭐⭐⭐ 5. Lambda 병렬 처리 트리거 (신규 추가)
-        int processedFileCount = 0;
+        // 다시 적재하는 청크가 이전 적재의 비트맵/워터마크에 걸러지지 않도록
+        clearIngestState(sessionId, false);
+
+        // ⭐⭐⭐ 5. Lambda 병렬 처리 트리거 (SQS 일괄 발행)
+        List<String> messageBodies = new ArrayList<>();
+        List<UploadedFileInfo> messageFiles = new ArrayList<>();
         for (UploadedFileInfo fileInfo : session.getUploadedFiles()) {
             try {
-                // SQS 메시지 발행
-                Map<String, Object> message = new HashMap<>();
-                message.put("operation", "RAW_DATA_INSERT");
-                message.put("sessionId", sessionId);
-                message.put("fileId", fileInfo.getFileId());
-                message.put("s3Bucket", "finance-excel-uploads");
-                message.put("s3Key", fileInfo.getS3Key());
-                message.put("fileName", fileInfo.getFileName());
-                message.put("accountColumnName", fileInfo.getAccountColumnName());
-                message.put("amountColumnName", fileInfo.getAmountColumnName());
-                message.put("accountContents", fileInfo.getAccountContents());
-
-                String messageBody = objectMapper.writeValueAsString(message);
-
-                SendMessageRequest request = SendMessageRequest.builder()
-                        .queueUrl(sqsQueueUrl)
-                        .messageBody(messageBody)
-                        .build();
-
-                sqsClient.sendMessage(request);
-                processedFileCount++;
-
-                log.info("SQS 메시지 발행 완료: file={}", fileInfo.getFileName());
-
+                messageBodies.add(objectMapper.writeValueAsString(
+                        buildRawDataInsertMessage(sessionId, fileInfo)));
+                messageFiles.add(fileInfo);
             } catch (Exception e) {
                 log.error("Lambda 트리거 실패: file={}, error={}",
                         fileInfo.getFileName(), e.getMessage(), e);
             }
         }
 
+        List<Integer> failed = sqsBatchPublisher.publish(sqsQueueUrl, messageBodies);
+        for (Integer index : failed) {
+            log.error("Lambda 트리거 실패: file={}", messageFiles.get(index).getFileName());
+        }
+        int processedFileCount = messageBodies.size() - failed.size();
+
         // 6. 현재 단계 업데이트
         session.setCurrentStep(ProcessStep.FILE_LOAD);
         session.setUpdatedAt(LocalDateTime.now());
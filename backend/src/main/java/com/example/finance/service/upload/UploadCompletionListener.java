@@ -0,0 +1,78 @@
+package com.example.finance.service.upload;
+
+import com.example.finance.model.upload.UploadSession;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * 업로드 완료 이벤트 수신 (Redis Pub/Sub)
+ *
+ * Worker Lambda 는 마지막 청크가 커밋되는 순간 upload:events 채널에 한 번만 완료 이벤트를 발행한다.
+ * 수신 시 upload_sessions 를 COMPLETED 로 갱신하므로 상태를 폴링할 필요가 없다.
+ * 이벤트의 적재 세대가 현재 ingest_generation 과 같을 때만 갱신한다 (덮어쓴 이전 버전의 늦은 완료 이벤트 무시).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadCompletionListener implements MessageListener {
+
+    // Worker Lambda ChunkCompletionTracker 와 같은 채널
+    public static final String EVENT_CHANNEL = "upload:events";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+
+        try {
+            JsonNode event = objectMapper.readTree(body);
+            String uploadId = event.path("uploadId").asText(null);
+            if (uploadId == null || !event.path("generation").canConvertToInt()
+                    || !"COMPLETED".equals(event.path("status").asText())) {
+                log.warn("알 수 없는 업로드 이벤트: {}", body);
+                return;
+            }
+
+            int generation = event.path("generation").asInt();
+            int totalRows = event.path("totalRows").asInt();
+            LocalDateTime now = LocalDateTime.now();
+
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("upload_id").is(uploadId).and("ingest_generation").is(generation)),
+                    new Update()
+                            .set("status", UploadSession.UploadStatus.COMPLETED)
+                            .set("progress", 100)
+                            .set("total_rows", totalRows)
+                            .set("processed_rows", totalRows)
+                            .set("completed_at", now)
+                            .set("updated_at", now),
+                    UploadSession.class);
+
+            if (result.getMatchedCount() == 0) {
+                log.info("이전 세대 완료 이벤트 무시: uploadId={}, generation={}", uploadId, generation);
+                return;
+            }
+
+            log.info("업로드 완료 이벤트 수신: uploadId={}, rows={}, chunks={}",
+                    uploadId, totalRows, event.path("totalChunks").asInt());
+
+        } catch (Exception e) {
+            log.error("업로드 완료 이벤트 처리 실패: body={}, error={}", body, e.getMessage(), e);
+        }
+    }
+}
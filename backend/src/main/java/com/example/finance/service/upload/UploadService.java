@@ -3,24 +3,23 @@ package com.example.finance.service.upload;
 import com.example.finance.dto.request.upload.SetFileColumnsRequest;
 import com.example.finance.dto.request.upload.UploadFileRequest;
 import com.example.finance.dto.response.upload.UploadFileResponse;
+import com.example.finance.enums.ColumnType;
 import com.example.finance.exception.BusinessException;
+import com.example.finance.model.session.ColumnTypeInfo;
 import com.example.finance.model.session.FileSession;
 import com.example.finance.model.session.UploadedFileInfo;
 import com.example.finance.model.upload.UploadSession;
 import com.example.finance.repository.session.FileSessionRepository;
 import com.example.finance.repository.upload.UploadSessionRepository;
-import com.example.finance.service.common.S3Service;
+import com.example.finance.service.common.XlsxMetadataProbe;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.bson.types.ObjectId;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -39,7 +38,8 @@ public class UploadService {
     private final StringRedisTemplate redisTemplate;
     private final UploadSessionRepository uploadSessionRepository;
     private final FileSessionRepository fileSessionRepository;
-    private final S3Service s3Service;
+    private final XlsxMetadataProbe xlsxMetadataProbe;
+    private final FileProfileService fileProfileService;
 
     // Lambda와 공유하는 Redis Key Prefix
     private static final String UPLOAD_STATUS_KEY_PREFIX = "upload:status:";
@@ -53,8 +53,12 @@ public class UploadService {
     private static class ExcelMetadata {
         private List<String> columns;
         private Long rowCount;
+        private List<ColumnTypeInfo> columnTypes;
     }
 
+    // 업로드 시 컬럼 타입 추론에 사용할 샘플 행 수
+    private static final int TYPE_SAMPLE_ROWS = 1000;
+
     /**
      * 세션 ID 생성
      */
@@ -219,6 +223,7 @@ public class UploadService {
                 .rowCount(metadata.rowCount)  // ⭐ rowCount 저장
                 .uploadedAt(LocalDateTime.now())
                 .detectedColumns(metadata.columns)
+                .columnTypes(metadata.columnTypes)
                 .accountContents(new ArrayList<>())
                 .build();
 
@@ -247,85 +252,97 @@ public class UploadService {
 
     /**
      * Excel 메타데이터 감지 (컬럼 + rowCount)
+     *
+     * ⭐ 파일 전체를 받지 않고 헤더 행, Dimension, 샘플 행만 스트리밍으로 읽는다.
+     * rowCount 는 Dimension 기준이며, Dimension 이 없고 샘플보다 긴 시트면 null (적재 시 확정).
      */
     private ExcelMetadata detectExcelMetadata(String s3Key) {
         try {
-            byte[] fileBytes = s3Service.downloadFile(s3Key);
-
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-                 Workbook workbook = new XSSFWorkbook(bis)) {
-
-                Sheet sheet = workbook.getSheetAt(0);
-                Row headerRow = sheet.getRow(0);
-
-                List<String> columns = new ArrayList<>();
-                if (headerRow != null) {
-                    for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                        Cell cell = headerRow.getCell(i);
-                        if (cell != null) {
-                            String columnName = getCellValueAsString(cell);
-                            if (columnName != null && !columnName.trim().isEmpty()) {
-                                // ⭐ trim 적용하여 저장
-                                columns.add(columnName.trim());
-                            }
-                        }
-                    }
+            XlsxMetadataProbe.Result probe = xlsxMetadataProbe.probe(s3Key, TYPE_SAMPLE_ROWS);
+
+            List<String> columns = new ArrayList<>();
+            List<Integer> columnIndexes = new ArrayList<>();
+            for (XlsxMetadataProbe.ProbeCell cell : probe.getHeader()) {
+                String columnName = cell.getText();
+                if (columnName != null && !columnName.trim().isEmpty()) {
+                    // ⭐ trim 적용하여 저장
+                    columns.add(columnName.trim());
+                    columnIndexes.add(cell.getColumn());
                 }
+            }
 
-                // rowCount 계산 (헤더 제외)
-                long rowCount = sheet.getLastRowNum();
-                if (rowCount > 0) rowCount--;
+            // rowCount (헤더 제외)
+            Long rowCount = probe.getDataRowCount();
 
-                log.debug("Excel 메타데이터: s3Key={}, columns={}, rowCount={}",
-                        s3Key, columns.size(), rowCount);
+            List<ColumnTypeInfo> columnTypes = inferColumnTypes(probe.getSampleRows(), columns, columnIndexes);
 
-                return new ExcelMetadata(columns, rowCount);
-            }
+            log.debug("Excel 메타데이터: s3Key={}, columns={}, rowCount={}, columnTypes={}",
+                    s3Key, columns.size(), rowCount, columnTypes);
 
-        } catch (IOException e) {
+            return new ExcelMetadata(columns, rowCount, columnTypes);
+
+        } catch (Exception e) {
             log.error("Excel 메타데이터 감지 실패: s3Key={}", s3Key, e);
-            return new ExcelMetadata(new ArrayList<>(), 0L);
+            return new ExcelMetadata(new ArrayList<>(), 0L, new ArrayList<>());
         }
     }
 
 
 
     /**
-     * Excel 컬럼 자동 감지 + rowCount 계산
+     * 샘플 행 기준 컬럼 타입 추론 (적재 후 전체 행 기준으로 갱신됨)
      */
-    private List<String> detectExcelColumns(String s3Key) {
-        try {
-            byte[] fileBytes = s3Service.downloadFile(s3Key);
+    private List<ColumnTypeInfo> inferColumnTypes(List<List<XlsxMetadataProbe.ProbeCell>> sampleRows,
+                                                  List<String> columns, List<Integer> columnIndexes) {
+        List<Map<String, Long>> counts = new ArrayList<>();
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            counts.add(new HashMap<>());
+            positions.put(columnIndexes.get(i), i);
+        }
 
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-                 Workbook workbook = new XSSFWorkbook(bis)) {
+        for (List<XlsxMetadataProbe.ProbeCell> row : sampleRows) {
+            for (XlsxMetadataProbe.ProbeCell cell : row) {
+                Integer position = positions.get(cell.getColumn());
+                if (position != null && cell.getType() != null) {
+                    counts.get(position).merge(cell.getType().name(), 1L, Long::sum);
+                }
+            }
+        }
 
-                Sheet sheet = workbook.getSheetAt(0);
-                Row headerRow = sheet.getRow(0);
+        List<ColumnTypeInfo> columnTypes = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnTypes.add(ColumnTypeInfo.builder()
+                    .name(columns.get(i))
+                    .type(ColumnType.infer(counts.get(i)))
+                    .build());
+        }
+        return columnTypes;
+    }
 
-                if (headerRow == null) {
-                    log.warn("헤더 행이 없음: s3Key={}", s3Key);
-                    return new ArrayList<>();
-                }
+    /**
+     * Excel 컬럼 자동 감지 (헤더 행만 스트리밍으로 읽음)
+     */
+    private List<String> detectExcelColumns(String s3Key) {
+        try {
+            XlsxMetadataProbe.Result probe = xlsxMetadataProbe.probe(s3Key, 0);
 
-                // ⭐ rowCount 계산을 위해 인스턴스 변수 사용 필요
-                // 대신 completeFileUpload()에서 처리하도록 수정
-
-                List<String> columns = new ArrayList<>();
-                for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                    Cell cell = headerRow.getCell(i);
-                    if (cell != null) {
-                        String columnName = getCellValueAsString(cell);
-                        if (columnName != null && !columnName.trim().isEmpty()) {
-                            columns.add(columnName.trim());
-                        }
-                    }
-                }
+            if (probe.getHeader().isEmpty()) {
+                log.warn("헤더 행이 없음: s3Key={}", s3Key);
+                return new ArrayList<>();
+            }
 
-                log.debug("컬럼 자동 감지 완료: s3Key={}, columns={}", s3Key, columns);
-                return columns;
+            List<String> columns = new ArrayList<>();
+            for (XlsxMetadataProbe.ProbeCell cell : probe.getHeader()) {
+                String columnName = cell.getText();
+                if (columnName != null && !columnName.trim().isEmpty()) {
+                    columns.add(columnName.trim());
+                }
             }
 
+            log.debug("컬럼 자동 감지 완료: s3Key={}, columns={}", s3Key, columns);
+            return columns;
+
         } catch (IOException e) {
             log.error("Excel 컬럼 감지 실패: s3Key={}, error={}", s3Key, e.getMessage(), e);
             return new ArrayList<>();
@@ -354,55 +371,11 @@ public class UploadService {
                 .orElseThrow(() -> new BusinessException(
                         "FILE_NOT_FOUND", "파일을 찾을 수 없습니다: " + fileId));
 
-        // 2. S3에서 파일 다운로드
-        byte[] fileBytes = s3Service.downloadFile(fileInfo.getS3Key());
-
-        // 3. Excel 파싱 (계정명 추출)
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-             Workbook workbook = new XSSFWorkbook(bis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            Row headerRow = sheet.getRow(0);
-
-            // 컬럼 인덱스 찾기
-            int columnIndex = -1;
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell != null && columnName.equals(getCellValueAsString(cell))) {
-                    columnIndex = i;
-                    break;
-                }
-            }
-
-            if (columnIndex == -1) {
-                throw new BusinessException("COLUMN_NOT_FOUND",
-                        "컬럼을 찾을 수 없습니다: " + columnName);
-            }
-
-            // 고유값 추출 (최대 1000개 샘플링)
-            Set<String> accountValues = new HashSet<>();
-            int maxRows = Math.min(sheet.getLastRowNum(), 1000);
-
-            for (int i = 1; i <= maxRows; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Cell cell = row.getCell(columnIndex);
-                if (cell == null) continue;
-
-                String value = getCellValueAsString(cell);
-                if (value != null && !value.trim().isEmpty()) {
-                    accountValues.add(value.trim());
-                }
-            }
+        // 2. 파일 프로파일의 고유값 (파일당 한 번 계산, 한도를 넘어 잘렸으면 실패)
+        List<String> accountValues = fileProfileService.getDistinctValues(fileInfo, columnName);
 
-            log.info("계정명 추출 완료: {} 개", accountValues.size());
-            return new ArrayList<>(accountValues);
-
-        } catch (IOException e) {
-            log.error("Excel 파싱 실패: fileId={}", fileId, e);
-            throw new BusinessException("FILE_PARSE_ERROR", "파일 파싱 실패: " + e.getMessage());
-        }
+        log.info("계정명 추출 완료: {} 개", accountValues.size());
+        return new ArrayList<>(accountValues);
     }
 
     /**
@@ -427,61 +400,11 @@ public class UploadService {
                 .orElseThrow(() -> new BusinessException(
                         "FILE_NOT_FOUND", "파일을 찾을 수 없습니다: " + fileId));
 
-        // 2. S3에서 파일 다운로드
-        byte[] fileBytes = s3Service.downloadFile(fileInfo.getS3Key());
+        // 2. 파일 프로파일의 금액 합계 (파일당 한 번 계산)
+        Double totalAmount = fileProfileService.getColumn(fileInfo, columnName).getAmountSum();
 
-        // 3. Excel 파싱 (금액 합산)
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-             Workbook workbook = new XSSFWorkbook(bis)) {
-
-            Sheet sheet = workbook.getSheetAt(0);
-            Row headerRow = sheet.getRow(0);
-
-            // 컬럼 인덱스 찾기
-            int columnIndex = -1;
-            for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell != null && columnName.equals(getCellValueAsString(cell))) {
-                    columnIndex = i;
-                    break;
-                }
-            }
-
-            if (columnIndex == -1) {
-                throw new BusinessException("COLUMN_NOT_FOUND",
-                        "컬럼을 찾을 수 없습니다: " + columnName);
-            }
-
-            // 금액 합산
-            double totalAmount = 0.0;
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                Cell cell = row.getCell(columnIndex);
-                if (cell == null) continue;
-
-                if (cell.getCellType() == CellType.NUMERIC) {
-                    totalAmount += cell.getNumericCellValue();
-                } else if (cell.getCellType() == CellType.STRING) {
-                    String value = cell.getStringCellValue().replaceAll("[^0-9.-]", "");
-                    if (!value.isEmpty()) {
-                        try {
-                            totalAmount += Double.parseDouble(value);
-                        } catch (NumberFormatException e) {
-                            // 무시
-                        }
-                    }
-                }
-            }
-
-            log.info("금액 합산 완료: {}", totalAmount);
-            return totalAmount;
-
-        } catch (IOException e) {
-            log.error("Excel 파싱 실패: fileId={}", fileId, e);
-            throw new BusinessException("FILE_PARSE_ERROR", "파일 파싱 실패: " + e.getMessage());
-        }
+        log.info("금액 합산 완료: {}", totalAmount);
+        return totalAmount;
     }
 
     /**
@@ -512,31 +435,10 @@ public class UploadService {
         fileSession.setUpdatedAt(LocalDateTime.now());
         fileSessionRepository.save(fileSession);
 
-        log.info("파일 삭제 완료: fileId={}", fileId);
-    }
+        // 5. 파일 프로파일 삭제
+        fileProfileService.evict(fileId);
 
-    /**
-     * Cell 값을 String으로 변환 (재사용 헬퍼 메서드)
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
-        }
+        log.info("파일 삭제 완료: fileId={}", fileId);
     }
 
     /**
@@ -566,11 +468,9 @@ public class UploadService {
         if (request.getAccountColumnName() != null) {
             fileInfo.setAccountColumnName(request.getAccountColumnName());
 
-            // S3에서 파일 다운로드 & 계정명 추출
-            List<String> accountValues = extractAccountValuesInternal(
-                    fileInfo.getS3Key(),
-                    request.getAccountColumnName()
-            );
+            // 파일 프로파일에서 계정명 고유값 (한도를 넘어 잘렸으면 저장하지 않고 실패)
+            List<String> accountValues = new ArrayList<>(fileProfileService
+                    .getDistinctValues(fileInfo, request.getAccountColumnName()));
             fileInfo.setAccountContents(accountValues);
 
             log.info("계정명 추출 완료: {} 개", accountValues.size());
@@ -580,11 +480,10 @@ public class UploadService {
         if (request.getAmountColumnName() != null) {
             fileInfo.setAmountColumnName(request.getAmountColumnName());
 
-            // S3에서 파일 다운로드 & 금액 계산
-            Double totalAmount = calculateTotalAmountInternal(
-                    fileInfo.getS3Key(),
-                    request.getAmountColumnName()
-            );
+            // 파일 프로파일에서 금액 합계
+            Double totalAmount = fileProfileService
+                    .getColumn(fileInfo, request.getAmountColumnName())
+                    .getAmountSum();
             fileInfo.setTotalAmount(totalAmount);
 
             log.info("금액 합산 완료: {}", totalAmount);
@@ -599,158 +498,6 @@ public class UploadService {
         return fileInfo;
     }
 
-    /**
-     * 계정명 추출 (내부 메서드)
-     */
-    private List<String> extractAccountValuesInternal(String s3Key, String columnName) {
-        try {
-            byte[] fileBytes = s3Service.downloadFile(s3Key);
-
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-                 Workbook workbook = new XSSFWorkbook(bis)) {
-
-                Sheet sheet = workbook.getSheetAt(0);
-                Row headerRow = sheet.getRow(0);
-
-                // 컬럼 인덱스 찾기
-                int columnIndex = findColumnIndex(headerRow, columnName);
-                if (columnIndex == -1) {
-                    throw new BusinessException("COLUMN_NOT_FOUND",
-                            "컬럼을 찾을 수 없습니다: " + columnName);
-                }
-
-                // 고유값 추출 (전체 행 - 속도 우선)
-                Set<String> accountValues = new HashSet<>();
-
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-
-                    Cell cell = row.getCell(columnIndex);
-                    if (cell == null) continue;
-
-                    String value = getCellValueAsString(cell);
-                    if (value != null && !value.trim().isEmpty()) {
-                        accountValues.add(value.trim());
-                    }
-                }
-
-                return new ArrayList<>(accountValues);
-            }
-        } catch (IOException e) {
-            log.error("계정명 추출 실패: s3Key={}", s3Key, e);
-            return new ArrayList<>();
-        }
-    }
-
-    /**
-     * 금액 합산 (내부 메서드)
-     */
-    private Double calculateTotalAmountInternal(String s3Key, String columnName) {
-        try {
-            byte[] fileBytes = s3Service.downloadFile(s3Key);
-
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes);
-                 Workbook workbook = new XSSFWorkbook(bis)) {
-
-                Sheet sheet = workbook.getSheetAt(0);
-                Row headerRow = sheet.getRow(0);
-
-                // 컬럼 인덱스 찾기
-                int columnIndex = findColumnIndex(headerRow, columnName);
-                if (columnIndex == -1) {
-                    throw new BusinessException("COLUMN_NOT_FOUND",
-                            "컬럼을 찾을 수 없습니다: " + columnName);
-                }
-
-                // 금액 합산 (전체 행 - 속도 우선)
-                double totalAmount = 0.0;
-
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-
-                    Cell cell = row.getCell(columnIndex);
-                    if (cell == null) continue;
-
-                    if (cell.getCellType() == CellType.NUMERIC) {
-                        totalAmount += cell.getNumericCellValue();
-                    } else if (cell.getCellType() == CellType.STRING) {
-                        String value = cell.getStringCellValue().replaceAll("[^0-9.-]", "");
-                        if (!value.isEmpty()) {
-                            try {
-                                totalAmount += Double.parseDouble(value);
-                            } catch (NumberFormatException e) {
-                                // 무시
-                            }
-                        }
-                    }
-                }
-
-                return totalAmount;
-            }
-        } catch (IOException e) {
-            log.error("금액 계산 실패: s3Key={}", s3Key, e);
-            return 0.0;
-        }
-    }
-
-    /**
-     * 컬럼 인덱스 찾기 (헬퍼 메서드)
-     */
-    private int findColumnIndex(Row headerRow, String columnName) {
-        if (headerRow == null) return -1;
-
-        // ⭐ 1단계: 정확히 일치하는 컬럼 찾기
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                if (cellValue != null && cellValue.equals(columnName)) {
-                    log.debug("컬럼 찾음 (정확 일치): index={}, columnName={}", i, columnName);
-                    return i;
-                }
-            }
-        }
-
-        // ⭐ 2단계: trim() 적용하여 찾기
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                if (cellValue != null && cellValue.trim().equals(columnName.trim())) {
-                    log.debug("컬럼 찾음 (trim 일치): index={}, columnName={}", i, columnName);
-                    return i;
-                }
-            }
-        }
-
-        // ⭐ 3단계: 대소문자 무시하고 찾기
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                if (cellValue != null && cellValue.trim().equalsIgnoreCase(columnName.trim())) {
-                    log.debug("컬럼 찾음 (대소문자 무시): index={}, columnName={}", i, columnName);
-                    return i;
-                }
-            }
-        }
-
-        // ⭐ 디버깅: 모든 헤더 출력
-        log.error("컬럼을 찾을 수 없음: columnName={}", columnName);
-        log.error("실제 헤더 목록:");
-        for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell != null) {
-                String cellValue = getCellValueAsString(cell);
-                log.error("  [{}] = '{}'", i, cellValue);
-            }
-        }
-
-        return -1;
-    }
-
     /**
      * 프로젝트의 업로드된 파일 목록 조회
      */
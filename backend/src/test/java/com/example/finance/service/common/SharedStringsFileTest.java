@@ -0,0 +1,45 @@
+package com.example.finance.service.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SharedStringsFileTest {
+
+    @Test
+    void roundTripKeepsIndexOrderAndText() throws IOException {
+        List<String> expected = new ArrayList<>(List.of("현금및현금성자산", "", "A & B <C>", "💰 잔액"));
+        for (int i = 0; i < 5000; i++) {
+            expected.add("계정-" + i);
+        }
+
+        try (SharedStringsFile sharedStrings = new SharedStringsFile()) {
+            for (String text : expected) {
+                sharedStrings.add(text);
+            }
+            sharedStrings.seal();
+
+            assertEquals(expected.size(), sharedStrings.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), sharedStrings.get(i));
+            }
+            assertNull(sharedStrings.get(expected.size()));
+            assertNull(sharedStrings.get(-1));
+        }
+    }
+
+    @Test
+    void emptyFileHasNoStrings() throws IOException {
+        try (SharedStringsFile sharedStrings = new SharedStringsFile()) {
+            sharedStrings.seal();
+
+            assertEquals(0, sharedStrings.size());
+            assertNull(sharedStrings.get(0));
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.finance.service.common;
+
+import com.example.finance.enums.ColumnType;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import static com.example.finance.service.common.XlsxTestFiles.probe;
+import static com.example.finance.service.common.XlsxTestFiles.toBytes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class XlsxMetadataProbeTest {
+
+    private static final String KEY = "projects/p/sessions/s/uploads/u/test.xlsx";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Test
+    void readsFirstSheetInTabOrder() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            // 먼저 만든 시트가 sheet1.xml, 탭 순서를 바꿔 sheet2.xml 을 첫 시트로
+            workbook.createSheet("이전").createRow(0).createCell(0).setCellValue("old");
+            var first = workbook.createSheet("첫 시트");
+            first.createRow(0).createCell(0).setCellValue("계정명");
+            first.createRow(1).createCell(0).setCellValue("현금");
+            workbook.setSheetOrder("첫 시트", 0);
+            xlsx = toBytes(workbook);
+        }
+        XlsxMetadataProbe probe = probe(xlsx);
+
+        assertEquals("계정명", probe.probe(KEY, 10).getHeader().get(0).getText());
+
+        List<String> firstColumn = new ArrayList<>();
+        probe.scanRows(KEY, (rowNumber, cells) -> firstColumn.add(cells.get(0).getText()));
+        assertEquals(List.of("계정명", "현금"), firstColumn);
+    }
+
+    @Test
+    void scanRowsReadsCachedFileInsteadOfRanges() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("data");
+            for (int i = 0; i < 100; i++) {
+                sheet.createRow(i).createCell(0).setCellValue("row" + i);
+            }
+            xlsx = toBytes(workbook);
+        }
+        S3Service s3Service = XlsxTestFiles.s3Service(xlsx);
+
+        List<String> firstColumn = new ArrayList<>();
+        new XlsxMetadataProbe(s3Service).scanRows(KEY, (rowNumber, cells) -> firstColumn.add(cells.get(0).getText()));
+
+        assertEquals(100, firstColumn.size());
+        assertEquals("row99", firstColumn.get(99));
+        verify(s3Service).openFile(KEY);
+        verify(s3Service, never()).openRange(anyString(), anyLong(), anyLong());
+        verify(s3Service, never()).openSuffix(anyString(), anyLong());
+    }
+
+    @Test
+    void resolvesRelationshipTargets() {
+        assertEquals("xl/worksheets/sheet3.xml", XlsxMetadataProbe.resolveTarget("worksheets/sheet3.xml"));
+        assertEquals("xl/worksheets/sheet3.xml", XlsxMetadataProbe.resolveTarget("/xl/worksheets/sheet3.xml"));
+        assertEquals("xl/sheets/a.xml", XlsxMetadataProbe.resolveTarget("./worksheets/../sheets/a.xml"));
+    }
+
+    @Test
+    void cellsMatchPoiRules() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            fillAllCellKinds(workbook);
+            xlsx = toBytes(workbook);
+        }
+
+        assertMatchesPoi(xlsx);
+
+        Map<Integer, List<XlsxMetadataProbe.ProbeCell>> rows = scan(xlsx);
+        // 수식: 문자열 표현은 수식, 저장 값은 캐시된 결과
+        XlsxMetadataProbe.ProbeCell numericFormula = cell(rows, 2, 2);
+        assertTrue(numericFormula.isFormula());
+        assertEquals("B2*2", numericFormula.getText());
+        assertEquals(3001.0, numericFormula.getValue());
+        assertEquals("합계", cell(rows, 3, 2).getValue());
+        // 오류: 타입/문자열 없음, 저장 값은 오류 코드
+        assertNull(cell(rows, 4, 1).getType());
+        assertEquals("#DIV/0!", cell(rows, 4, 1).getValue());
+        assertEquals(ColumnType.BOOLEAN, cell(rows, 5, 1).getType());
+        assertEquals(Boolean.TRUE, cell(rows, 5, 1).getValue());
+        assertEquals(ColumnType.DATE, cell(rows, 6, 1).getType());
+        assertEquals(DateUtil.getJavaDate(45292.5, false, UTC), cell(rows, 6, 1).getValue());
+        assertEquals(ColumnType.NUMBER, cell(rows, 7, 1).getType());
+    }
+
+    @Test
+    void inlineStringsMatchPoi() throws IOException {
+        byte[] xlsx;
+        // SXSSF 는 공유 문자열 없이 inlineStr 로 씀
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            sheet.createRow(0).createCell(0).setCellValue("계정명");
+            sheet.createRow(1).createCell(0).setCellValue("현금 ");
+            sheet.createRow(2).createCell(0).setCellValue(12.5);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            xlsx = out.toByteArray();
+        }
+
+        assertMatchesPoi(xlsx);
+        assertEquals("현금 ", cell(scan(xlsx), 2, 0).getValue());
+    }
+
+    @Test
+    void date1904FromWorkbookPr() throws IOException {
+        byte[] xlsx;
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            var ctWorkbook = workbook.getCTWorkbook();
+            (ctWorkbook.isSetWorkbookPr() ? ctWorkbook.getWorkbookPr() : ctWorkbook.addNewWorkbookPr()).setDate1904(true);
+            fillAllCellKinds(workbook);
+            xlsx = toBytes(workbook);
+        }
+
+        assertMatchesPoi(xlsx);
+
+        XlsxMetadataProbe.ProbeCell date = cell(scan(xlsx), 6, 1);
+        assertEquals(LocalDateTime.of(2028, 1, 2, 12, 0).toString(), date.getText());
+        assertEquals(DateUtil.getJavaDate(45292.5, true, UTC), date.getValue());
+    }
+
+    /**
+     * 행 1 헤더, 2 숫자 + 수식, 3 문자열 수식, 4 오류, 5 불리언, 6 날짜 서식, 7 사용자 숫자 서식
+     */
+    private static void fillAllCellKinds(XSSFWorkbook workbook) {
+        Sheet sheet = workbook.createSheet("Sheet1");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("계정명");
+        header.createCell(1).setCellValue("금액");
+        header.createCell(2).setCellValue("비고");
+
+        Row numbers = sheet.createRow(1);
+        numbers.createCell(0).setCellValue("현금");
+        numbers.createCell(1).setCellValue(1500.5);
+        Cell numericFormula = numbers.createCell(2);
+        numericFormula.setCellFormula("B2*2");
+        numericFormula.setCellValue(3001);
+
+        Row strings = sheet.createRow(2);
+        strings.createCell(0).setCellValue("  예금 ");
+        Cell stringFormula = strings.createCell(2);
+        stringFormula.setCellFormula("\"합\"&\"계\"");
+        stringFormula.setCellValue("합계");
+
+        Row errors = sheet.createRow(3);
+        errors.createCell(0).setCellValue("오류");
+        errors.createCell(1).setCellErrorValue(FormulaError.DIV0.getCode());
+
+        Row booleans = sheet.createRow(4);
+        booleans.createCell(0).setCellValue("불리언");
+        booleans.createCell(1).setCellValue(true);
+
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+        Row dates = sheet.createRow(5);
+        dates.createCell(0).setCellValue("날짜");
+        Cell date = dates.createCell(1);
+        date.setCellValue(45292.5);
+        date.setCellStyle(dateStyle);
+
+        CellStyle amountStyle = workbook.createCellStyle();
+        amountStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00"));
+        Row amounts = sheet.createRow(6);
+        amounts.createCell(0).setCellValue("서식 숫자");
+        Cell amount = amounts.createCell(1);
+        amount.setCellValue(-42.75);
+        amount.setCellStyle(amountStyle);
+    }
+
+    /**
+     * probe / scanRows 의 셀이 POI 로 읽은 값과 같은 규칙인지 (문자열 표현, 수식 여부, 숫자)
+     */
+    private static void assertMatchesPoi(byte[] xlsx) throws IOException {
+        Map<Integer, List<XlsxMetadataProbe.ProbeCell>> scanned = scan(xlsx);
+
+        XlsxMetadataProbe.Result probed = probe(xlsx).probe(KEY, 100);
+        Map<Integer, List<XlsxMetadataProbe.ProbeCell>> sampled = new TreeMap<>();
+        sampled.put(1, probed.getHeader());
+        for (int i = 0; i < probed.getSampleRows().size(); i++) {
+            sampled.put(i + 2, probed.getSampleRows().get(i));
+        }
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(sheet.getLastRowNum() + 1, scanned.size());
+            for (Row row : sheet) {
+                for (Map<Integer, List<XlsxMetadataProbe.ProbeCell>> rows : List.of(scanned, sampled)) {
+                    List<XlsxMetadataProbe.ProbeCell> cells = rows.get(row.getRowNum() + 1);
+                    assertEquals(row.getPhysicalNumberOfCells(), cells.size(), "row " + row.getRowNum());
+                    for (XlsxMetadataProbe.ProbeCell probeCell : cells) {
+                        Cell cell = row.getCell(probeCell.getColumn());
+                        String at = cell.getAddress().formatAsString();
+
+                        assertEquals(poiText(cell), probeCell.getText(), at);
+                        assertEquals(cell.getCellType() == CellType.FORMULA,
+                                probeCell.isFormula(), at);
+                        if (cell.getCellType() == CellType.NUMERIC) {
+                            assertEquals(cell.getNumericCellValue(), probeCell.getNumber(), at);
+                            assertEquals(DateUtil.isCellDateFormatted(cell),
+                                    probeCell.getType() == ColumnType.DATE, at);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 기존 UploadService.getCellValueAsString (POI 기준 규칙)
+     */
+    private static String poiText(Cell cell) {
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue();
+            case NUMERIC -> DateUtil.isCellDateFormatted(cell)
+                    ? cell.getLocalDateTimeCellValue().toString()
+                    : String.valueOf((long) cell.getNumericCellValue());
+            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
+            case FORMULA -> cell.getCellFormula();
+            default -> null;
+        };
+    }
+
+    private static XlsxMetadataProbe.ProbeCell cell(Map<Integer, List<XlsxMetadataProbe.ProbeCell>> rows,
+                                                    int rowNumber, int column) {
+        return rows.get(rowNumber).stream()
+                .filter(cell -> cell.getColumn() == column)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Map<Integer, List<XlsxMetadataProbe.ProbeCell>> scan(byte[] xlsx) throws IOException {
+        Map<Integer, List<XlsxMetadataProbe.ProbeCell>> rows = new TreeMap<>();
+        probe(xlsx).scanRows(KEY, rows::put);
+        return rows;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.finance.service.common;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 메모리의 xlsx 를 S3 range 요청 / 캐시 파일로 읽는 테스트 도우미
+ */
+public final class XlsxTestFiles {
+
+    private XlsxTestFiles() {
+    }
+
+    /**
+     * 메모리의 xlsx 바이트를 range 요청 / 로컬 파일로 돌려주는 S3Service
+     */
+    public static S3Service s3Service(byte[] xlsx) throws IOException {
+        S3Service s3Service = mock(S3Service.class);
+        when(s3Service.openSuffix(anyString(), anyLong())).thenAnswer(invocation -> {
+            long length = invocation.getArgument(1);
+            return range(xlsx, Math.max(0, xlsx.length - length), xlsx.length - 1);
+        });
+        when(s3Service.openRange(anyString(), anyLong(), anyLong())).thenAnswer(invocation ->
+                range(xlsx, invocation.getArgument(1), invocation.getArgument(2)));
+        when(s3Service.openFile(anyString())).thenAnswer(invocation -> {
+            Path file = Files.createTempFile("xlsx-test-", ".xlsx");
+            file.toFile().deleteOnExit();
+            Files.write(file, xlsx);
+            return FileChannel.open(file, StandardOpenOption.READ);
+        });
+        return s3Service;
+    }
+
+    public static XlsxMetadataProbe probe(byte[] xlsx) throws IOException {
+        return new XlsxMetadataProbe(s3Service(xlsx));
+    }
+
+    public static byte[] toBytes(XSSFWorkbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    private static ResponseInputStream<GetObjectResponse> range(byte[] bytes, long start, long endInclusive) {
+        int end = (int) Math.min(endInclusive, bytes.length - 1);
+        byte[] slice = Arrays.copyOfRange(bytes, (int) start, end + 1);
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentRange("bytes " + start + "-" + end + "/" + bytes.length)
+                .build();
+        return new ResponseInputStream<>(response, AbortableInputStream.create(new ByteArrayInputStream(slice)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.finance.service.upload;
+
+import com.example.finance.exception.BusinessException;
+import com.example.finance.model.session.FileSession;
+import com.example.finance.model.session.UploadedFileInfo;
+import com.example.finance.repository.session.FileSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileAnalysisServiceTest {
+
+    private static final int FILES = 20;
+
+    @Test
+    void failureStopsRemainingFiles() {
+        FileProfileService fileProfileService = mock(FileProfileService.class);
+        AtomicInteger started = new AtomicInteger();
+        when(fileProfileService.getDistinctValues(any(), anyString())).thenAnswer(invocation -> {
+            UploadedFileInfo file = invocation.getArgument(0);
+            started.incrementAndGet();
+            if (file.getFileId().equals("file-1")) {
+                throw new BusinessException("TOO_MANY_DISTINCT_VALUES", "실패");
+            }
+            Thread.sleep(100);
+            return List.of("현금");
+        });
+
+        FileAnalysisService service = service(fileProfileService, 2);
+        List<String> fileIds = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            fileIds.add("file-" + i);
+        }
+
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> service.analyzeFilesAndCreatePartitions("project-1", fileIds));
+        assertEquals("TOO_MANY_DISTINCT_VALUES", e.getErrorCode());
+        // 두 번째 스레드가 실패하면 첫 번째 스레드도 진행 중이던 파일만 끝내고 멈춤
+        assertTrue(started.get() <= 3, "started=" + started.get());
+    }
+
+    @Test
+    void rejectsNonPositiveConcurrency() {
+        FileAnalysisService service = service(mock(FileProfileService.class), 0);
+
+        assertThrows(IllegalStateException.class, service::validateConcurrency);
+    }
+
+    private static FileAnalysisService service(FileProfileService fileProfileService, int concurrency) {
+        FileSessionRepository fileSessionRepository = mock(FileSessionRepository.class);
+        when(fileSessionRepository.findByUploadedFilesFileId(anyString())).thenAnswer(invocation -> {
+            String fileId = invocation.getArgument(0);
+            UploadedFileInfo file = UploadedFileInfo.builder()
+                    .fileId(fileId)
+                    .fileName(fileId + ".xlsx")
+                    .accountColumnName("계정명")
+                    .build();
+            return Optional.of(FileSession.builder().uploadedFiles(List.of(file)).build());
+        });
+
+        FileAnalysisService service = new FileAnalysisService(fileProfileService, fileSessionRepository);
+        ReflectionTestUtils.setField(service, "concurrency", concurrency);
+        return service;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.finance.service.upload;
+
+import com.example.finance.model.session.UploadedFileInfo;
+import com.example.finance.model.upload.ColumnProfile;
+import com.example.finance.repository.upload.ColumnDistinctValuesRepository;
+import com.example.finance.repository.upload.FileProfileRepository;
+import com.example.finance.service.common.S3Service;
+import com.example.finance.service.common.XlsxMetadataProbe;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.example.finance.service.common.XlsxTestFiles.s3Service;
+import static com.example.finance.service.common.XlsxTestFiles.toBytes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class FileProfileServiceTest {
+
+    private static final String KEY = "projects/p/sessions/s/uploads/u/test.xlsx";
+
+    @Test
+    void amountSumMatchesPoiCalculation() throws IOException {
+        byte[] xlsx = workbook(sheet -> {
+            Object[][] rows = {
+                    {"계정명", "금액"},
+                    {"현금", 1500.5},
+                    {"예금", "1,234,000원"},
+                    {"현금", "-300"},
+                    {"매출", "해당 없음"},
+                    {"매출", true},
+                    {"  예금 ", 0.25},
+                    {"비용", "1.2.3"},
+            };
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i);
+                for (int c = 0; c < rows[i].length; c++) {
+                    Object value = rows[i][c];
+                    Cell cell = row.createCell(c);
+                    if (value instanceof String text) {
+                        cell.setCellValue(text);
+                    } else if (value instanceof Double number) {
+                        cell.setCellValue(number);
+                    } else if (value instanceof Boolean bool) {
+                        cell.setCellValue(bool);
+                    }
+                }
+            }
+            // 수식 셀은 캐시 값이 있어도 합계에서 제외 (기존 금액 합산과 동일)
+            Cell formula = sheet.createRow(rows.length).createCell(1);
+            formula.setCellFormula("B2*2");
+            formula.setCellValue(3001);
+            sheet.createRow(rows.length + 2).createCell(1).setCellValue(10);
+        });
+
+        List<ColumnProfile> columns = service(xlsx, 10000, 4).computeProfile(file(xlsx), "etag")
+                .profile().getColumns();
+
+        assertEquals(poiTotalAmount(xlsx, 1), columns.get(1).getAmountSum(), 1e-9);
+        assertEquals(1500.5 + 1234000 - 300 + 0.25 + 10, columns.get(1).getAmountSum(), 1e-9);
+        assertEquals(3, columns.get(1).getNumericCount());
+        assertEquals(0.25, columns.get(1).getMin());
+        assertEquals(1500.5, columns.get(1).getMax());
+    }
+
+    @Test
+    void distinctValuesAreCappedByCount() throws IOException {
+        byte[] xlsx = workbook(sheet -> {
+            sheet.createRow(0).createCell(0).setCellValue("계정명");
+            for (int i = 1; i <= 50; i++) {
+                sheet.createRow(i).createCell(0).setCellValue("계정" + (i % 20));
+            }
+        });
+
+        FileProfileService.ComputedProfile exact = service(xlsx, 20, 4).computeProfile(file(xlsx), "etag");
+        assertFalse(exact.profile().getColumns().get(0).getDistinctTruncated());
+        assertEquals(20, exact.profile().getColumns().get(0).getDistinctCount());
+        assertEquals(20, exact.distinctValues().get(0).getValues().size());
+        assertEquals("file-1:0", exact.distinctValues().get(0).getId());
+
+        FileProfileService.ComputedProfile capped = service(xlsx, 19, 4).computeProfile(file(xlsx), "etag");
+        assertTrue(capped.profile().getColumns().get(0).getDistinctTruncated());
+        assertEquals(19, capped.distinctValues().get(0).getValues().size());
+        assertEquals("계정1", capped.distinctValues().get(0).getValues().get(0));
+    }
+
+    @Test
+    void distinctValuesAreCappedByBytes() throws IOException {
+        // 값 하나 = 한글 400자 = UTF-8 1200바이트 → 1MB 에 약 865개
+        String padding = "가".repeat(400);
+        byte[] xlsx = workbook(sheet -> {
+            sheet.createRow(0).createCell(0).setCellValue("적요");
+            for (int i = 1; i <= 1000; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(padding + i);
+            }
+        });
+
+        FileProfileService.ComputedProfile profile = service(xlsx, 10000, 1).computeProfile(file(xlsx), "etag");
+        List<String> values = profile.distinctValues().get(0).getValues();
+        long bytes = values.stream()
+                .mapToLong(v -> FileProfileService.utf8Length(v) + FileProfileService.DISTINCT_VALUE_OVERHEAD_BYTES)
+                .sum();
+
+        assertTrue(profile.profile().getColumns().get(0).getDistinctTruncated());
+        assertTrue(bytes <= 1 << 20, "bytes=" + bytes);
+        assertTrue(values.size() > 800 && values.size() < 1000, "values=" + values.size());
+        assertEquals(1000, profile.profile().getColumns().get(0).getNonNullCount());
+    }
+
+    @Test
+    void distinctCountIsEstimatedPastLimit() throws IOException {
+        int distinct = 30_000;
+        byte[] xlsx = workbook(sheet -> {
+            sheet.createRow(0).createCell(0).setCellValue("거래처");
+            for (int i = 1; i <= distinct; i++) {
+                sheet.createRow(i).createCell(0).setCellValue("거래처-" + i);
+            }
+        });
+
+        ColumnProfile column = service(xlsx, 1000, 4).computeProfile(file(xlsx), "etag")
+                .profile().getColumns().get(0);
+
+        assertTrue(column.getDistinctTruncated());
+        assertEquals(distinct, column.getDistinctCount(), distinct * 0.05);
+    }
+
+    @Test
+    void utf8LengthMatchesEncoder() {
+        for (String value : List.of("abc", "계정명", "é", "😀x")) {
+            assertEquals(value.getBytes(StandardCharsets.UTF_8).length,
+                    FileProfileService.utf8Length(value), value);
+        }
+    }
+
+    /**
+     * 기존 UploadService.calculateTotalAmount 의 POI 기반 합산 (프로파일 도입 전 기준)
+     */
+    private static double poiTotalAmount(byte[] xlsx, int columnIndex) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            double totalAmount = 0.0;
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) continue;
+
+                Cell cell = row.getCell(columnIndex);
+                if (cell == null) continue;
+
+                if (cell.getCellType() == CellType.NUMERIC) {
+                    totalAmount += cell.getNumericCellValue();
+                } else if (cell.getCellType() == CellType.STRING) {
+                    String value = cell.getStringCellValue().replaceAll("[^0-9.-]", "");
+                    if (!value.isEmpty()) {
+                        try {
+                            totalAmount += Double.parseDouble(value);
+                        } catch (NumberFormatException e) {
+                            // 무시
+                        }
+                    }
+                }
+            }
+            return totalAmount;
+        }
+    }
+
+    private static byte[] workbook(Consumer<Sheet> filler) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            filler.accept(workbook.createSheet("Sheet1"));
+            return toBytes(workbook);
+        }
+    }
+
+    private static FileProfileService service(byte[] xlsx, int distinctLimit, int distinctMaxMb) throws IOException {
+        S3Service s3Service = s3Service(xlsx);
+        FileProfileService service = new FileProfileService(new XlsxMetadataProbe(s3Service), s3Service,
+                mock(FileProfileRepository.class), mock(ColumnDistinctValuesRepository.class));
+        ReflectionTestUtils.setField(service, "distinctLimit", distinctLimit);
+        ReflectionTestUtils.setField(service, "distinctMaxMb", distinctMaxMb);
+        ReflectionTestUtils.setField(service, "memoryBudgetMb", 512);
+        return service;
+    }
+
+    private static UploadedFileInfo file(byte[] xlsx) {
+        return UploadedFileInfo.builder()
+                .fileId("file-1")
+                .s3Key(KEY)
+                .fileSize((long) xlsx.length)
+                .build();
+    }
+}
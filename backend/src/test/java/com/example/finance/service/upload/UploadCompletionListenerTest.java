@@ -0,0 +1,56 @@
+package com.example.finance.service.upload;
+
+import com.example.finance.model.upload.UploadSession;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadCompletionListenerTest {
+
+    @Test
+    void completesOnlyMatchingGeneration() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        new UploadCompletionListener(mongoTemplate, new ObjectMapper()).onMessage(message(
+                "{\"uploadId\":\"upload-1\",\"status\":\"COMPLETED\",\"totalRows\":10,\"totalChunks\":2,\"generation\":3}"),
+                null);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(UploadSession.class));
+        assertEquals(new Document("upload_id", "upload-1").append("ingest_generation", 3),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void ignoresEventWithoutGeneration() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+        new UploadCompletionListener(mongoTemplate, new ObjectMapper()).onMessage(message(
+                "{\"uploadId\":\"upload-1\",\"status\":\"COMPLETED\",\"totalRows\":10}"), null);
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(UploadCompletionListener.EVENT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}